@@ -0,0 +1,9 @@
+-- AI service responses keyed by the input payload's ContentHash and the prompt/model version (AiResultCache)
+CREATE TABLE IF NOT EXISTS ai_analysis_cache (
+    id BIGSERIAL PRIMARY KEY,
+    input_hash VARCHAR(64) NOT NULL,
+    prompt_version VARCHAR(32) NOT NULL,
+    result JSON NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_ai_analysis_cache_input UNIQUE (input_hash, prompt_version)
+);
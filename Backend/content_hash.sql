@@ -0,0 +1,5 @@
+-- Content hashes used to skip rewriting unchanged data (util.ContentHash, SHA-256 hex)
+ALTER TABLE product_raw_data_cache ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+ALTER TABLE product_raw_segment ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+ALTER TABLE product ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+ALTER TABLE analysis_result ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
@@ -0,0 +1,12 @@
+-- Ingested reviews, one row per review, written page by page as they arrive (ReviewStore).
+-- The REVIEWS row in product_raw_segment marks a complete ingestion; these rows hold the reviews.
+CREATE TABLE IF NOT EXISTS product_review (
+    id BIGSERIAL PRIMARY KEY,
+    external_product_id VARCHAR(255) NOT NULL,
+    review_key VARCHAR(64) NOT NULL,
+    raw_json JSON NOT NULL,
+    fetched_at TIMESTAMP NOT NULL,
+    expiry_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_product_review_product_key UNIQUE (external_product_id, review_key)
+);
+CREATE INDEX IF NOT EXISTS idx_product_review_expiry_at ON product_review(expiry_at);
@@ -0,0 +1,4 @@
+-- Binary storage mode for product_raw_data_cache (product.raw-cache.storage-format=smile-lz4)
+-- raw_payload holds the LZ4-compressed Smile payload; raw_json stays NULL for such rows
+ALTER TABLE product_raw_data_cache ADD COLUMN IF NOT EXISTS raw_payload BYTEA;
+ALTER TABLE product_raw_data_cache ALTER COLUMN raw_json DROP NOT NULL;
@@ -0,0 +1,2 @@
+-- Index used by the background expiry sweeper (RawCacheSweeper) on product_raw_data_cache
+CREATE INDEX IF NOT EXISTS idx_raw_cache_expiry_at ON product_raw_data_cache(expiry_at);
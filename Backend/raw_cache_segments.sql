@@ -0,0 +1,13 @@
+-- Separately expiring segments of a product's raw data (RawSegmentStore).
+-- product_raw_data_cache keeps the stable document; PRICE and REVIEWS live here.
+CREATE TABLE IF NOT EXISTS product_raw_segment (
+    id BIGSERIAL PRIMARY KEY,
+    external_product_id VARCHAR(255) NOT NULL,
+    segment VARCHAR(16) NOT NULL,
+    raw_json JSON,
+    raw_payload BYTEA,
+    cached_at TIMESTAMP NOT NULL,
+    expiry_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_raw_segment_product_segment UNIQUE (external_product_id, segment)
+);
+CREATE INDEX IF NOT EXISTS idx_raw_segment_expiry_at ON product_raw_segment(expiry_at);
@@ -0,0 +1,120 @@
+package com.example.backend.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BrandMatcher against the String.contains chain it replaced in extractBrand, and against
+ * that chain grown to the whole brands.txt dictionary (what BrandMatcher covers).
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BrandMatcher
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BrandMatcherBenchmark {
+
+    private static final String[] TITLES = {
+            "Apple iPhone 15 (128 GB) - Black",
+            "Samsung Galaxy S24 Ultra 5G AI Smartphone (Titanium Gray, 12GB, 256GB Storage)",
+            "Redmi Note 13 Pro (Arctic White, 8GB RAM, 256GB Storage)",
+            "boAt Rockerz 255 Pro+ Bluetooth in Ear Earphones with Upto 60 Hours Playback",
+            "Tata Sampann Unpolished Toor Dal/Arhar Dal, 1kg",
+            "Portable Mini Fan, USB Rechargeable Handheld Fan with 3 Speeds",
+            "Stainless Steel Water Bottle 1 Litre, Leak Proof, BPA Free, Office Gym Bottle",
+            "Generic Type-C to USB-A braided fast charging data cable, 1.5 metre, assorted colours"
+    };
+
+    // Index into TITLES; the no-brand titles are the worst case for both contains chains
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7"})
+    public int titleIndex;
+
+    private String title;
+    private BrandMatcher matcher;
+    // {canonical brand, lower-case alias} in dictionary order
+    private List<String[]> aliases;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        title = TITLES[titleIndex];
+        try (InputStream in = BrandMatcherBenchmark.class.getResourceAsStream("/brands/brands.txt")) {
+            matcher = BrandMatcher.load(in);
+        }
+        aliases = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                BrandMatcherBenchmark.class.getResourceAsStream("/brands/brands.txt"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                String brand = (colon < 0 ? line : line.substring(0, colon)).trim();
+                aliases.add(new String[]{brand, brand.toLowerCase(Locale.ROOT)});
+                if (colon >= 0) {
+                    for (String alias : line.substring(colon + 1).split(",")) {
+                        if (!alias.isBlank()) {
+                            aliases.add(new String[]{brand, alias.trim().toLowerCase(Locale.ROOT)});
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public String matcher() {
+        return matcher.match(title);
+    }
+
+    // extractBrand before BrandMatcher, verbatim
+    @Benchmark
+    public String nineBrandContainsChain() {
+        String t = title.toLowerCase();
+        if (t.contains("iphone") || t.contains("apple")) return "Apple";
+        if (t.contains("samsung")) return "Samsung";
+        if (t.contains("oneplus")) return "OnePlus";
+        if (t.contains("vivo")) return "Vivo";
+        if (t.contains("oppo")) return "Oppo";
+        if (t.contains("xiaomi") || t.contains("redmi")) return "Xiaomi";
+        if (t.contains("asus")) return "Asus";
+        if (t.contains("realme")) return "Realme";
+        if (t.contains("motorola") || t.contains("moto")) return "Motorola";
+        return null;
+    }
+
+    @Benchmark
+    public String dictionaryContainsChain() {
+        String t = title.toLowerCase(Locale.ROOT);
+        for (String[] alias : aliases) {
+            if (t.contains(alias[1])) {
+                return alias[0];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.backend.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NumericExtractor against the replaceAll-then-parse code it replaced in
+ * ProductServiceImpl (extractPrice, extractRating, extractReviewCount), on typical
+ * upstream strings. Only inputs the old code parsed without throwing are used.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=NumericExtractor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericExtractorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Price {
+        @Param({"₹1,29,999.00", "$1,049.99", "Rs. 499"})
+        public String text;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Rating {
+        @Param({"4.1 out of 5 stars", "3.9"})
+        public String text;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Count {
+        @Param({"12,345 ratings", "1,02,411"})
+        public String text;
+    }
+
+    @Benchmark
+    public double regexPrice(Price price) {
+        return Double.parseDouble(price.text.replaceAll("[^0-9.,]", "").replace(",", ""));
+    }
+
+    @Benchmark
+    public double extractorPrice(Price price) {
+        return NumericExtractor.parsePrice(price.text);
+    }
+
+    @Benchmark
+    public double regexRating(Rating rating) {
+        return Double.parseDouble(rating.text.replaceAll("[^0-9.]", ""));
+    }
+
+    @Benchmark
+    public double extractorRating(Rating rating) {
+        return NumericExtractor.parseRating(rating.text);
+    }
+
+    @Benchmark
+    public int regexCount(Count count) {
+        return Integer.parseInt(count.text.replaceAll("[^0-9]", ""));
+    }
+
+    @Benchmark
+    public long extractorCount(Count count) {
+        return NumericExtractor.parseCount(count.text);
+    }
+}
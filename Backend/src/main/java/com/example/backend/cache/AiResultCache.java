@@ -0,0 +1,104 @@
+package com.example.backend.cache;
+
+import com.example.backend.entity.AiAnalysisCache;
+import com.example.backend.repository.AiAnalysisCacheRepository;
+import com.example.backend.util.ContentHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-addressed cache of AI service responses, in ai_analysis_cache.
+ *
+ * The key is the {@link ContentHash} of the exact payload sent to the AI service plus
+ * ai.cache.prompt-version, so the same input is analyzed once per prompt/model version
+ * however often the product or analysis rows are recreated. Bump the version whenever
+ * the prompt or model behind the AI service changes.
+ * Lookup failures are treated as misses; the cache never fails an analysis.
+ */
+@Slf4j
+@Component
+public class AiResultCache {
+
+    private final AiAnalysisCacheRepository repository;
+    private final boolean enabled;
+    private final String promptVersion;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public AiResultCache(
+            AiAnalysisCacheRepository repository,
+            @Value("${ai.cache.enabled:true}") boolean enabled,
+            @Value("${ai.cache.prompt-version:v1}") String promptVersion) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.promptVersion = promptVersion;
+    }
+
+    /**
+     * Cache key of a payload, or null when caching is off or the payload is not JSON
+     */
+    public String keyOf(String payload) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            return ContentHash.ofJson(payload);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public Optional<Map<String, Object>> find(String inputHash) {
+        try {
+            Optional<Map<String, Object>> result = repository
+                    .findByInputHashAndPromptVersion(inputHash, promptVersion)
+                    .map(row -> new LinkedHashMap<>(row.getResult()));
+            (result.isPresent() ? hits : misses).increment();
+            return result;
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("AI result cache lookup failed for {}: {}", inputHash, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void store(String inputHash, Map<String, Object> result) {
+        AiAnalysisCache row = new AiAnalysisCache();
+        row.setInputHash(inputHash);
+        row.setPromptVersion(promptVersion);
+        row.setResult(new LinkedHashMap<>(result));
+        row.setCreatedAt(LocalDateTime.now());
+        try {
+            repository.save(row);
+            stores.increment();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent analysis of the same input stored it first
+            log.debug("AI result for {} already cached", inputHash);
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Failed to cache AI result for {}: {}", inputHash, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("promptVersion", promptVersion);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("stores", stores.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+}
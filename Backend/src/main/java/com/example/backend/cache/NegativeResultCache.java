@@ -0,0 +1,120 @@
+package com.example.backend.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, short-lived ASIN → failed-outcome cache for product details lookups.
+ *
+ * NOT_FOUND: the upstream answered but has no such product (404 or an empty data block).
+ * UPSTREAM_FAILED: the lookup itself failed (5xx without a stale copy, timeout, I/O error).
+ *
+ * Each outcome has its own TTL; a TTL of 0 disables caching that outcome. While an entry
+ * is live, repeat lookups get the cached outcome without calling the upstream.
+ */
+@Component
+public class NegativeResultCache {
+
+    public enum Outcome {
+        NOT_FOUND, UPSTREAM_FAILED
+    }
+
+    private record Entry(Outcome outcome, long expiresAtNanos) {
+    }
+
+    private final int maxEntries;
+    private final Map<Outcome, Long> ttlNanos = new EnumMap<>(Outcome.class);
+    private final Map<String, Entry> entries;
+
+    private final Map<Outcome, LongAdder> hits = new EnumMap<>(Outcome.class);
+    private final Map<Outcome, LongAdder> recorded = new EnumMap<>(Outcome.class);
+    private final LongAdder cleared = new LongAdder();
+
+    public NegativeResultCache(
+            @Value("${product.negative-cache.max-entries:10000}") int maxEntries,
+            @Value("${product.negative-cache.not-found-ttl-seconds:1800}") long notFoundTtlSeconds,
+            @Value("${product.negative-cache.upstream-failed-ttl-seconds:60}") long upstreamFailedTtlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos.put(Outcome.NOT_FOUND, TimeUnit.SECONDS.toNanos(notFoundTtlSeconds));
+        this.ttlNanos.put(Outcome.UPSTREAM_FAILED, TimeUnit.SECONDS.toNanos(upstreamFailedTtlSeconds));
+        for (Outcome outcome : Outcome.values()) {
+            hits.put(outcome, new LongAdder());
+            recorded.put(outcome, new LongAdder());
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > NegativeResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The live cached outcome for the key, if any
+     */
+    public Optional<Outcome> get(String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos() - System.nanoTime() <= 0) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            return Optional.empty();
+        }
+        hits.get(entry.outcome()).increment();
+        return Optional.of(entry.outcome());
+    }
+
+    public void record(String key, Outcome outcome) {
+        long ttl = ttlNanos.get(outcome);
+        if (ttl <= 0) {
+            return;
+        }
+        recorded.get(outcome).increment();
+        Entry entry = new Entry(outcome, System.nanoTime() + ttl);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Forgets the key after a successful lookup
+     */
+    public void clear(String key) {
+        Entry removed;
+        synchronized (entries) {
+            removed = entries.remove(key);
+        }
+        if (removed != null) {
+            cleared.increment();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("cleared", cleared.sum());
+        for (Outcome outcome : Outcome.values()) {
+            Map<String, Object> outcomeStats = new LinkedHashMap<>();
+            outcomeStats.put("ttlSeconds", TimeUnit.NANOSECONDS.toSeconds(ttlNanos.get(outcome)));
+            outcomeStats.put("hits", hits.get(outcome).sum());
+            outcomeStats.put("recorded", recorded.get(outcome).sum());
+            stats.put(outcome.name().toLowerCase(Locale.ROOT), outcomeStats);
+        }
+        return stats;
+    }
+}
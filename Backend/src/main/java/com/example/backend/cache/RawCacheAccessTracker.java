@@ -0,0 +1,103 @@
+package com.example.backend.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Approximate access frequency of raw-cache lookups per ASIN.
+ *
+ * Counts are halved by {@link #decay()} (once per refresher run), so they follow
+ * recent popularity rather than all-time totals. The number of tracked ASINs is capped;
+ * lookups of new ASINs beyond the cap are not tracked until decay frees room.
+ *
+ * Also holds the ASINs that were served with an expired price segment, so the refresher
+ * renews their price on its next run whatever their hit count.
+ */
+@Component
+public class RawCacheAccessTracker {
+
+    private final int maxTracked;
+    private final Map<String, AtomicLong> hits = new ConcurrentHashMap<>();
+    private final LongAdder untracked = new LongAdder();
+    private final Set<String> stalePrices = ConcurrentHashMap.newKeySet();
+
+    public RawCacheAccessTracker(@Value("${product.raw-cache.refresh.max-tracked:10000}") int maxTracked) {
+        this.maxTracked = maxTracked;
+    }
+
+    public void recordAccess(String externalProductId) {
+        AtomicLong count = hits.get(externalProductId);
+        if (count == null) {
+            if (hits.size() >= maxTracked) {
+                untracked.increment();
+                return;
+            }
+            count = hits.computeIfAbsent(externalProductId, id -> new AtomicLong());
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * Most accessed ASINs with at least minHits recent accesses, hottest first
+     */
+    public List<String> hottest(int limit, long minHits) {
+        return hits.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().get()))
+                .filter(e -> e.getValue() >= minHits)
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public long hits(String externalProductId) {
+        AtomicLong count = hits.get(externalProductId);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Records that the ASIN was served with its last known, expired price
+     */
+    public void markPriceStale(String externalProductId) {
+        if (stalePrices.size() < maxTracked) {
+            stalePrices.add(externalProductId);
+        }
+    }
+
+    public List<String> stalePrices(int limit) {
+        return stalePrices.stream().limit(limit).toList();
+    }
+
+    public void clearPriceStale(String externalProductId) {
+        stalePrices.remove(externalProductId);
+    }
+
+    public void decay() {
+        for (String id : hits.keySet()) {
+            hits.computeIfPresent(id, (key, count) -> {
+                long halved = count.get() / 2;
+                if (halved == 0) {
+                    return null;
+                }
+                count.set(halved);
+                return count;
+            });
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "tracked", hits.size(),
+                "maxTracked", maxTracked,
+                "untrackedAccesses", untracked.sum(),
+                "stalePricesPending", stalePrices.size());
+    }
+}
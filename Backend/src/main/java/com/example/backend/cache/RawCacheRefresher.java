@@ -0,0 +1,217 @@
+package com.example.backend.cache;
+
+import com.example.backend.DTO.cache.RawCacheDTO;
+import com.example.backend.client.RapidApiClient;
+import com.example.backend.client.RapidApiQuotaGovernor;
+import com.example.backend.client.RequestPriority;
+import com.example.backend.entity.ProductRawSegment;
+import com.example.backend.repository.ProductRawDataCacheRepository;
+import com.example.backend.repository.ProductRawSegmentRepository;
+import com.example.backend.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Refresh-ahead for popular raw-cache entries.
+ *
+ * Every run takes the hottest ASINs from {@link RawCacheAccessTracker}, finds those whose
+ * stable row or price segment expires within the refresh-ahead window, adds those that were
+ * served with an expired price, and re-fetches them (hottest first) in the BACKGROUND quota lane. Saving the result renews the price segment
+ * and, only when it is due as well, the stable document (see {@link RawSegmentStore}).
+ *
+ * Upstream spend is capped twice: by quota-share of the daily RapidAPI budget per day,
+ * and by the same share of what is left today per run. Without a daily budget only
+ * max-per-run applies. Runs are skipped while the product-details circuit is not closed,
+ * and stop early after repeated failures (e.g. quota shed).
+ */
+@Slf4j
+@Component
+public class RawCacheRefresher {
+
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+
+    private final RawCacheAccessTracker accessTracker;
+    private final ProductRawDataCacheRepository cacheRepository;
+    private final ProductRawSegmentRepository segmentRepository;
+    private final ProductService productService;
+    private final RapidApiQuotaGovernor quotaGovernor;
+    private final RapidApiClient rapidApiClient;
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final long refreshAheadMs;
+    private final long minHits;
+    private final int candidates;
+    private final int maxPerRun;
+    private final double quotaShare;
+
+    private LocalDate day = LocalDate.now();
+    private long attemptsToday;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder refreshed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder deferredForBudget = new LongAdder();
+
+    public RawCacheRefresher(
+            RawCacheAccessTracker accessTracker,
+            ProductRawDataCacheRepository cacheRepository,
+            ProductRawSegmentRepository segmentRepository,
+            ProductService productService,
+            RapidApiQuotaGovernor quotaGovernor,
+            RapidApiClient rapidApiClient,
+            ObjectMapper objectMapper,
+            @Value("${product.raw-cache.refresh.enabled:true}") boolean enabled,
+            @Value("${product.raw-cache.refresh.ahead-ms:1800000}") long refreshAheadMs,
+            @Value("${product.raw-cache.refresh.min-hits:2}") long minHits,
+            @Value("${product.raw-cache.refresh.candidates:200}") int candidates,
+            @Value("${product.raw-cache.refresh.max-per-run:20}") int maxPerRun,
+            @Value("${product.raw-cache.refresh.quota-share:0.1}") double quotaShare) {
+        this.accessTracker = accessTracker;
+        this.cacheRepository = cacheRepository;
+        this.segmentRepository = segmentRepository;
+        this.productService = productService;
+        this.quotaGovernor = quotaGovernor;
+        this.rapidApiClient = rapidApiClient;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.refreshAheadMs = refreshAheadMs;
+        this.minHits = minHits;
+        this.candidates = candidates;
+        this.maxPerRun = maxPerRun;
+        this.quotaShare = quotaShare;
+    }
+
+    @Scheduled(initialDelayString = "${product.raw-cache.refresh.interval-ms:300000}",
+            fixedDelayString = "${product.raw-cache.refresh.interval-ms:300000}")
+    public void refreshHotEntries() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            runOnce();
+        } catch (Exception e) {
+            log.error("Raw cache refresh-ahead failed: {}", e.getMessage(), e);
+        } finally {
+            accessTracker.decay();
+        }
+    }
+
+    private void runOnce() {
+        runs.increment();
+
+        List<String> hot = accessTracker.hottest(candidates, minHits);
+        List<String> stalePrices = accessTracker.stalePrices(candidates);
+        if (hot.isEmpty() && stalePrices.isEmpty()) {
+            return;
+        }
+        // With the circuit open we would only get back what is already cached
+        if (!rapidApiClient.isAvailable(RapidApiClient.Endpoint.PRODUCT_DETAILS)) {
+            log.info("Raw cache refresh-ahead skipped: product details circuit not closed");
+            return;
+        }
+
+        // Due when either the stable document or the short-lived price segment expires soon,
+        // or the price already expired and was served stale
+        LocalDateTime horizon = LocalDateTime.now().plus(Duration.ofMillis(refreshAheadMs));
+        Stream<String> expiringSoon = hot.isEmpty() ? Stream.empty() : Stream.concat(
+                        cacheRepository.findByExternalProductIdInAndExpiryAtBefore(hot, horizon).stream(),
+                        segmentRepository.findByExternalProductIdInAndSegmentAndExpiryAtBefore(
+                                hot, ProductRawSegment.Segment.PRICE, horizon).stream())
+                .map(ProductRawDataCacheRepository.ExpiryView::getExternalProductId);
+        List<String> due = Stream.concat(expiringSoon, stalePrices.stream())
+                .distinct()
+                .sorted(Comparator.comparingLong(accessTracker::hits).reversed())
+                .toList();
+        if (due.isEmpty()) {
+            return;
+        }
+
+        int budget = budget();
+        if (budget < due.size()) {
+            deferredForBudget.add(due.size() - budget);
+        }
+
+        int consecutiveFailures = 0;
+        int done = 0;
+        for (String asin : due.subList(0, Math.min(budget, due.size()))) {
+            if (refresh(asin)) {
+                done++;
+                consecutiveFailures = 0;
+            } else if (++consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                log.warn("Raw cache refresh-ahead stopped after {} consecutive failures", consecutiveFailures);
+                break;
+            }
+        }
+        log.info("Raw cache refresh-ahead: {} due, {} refreshed (budget {})", due.size(), done, budget);
+    }
+
+    // Upstream calls this run may spend
+    private int budget() {
+        long dailyLimit = quotaGovernor.dailyLimit();
+        if (dailyLimit <= 0) {
+            return maxPerRun;
+        }
+
+        LocalDate today = LocalDate.now();
+        if (!today.equals(day)) {
+            day = today;
+            attemptsToday = 0;
+        }
+        long leftForRefresh = (long) (dailyLimit * quotaShare) - attemptsToday;
+        long shareOfRemaining = (long) (quotaGovernor.remainingToday() * quotaShare);
+        return (int) Math.max(0, Math.min(maxPerRun, Math.min(leftForRefresh, shareOfRemaining)));
+    }
+
+    private boolean refresh(String asin) {
+        // Counts against the budget whether or not the fetch succeeds
+        attemptsToday++;
+        // A failed attempt is not retried until the stale price is served again
+        accessTracker.clearPriceStale(asin);
+        try {
+            Map<String, Object> details = productService.fetchProductDetails(asin, RequestPriority.BACKGROUND);
+            // Never overwrite real data with the mock/error fallbacks, nor renew an expired
+            // document served back while this lane was shed or the circuit open
+            if (!ProductService.isFreshDetails(details)) {
+                failed.increment();
+                return false;
+            }
+
+            RawCacheDTO dto = new RawCacheDTO();
+            dto.setProductId(asin);
+            dto.setRawJson(objectMapper.writeValueAsString(details));
+            productService.saveRawCache(dto);
+
+            refreshed.increment();
+            return true;
+        } catch (Exception e) {
+            log.warn("Refresh-ahead failed for ASIN {}: {}", asin, e.getMessage());
+            failed.increment();
+            return false;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("runs", runs.sum());
+        stats.put("refreshed", refreshed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("deferredForBudget", deferredForBudget.sum());
+        stats.put("tracker", accessTracker.stats());
+        return stats;
+    }
+}
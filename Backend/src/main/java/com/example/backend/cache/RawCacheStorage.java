@@ -0,0 +1,93 @@
+package com.example.backend.cache;
+
+import com.example.backend.entity.ProductRawDataCache;
+import com.example.backend.util.RawPayload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides how a raw payload is stored in a product_raw_data_cache row.
+ *
+ * json (default): the json column, as before.
+ * smile-lz4: the raw_payload bytea column, as a {@link RawPayload}; the json column stays null.
+ *
+ * Rows are always readable in both formats, so the mode can be switched at any time;
+ * existing rows are rewritten in the new format the next time they are saved.
+ * Writes go through {@link RawCacheWriter}.
+ */
+@Slf4j
+@Component
+public class RawCacheStorage {
+
+    public enum Format {
+        JSON, SMILE_LZ4
+    }
+
+    private final Format format;
+
+    private final LongAdder payloadsEncoded = new LongAdder();
+    private final LongAdder payloadBytesEncoded = new LongAdder();
+
+    public RawCacheStorage(@Value("${product.raw-cache.storage-format:json}") String format) {
+        this.format = Format.valueOf(format.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        log.info("Raw cache storage format: {}", this.format);
+    }
+
+    /**
+     * Column values of a payload in the configured format
+     *
+     * @param json    raw_json value, or null in binary mode
+     * @param payload binary form; stored as raw_payload in binary mode, and always what L1 caches
+     */
+    public record Encoded(String json, RawPayload payload) {
+
+        public byte[] payloadColumn() {
+            return json == null ? payload.bytes() : null;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if rawJson is not a well-formed JSON object
+     */
+    public Encoded encode(String rawJson) {
+        // Transcoding validates the document in both modes
+        RawPayload payload = RawPayload.fromJson(rawJson);
+        payloadsEncoded.increment();
+        if (format == Format.SMILE_LZ4) {
+            payloadBytesEncoded.add(payload.size());
+            return new Encoded(null, payload);
+        }
+        return new Encoded(rawJson, payload);
+    }
+
+    /**
+     * Payload of the row in whichever format it was stored, or null if it has none
+     */
+    public RawPayload payload(ProductRawDataCache row) {
+        if (row.getRawPayload() != null) {
+            return RawPayload.wrap(row.getRawPayload());
+        }
+        return row.getRawJson() != null ? RawPayload.fromMap(row.getRawJson()) : null;
+    }
+
+    public Map<String, Object> read(ProductRawDataCache row) {
+        if (row.getRawPayload() != null) {
+            return RawPayload.wrap(row.getRawPayload()).toMap();
+        }
+        return row.getRawJson();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("format", format.name());
+        stats.put("payloadsEncoded", payloadsEncoded.sum());
+        stats.put("binaryPayloadBytesEncoded", payloadBytesEncoded.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.backend.cache;
+
+import com.example.backend.repository.ProductRawDataCacheRepository;
+import com.example.backend.repository.ProductRawSegmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Removes expired product_raw_data_cache, product_raw_segment and product_review rows in the background.
+ *
+ * Each batch is one short transaction deleting at most batch-size rows through the
+ * expiry_at index, so a large backlog never holds locks for long. A run stops when a
+ * batch comes back short or after max-batches. Read paths only treat expired rows
+ * as misses; the sweeper is the single place that deletes them. L1 entries expire
+ * on their own at the same expiryAt.
+ */
+@Slf4j
+@Component
+public class RawCacheSweeper {
+
+    private final ProductRawDataCacheRepository cacheRepository;
+    private final ProductRawSegmentRepository segmentRepository;
+    private final ReviewStore reviewStore;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+
+    // Scheduled and on-demand sweeps must not overlap
+    private final ReentrantLock running = new ReentrantLock();
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rowsRemoved = new LongAdder();
+    private final AtomicLong lastRunRows = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private final AtomicLong maxRunMillis = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+
+    public RawCacheSweeper(
+            ProductRawDataCacheRepository cacheRepository,
+            ProductRawSegmentRepository segmentRepository,
+            ReviewStore reviewStore,
+            TransactionTemplate transactionTemplate,
+            @Value("${product.raw-cache.sweep.batch-size:500}") int batchSize,
+            @Value("${product.raw-cache.sweep.max-batches:100}") int maxBatches) {
+        this.cacheRepository = cacheRepository;
+        this.segmentRepository = segmentRepository;
+        this.reviewStore = reviewStore;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(initialDelayString = "${product.raw-cache.sweep.initial-delay-ms:60000}",
+            fixedDelayString = "${product.raw-cache.sweep.interval-ms:600000}")
+    public void scheduledSweep() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            log.error("Raw cache sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return rows removed by this run, or 0 if another run is in progress
+     */
+    public int sweep() {
+        if (!running.tryLock()) {
+            log.info("Raw cache sweep already running, skipping");
+            return 0;
+        }
+        long startedAt = System.nanoTime();
+        int removed = 0;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            removed += sweepTable(limit -> cacheRepository.deleteExpiredBatch(now, limit));
+            removed += sweepTable(limit -> segmentRepository.deleteExpiredBatch(now, limit));
+            removed += sweepTable(limit -> reviewStore.deleteExpiredBatch(now, limit));
+            return removed;
+        } catch (RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            runs.increment();
+            rowsRemoved.add(removed);
+            lastRunRows.set(removed);
+            lastRunMillis.set(millis);
+            maxRunMillis.accumulateAndGet(millis, Math::max);
+            lastRunAt = LocalDateTime.now();
+            running.unlock();
+            if (removed > 0) {
+                log.info("Raw cache sweep removed {} expired rows in {} ms", removed, millis);
+            }
+        }
+    }
+
+    // Deletes in batches of batch-size until a batch comes back short or max-batches is reached
+    private int sweepTable(IntUnaryOperator deleteExpiredBatch) {
+        int removed = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer deleted = transactionTemplate.execute(
+                    status -> deleteExpiredBatch.applyAsInt(batchSize));
+            removed += deleted != null ? deleted : 0;
+            if (deleted == null || deleted < batchSize) {
+                break;
+            }
+        }
+        return removed;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("runs", runs.sum());
+        stats.put("failures", failures.sum());
+        stats.put("rowsRemoved", rowsRemoved.sum());
+        stats.put("lastRunRows", lastRunRows.get());
+        stats.put("lastRunMs", lastRunMillis.get());
+        stats.put("maxRunMs", maxRunMillis.get());
+        stats.put("lastRunAt", lastRunAt != null ? lastRunAt.toString() : null);
+        return stats;
+    }
+}
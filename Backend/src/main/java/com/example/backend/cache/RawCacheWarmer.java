@@ -0,0 +1,230 @@
+package com.example.backend.cache;
+
+import com.example.backend.DTO.cache.RawCacheDTO;
+import com.example.backend.client.RapidApiClient;
+import com.example.backend.client.RequestPriority;
+import com.example.backend.repository.SearchHistoryRepository;
+import com.example.backend.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional startup warm-up of the raw cache for the most searched products.
+ *
+ * Ranks the top-n products by search_history volume over the lookback window and, in
+ * that order, loads each one: a valid cached row is only pulled into L1, a missing one
+ * is fetched in the BACKGROUND quota lane and saved. Upstream fetches are capped by
+ * max-fetches and paced to fetches-per-second.
+ *
+ * Runs as an ApplicationRunner, which holds back Spring Boot's readiness event
+ * (ReadinessState.ACCEPTING_TRAFFIC is published after runners complete) until
+ * ready-fraction of the products are loaded (already cached or fetched), the pass
+ * ends, or max-wait-ms passes. Products skipped for budget or an open circuit, and
+ * failed fetches, do not count towards readiness. The rest continues in the background.
+ */
+@Slf4j
+@Component
+public class RawCacheWarmer implements ApplicationRunner {
+
+    public enum State {
+        DISABLED, RUNNING, DONE
+    }
+
+    private final SearchHistoryRepository searchHistoryRepository;
+    private final ProductService productService;
+    private final RapidApiClient rapidApiClient;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService outboundExecutor;
+
+    private final boolean enabled;
+    private final int topN;
+    private final int lookbackDays;
+    private final int maxFetches;
+    private final double fetchesPerSecond;
+    private final double readyFraction;
+    private final long maxWaitMs;
+
+    private volatile State state;
+    private final CompletableFuture<Void> readyFractionDone = new CompletableFuture<>();
+    private final AtomicInteger planned = new AtomicInteger();
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger alreadyCached = new AtomicInteger();
+    private final AtomicInteger fetched = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger skippedForBudget = new AtomicInteger();
+    private volatile long durationMs;
+
+    public RawCacheWarmer(
+            SearchHistoryRepository searchHistoryRepository,
+            ProductService productService,
+            RapidApiClient rapidApiClient,
+            ObjectMapper objectMapper,
+            ExecutorService outboundExecutor,
+            @Value("${product.raw-cache.warmup.enabled:false}") boolean enabled,
+            @Value("${product.raw-cache.warmup.top-n:50}") int topN,
+            @Value("${product.raw-cache.warmup.lookback-days:7}") int lookbackDays,
+            @Value("${product.raw-cache.warmup.max-fetches:30}") int maxFetches,
+            @Value("${product.raw-cache.warmup.fetches-per-second:2}") double fetchesPerSecond,
+            @Value("${product.raw-cache.warmup.ready-fraction:0.8}") double readyFraction,
+            @Value("${product.raw-cache.warmup.max-wait-ms:60000}") long maxWaitMs) {
+        this.searchHistoryRepository = searchHistoryRepository;
+        this.productService = productService;
+        this.rapidApiClient = rapidApiClient;
+        this.objectMapper = objectMapper;
+        this.outboundExecutor = outboundExecutor;
+        this.enabled = enabled;
+        this.topN = topN;
+        this.lookbackDays = lookbackDays;
+        this.maxFetches = maxFetches;
+        this.fetchesPerSecond = fetchesPerSecond;
+        this.readyFraction = Math.max(0, Math.min(1, readyFraction));
+        this.maxWaitMs = maxWaitMs;
+        this.state = enabled ? State.RUNNING : State.DISABLED;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        List<String> asins;
+        try {
+            asins = searchHistoryRepository
+                    .findMostSearchedSince(LocalDateTime.now().minusDays(lookbackDays), PageRequest.of(0, topN))
+                    .stream()
+                    .map(SearchHistoryRepository.ProductSearchCount::getExternalProductId)
+                    .toList();
+        } catch (Exception e) {
+            log.error("Raw cache warm-up skipped, ranking failed: {}", e.getMessage(), e);
+            state = State.DONE;
+            return;
+        }
+        planned.set(asins.size());
+        if (asins.isEmpty()) {
+            state = State.DONE;
+            return;
+        }
+
+        int readyAfter = (int) Math.ceil(asins.size() * readyFraction);
+        log.info("Raw cache warm-up: {} products, ready after {}", asins.size(), readyAfter);
+        CompletableFuture.runAsync(() -> warm(asins, readyAfter), outboundExecutor);
+
+        try {
+            readyFractionDone.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Raw cache warm-up not at {}% after {} ms ({} of {} loaded), reporting ready anyway",
+                    Math.round(readyFraction * 100), maxWaitMs, loaded(), asins.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Raw cache warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    private void warm(List<String> asins, int readyAfter) {
+        long startedAt = System.nanoTime();
+        long fetchIntervalNanos = fetchesPerSecond > 0 ? (long) (1_000_000_000L / fetchesPerSecond) : 0;
+        long nextFetchAt = startedAt;
+        int fetches = 0;
+
+        try {
+            for (String asin : asins) {
+                try {
+                    if (productService.getRawCacheData(asin) != null) {
+                        alreadyCached.incrementAndGet();
+                        continue;
+                    }
+                    if (fetches >= maxFetches || !rapidApiClient.isAvailable(RapidApiClient.Endpoint.PRODUCT_DETAILS)) {
+                        skippedForBudget.incrementAndGet();
+                        continue;
+                    }
+
+                    long waitNanos = nextFetchAt - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                    nextFetchAt = System.nanoTime() + fetchIntervalNanos;
+                    fetches++;
+
+                    if (fetch(asin)) {
+                        fetched.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.warn("Raw cache warm-up failed for ASIN {}: {}", asin, e.getMessage());
+                    failed.incrementAndGet();
+                } finally {
+                    processed.incrementAndGet();
+                    if (loaded() >= readyAfter) {
+                        readyFractionDone.complete(null);
+                    }
+                }
+            }
+        } finally {
+            durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            state = State.DONE;
+            readyFractionDone.complete(null);
+            log.info("Raw cache warm-up done in {} ms: {} already cached, {} fetched, {} failed, {} over budget",
+                    durationMs, alreadyCached.get(), fetched.get(), failed.get(), skippedForBudget.get());
+        }
+    }
+
+    // Entries actually usable from the cache: only these count towards readiness
+    private int loaded() {
+        return alreadyCached.get() + fetched.get();
+    }
+
+    private boolean fetch(String asin) throws Exception {
+        Map<String, Object> details = productService.fetchProductDetails(asin, RequestPriority.BACKGROUND);
+        // Never cache the mock/error fallbacks, nor write back an expired document served
+        // while this lane was shed or the circuit open
+        if (!ProductService.isFreshDetails(details)) {
+            return false;
+        }
+        RawCacheDTO dto = new RawCacheDTO();
+        dto.setProductId(asin);
+        dto.setRawJson(objectMapper.writeValueAsString(details));
+        productService.saveRawCache(dto);
+        return true;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("planned", planned.get());
+        stats.put("processed", processed.get());
+        stats.put("loaded", loaded());
+        stats.put("alreadyCached", alreadyCached.get());
+        stats.put("fetched", fetched.get());
+        stats.put("failed", failed.get());
+        stats.put("skippedForBudget", skippedForBudget.get());
+        stats.put("readyFraction", readyFraction);
+        stats.put("durationMs", durationMs);
+        return stats;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.backend.cache;
+
+import com.example.backend.util.RawPayload;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single write path for product_raw_data_cache rows.
+ *
+ * Every write is one native INSERT ... ON CONFLICT (external_product_id) DO UPDATE,
+ * with the product link resolved by a subquery, so concurrent writers of the same ASIN
+ * can neither create duplicates nor fail on the unique constraint.
+ *
+ * Each row carries the {@link com.example.backend.util.ContentHash} of its document. When
+ * L1 shows the row already holds the same content, the write only renews cached_at and
+ * expiry_at instead of resending the payload. Otherwise the upsert keeps the stored payload
+ * if the hash matches, so Postgres does not rewrite its TOAST data either.
+ *
+ * With write-behind enabled, writes only land in a pending map (latest per ASIN wins)
+ * and in L1; a flush sends everything pending as JDBC batches of upserts and renewals.
+ * Flushes run on a schedule, when max-batch writes are pending, and on shutdown. Pending
+ * writes are lost if the process dies before the next flush.
+ */
+@Slf4j
+@Component
+public class RawCacheWriter {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO product_raw_data_cache
+                (external_product_id, raw_json, raw_payload, content_hash, cached_at, expiry_at, product_ref_id)
+            VALUES (?, CAST(? AS json), ?, ?, ?, ?, (SELECT p.id FROM product p WHERE p.product_id = ?))
+            ON CONFLICT (external_product_id) DO UPDATE SET
+                raw_json = CASE WHEN product_raw_data_cache.content_hash = EXCLUDED.content_hash
+                    THEN product_raw_data_cache.raw_json ELSE EXCLUDED.raw_json END,
+                raw_payload = CASE WHEN product_raw_data_cache.content_hash = EXCLUDED.content_hash
+                    THEN product_raw_data_cache.raw_payload ELSE EXCLUDED.raw_payload END,
+                content_hash = EXCLUDED.content_hash,
+                cached_at = EXCLUDED.cached_at,
+                expiry_at = EXCLUDED.expiry_at,
+                product_ref_id = COALESCE(EXCLUDED.product_ref_id, product_raw_data_cache.product_ref_id)
+            """;
+
+    private static final String RENEW_SQL = """
+            UPDATE product_raw_data_cache SET cached_at = ?, expiry_at = ?
+            WHERE external_product_id = ? AND content_hash = ?
+            """;
+
+    /**
+     * @param unchanged the row is known to hold this content already; only the expiry is written
+     */
+    private record PendingWrite(String externalProductId, RawCacheStorage.Encoded encoded, String contentHash,
+                                boolean unchanged, LocalDateTime cachedAt, LocalDateTime expiryAt) {
+
+        Object[] upsertParameters() {
+            return new Object[]{externalProductId, encoded.json(), encoded.payloadColumn(), contentHash,
+                    cachedAt, expiryAt, externalProductId};
+        }
+
+        Object[] renewParameters() {
+            return new Object[]{cachedAt, expiryAt, externalProductId, contentHash};
+        }
+
+        // Latest wins, but a renewal must not drop a not yet flushed write of the same content
+        PendingWrite coalesce(PendingWrite newer) {
+            if (newer.unchanged && !unchanged && Objects.equals(contentHash, newer.contentHash)) {
+                return new PendingWrite(externalProductId, encoded, contentHash, false, newer.cachedAt, newer.expiryAt);
+            }
+            return newer;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RawCacheStorage rawCacheStorage;
+    private final RawDataL1Cache rawDataL1Cache;
+    private final boolean writeBehind;
+    private final int maxBatch;
+
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushing = new ReentrantLock();
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    public RawCacheWriter(
+            JdbcTemplate jdbcTemplate,
+            RawCacheStorage rawCacheStorage,
+            RawDataL1Cache rawDataL1Cache,
+            @Value("${product.raw-cache.write-behind.enabled:false}") boolean writeBehind,
+            @Value("${product.raw-cache.write-behind.max-batch:200}") int maxBatch) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rawCacheStorage = rawCacheStorage;
+        this.rawDataL1Cache = rawDataL1Cache;
+        this.writeBehind = writeBehind;
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Stores (inserts or replaces) the raw payload of an ASIN, expiring after ttl.
+     *
+     * @param contentHash ContentHash of the document
+     * @return snapshot of the stored row; its id is null when the write is deferred
+     * @throws IllegalArgumentException if rawJson is not a well-formed JSON object
+     */
+    public RawDataL1Cache.Entry write(String externalProductId, String rawJson, String contentHash, Duration ttl) {
+        RawCacheStorage.Encoded encoded = rawCacheStorage.encode(rawJson);
+        LocalDateTime now = LocalDateTime.now();
+        boolean sameContent = contentHash != null && rawDataL1Cache.get(externalProductId)
+                .map(current -> contentHash.equals(current.contentHash()))
+                .orElse(false);
+        PendingWrite write = new PendingWrite(externalProductId, encoded, contentHash, sameContent, now, now.plus(ttl));
+        writes.increment();
+        if (sameContent) {
+            unchanged.increment();
+        }
+
+        Long id = null;
+        if (writeBehind) {
+            pending.merge(externalProductId, write, (older, newer) -> {
+                coalesced.increment();
+                return older.coalesce(newer);
+            });
+            if (pending.size() >= maxBatch) {
+                flush();
+            }
+        } else {
+            if (sameContent) {
+                id = jdbcTemplate.query(RENEW_SQL + " RETURNING id",
+                        rs -> rs.next() ? rs.getLong(1) : null, write.renewParameters());
+                statements.increment();
+            }
+            // Unknown, changed, or the row vanished since L1 saw it
+            if (id == null) {
+                id = jdbcTemplate.queryForObject(UPSERT_SQL + " RETURNING id", Long.class, write.upsertParameters());
+                statements.increment();
+            }
+        }
+
+        RawDataL1Cache.Entry entry = new RawDataL1Cache.Entry(id, externalProductId, encoded.payload(), contentHash,
+                write.cachedAt(), write.expiryAt());
+        rawDataL1Cache.put(entry);
+        return entry;
+    }
+
+    /**
+     * Payload written but not flushed yet, so reads can see it before the table does
+     */
+    public Optional<RawPayload> pending(String externalProductId) {
+        PendingWrite write = pending.get(externalProductId);
+        return write != null ? Optional.of(write.encoded().payload()) : Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${product.raw-cache.write-behind.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        if (writeBehind && !pending.isEmpty()) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends every pending write as batched upserts; a concurrent flush makes this a no-op
+     *
+     * @return number of rows upserted
+     */
+    public int flush() {
+        if (!flushing.tryLock()) {
+            return 0;
+        }
+        try {
+            // Remove only the exact write we send; a newer write for the same ASIN stays pending
+            List<PendingWrite> batch = new ArrayList<>(pending.size());
+            for (PendingWrite write : pending.values()) {
+                if (pending.remove(write.externalProductId(), write)) {
+                    batch.add(write);
+                }
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                List<PendingWrite> renewals = batch.stream().filter(PendingWrite::unchanged).toList();
+                List<PendingWrite> upserts = new ArrayList<>(batch.stream().filter(w -> !w.unchanged()).toList());
+
+                for (int from = 0; from < renewals.size(); from += maxBatch) {
+                    List<PendingWrite> chunk = renewals.subList(from, Math.min(renewals.size(), from + maxBatch));
+                    int[] updated = jdbcTemplate.batchUpdate(RENEW_SQL,
+                            chunk.stream().map(PendingWrite::renewParameters).toList());
+                    statements.add(chunk.size());
+                    batches.increment();
+                    // Rows that vanished or changed meanwhile get the full write
+                    for (int i = 0; i < chunk.size(); i++) {
+                        if (updated == null || i >= updated.length || updated[i] == 0) {
+                            upserts.add(chunk.get(i));
+                        }
+                    }
+                }
+
+                for (int from = 0; from < upserts.size(); from += maxBatch) {
+                    List<Object[]> rows = upserts.subList(from, Math.min(upserts.size(), from + maxBatch)).stream()
+                            .map(PendingWrite::upsertParameters)
+                            .toList();
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+                    statements.add(rows.size());
+                    batches.increment();
+                }
+            } catch (RuntimeException e) {
+                // Requeue unless a newer write arrived meanwhile
+                batch.forEach(write -> pending.putIfAbsent(write.externalProductId(), write));
+                flushFailures.increment();
+                log.error("Raw cache write-behind flush of {} rows failed: {}", batch.size(), e.getMessage());
+                return 0;
+            }
+            return batch.size();
+        } finally {
+            flushing.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        if (writeBehind && !pending.isEmpty()) {
+            log.info("Flushing {} pending raw cache writes", pending.size());
+            flush();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("writeBehind", writeBehind);
+        stats.put("writes", writes.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("unchanged", unchanged.sum());
+        stats.put("pending", pending.size());
+        stats.put("upsertStatements", statements.sum());
+        stats.put("batches", batches.sum());
+        stats.put("flushFailures", flushFailures.sum());
+        return stats;
+    }
+}
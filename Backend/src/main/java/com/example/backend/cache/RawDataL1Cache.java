@@ -0,0 +1,171 @@
+package com.example.backend.cache;
+
+import com.example.backend.entity.ProductRawDataCache;
+import com.example.backend.util.RawPayload;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-process L1 tier in front of the product_raw_data_cache table.
+ *
+ * Holds an immutable snapshot of each valid row with its payload in compressed binary
+ * form ({@link RawPayload}), so a hit costs no query and the payload is only decoded
+ * as far as the caller needs. Bounded by total payload bytes with Caffeine's
+ * W-TinyLFU eviction; every entry expires at the row's expiryAt.
+ *
+ * Writers put the row here after saving it (after commit, when inside a transaction)
+ * and invalidate it when they delete it. Misses are not cached. Segment rows
+ * (product_raw_segment) are held under "asin#SEGMENT" keys, see {@link RawSegmentStore}.
+ */
+@Slf4j
+@Component
+public class RawDataL1Cache {
+
+    /**
+     * Detached, read-only copy of a cache row
+     */
+    public record Entry(Long id, String externalProductId, RawPayload payload, String contentHash,
+                        LocalDateTime cachedAt, LocalDateTime expiryAt) {
+
+        public boolean isValid() {
+            return expiryAt.isAfter(LocalDateTime.now());
+        }
+
+        public ProductRawDataCache toEntity() {
+            ProductRawDataCache cache = new ProductRawDataCache();
+            cache.setId(id);
+            cache.setExternalProductId(externalProductId);
+            cache.setRawJson(payload.toMap());
+            cache.setContentHash(contentHash);
+            cache.setCachedAt(cachedAt);
+            cache.setExpiryAt(expiryAt);
+            return cache;
+        }
+    }
+
+    private final RawCacheStorage rawCacheStorage;
+    private final Cache<String, Entry> entries;
+
+    public RawDataL1Cache(
+            RawCacheStorage rawCacheStorage,
+            @Value("${product.raw-cache.l1.max-weight-bytes:8388608}") long maxWeightBytes) {
+        this.rawCacheStorage = rawCacheStorage;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((String id, Entry entry) -> entry.payload().size())
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String id, Entry entry, long currentTime) {
+                        return untilExpiry(entry);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, Entry entry, long currentTime, long currentDuration) {
+                        return untilExpiry(entry);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    private static long untilExpiry(Entry entry) {
+        return Math.max(0, Duration.between(LocalDateTime.now(), entry.expiryAt()).toNanos());
+    }
+
+    /**
+     * @return the cached row if present and not expired
+     */
+    public Optional<Entry> get(String externalProductId) {
+        Entry entry = entries.getIfPresent(externalProductId);
+        if (entry != null && !entry.isValid()) {
+            entries.invalidate(externalProductId);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    /**
+     * Caches a snapshot of the row as it is now. Inside a transaction the snapshot
+     * becomes visible only after commit, so a rollback never leaves L1 ahead of the table.
+     *
+     * @return the snapshot, or null if the row is expired or has no readable payload
+     */
+    public Entry put(ProductRawDataCache row) {
+        if (row == null || row.getExpiryAt() == null) {
+            return null;
+        }
+
+        RawPayload payload;
+        try {
+            payload = rawCacheStorage.payload(row);
+        } catch (Exception e) {
+            log.warn("Not caching raw data for {} in L1: {}", row.getExternalProductId(), e.getMessage());
+            return null;
+        }
+        if (payload == null) {
+            return null;
+        }
+        return put(new Entry(row.getId(), row.getExternalProductId(), payload, row.getContentHash(),
+                row.getCachedAt(), row.getExpiryAt()));
+    }
+
+    /**
+     * Same as {@link #put(ProductRawDataCache)} for a snapshot built by the caller
+     */
+    public Entry put(Entry entry) {
+        if (!entry.isValid()) {
+            return null;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entries.put(entry.externalProductId(), entry);
+                }
+            });
+        } else {
+            entries.put(entry.externalProductId(), entry);
+        }
+        return entry;
+    }
+
+    public void invalidate(String externalProductId) {
+        entries.invalidate(externalProductId);
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats cacheStats = entries.stats();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.estimatedSize());
+        entries.policy().eviction().ifPresent(eviction -> {
+            stats.put("weightBytes", eviction.weightedSize().orElse(0));
+            stats.put("maxWeightBytes", eviction.getMaximum());
+        });
+        stats.put("hits", cacheStats.hitCount());
+        stats.put("misses", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("evictions", cacheStats.evictionCount());
+        stats.put("evictedWeightBytes", cacheStats.evictionWeight());
+        return stats;
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.backend.cache;
+
+import com.example.backend.entity.ProductRawSegment;
+import com.example.backend.entity.ProductRawSegment.Segment;
+import com.example.backend.repository.ProductRawDataCacheRepository;
+import com.example.backend.repository.ProductRawSegmentRepository;
+import com.example.backend.util.ContentHash;
+import com.example.backend.util.RawPayload;
+import com.example.backend.util.RawSegments;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Raw product data cached in segments with independent TTLs.
+ *
+ * stable: title, photos, specifications, ratings. The product_raw_data_cache row, written
+ * through {@link RawCacheWriter}; long TTL.
+ * PRICE: price, availability and offers ({@link RawSegments#VOLATILE_FIELDS}); short TTL.
+ * REVIEWS: the ingested review sample; long TTL.
+ *
+ * PRICE and REVIEWS rows live in product_raw_segment and share the L1 under
+ * "asin#SEGMENT" keys. Saving fresh details always rewrites the small PRICE row but
+ * rewrites the stable row only when its content changed or it would expire before the
+ * next price refresh, so keeping the price fresh no longer rewrites the whole document. Once the PRICE row
+ * expires, reads serve the stable row with that last known price and leave the renewal
+ * to {@link RawCacheRefresher}; there is no price-only upstream call to make instead.
+ */
+@Slf4j
+@Component
+public class RawSegmentStore {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO product_raw_segment
+                (external_product_id, segment, raw_json, raw_payload, content_hash, cached_at, expiry_at)
+            VALUES (?, ?, CAST(? AS json), ?, ?, ?, ?)
+            ON CONFLICT (external_product_id, segment) DO UPDATE SET
+                raw_json = CASE WHEN product_raw_segment.content_hash = EXCLUDED.content_hash
+                    THEN product_raw_segment.raw_json ELSE EXCLUDED.raw_json END,
+                raw_payload = CASE WHEN product_raw_segment.content_hash = EXCLUDED.content_hash
+                    THEN product_raw_segment.raw_payload ELSE EXCLUDED.raw_payload END,
+                content_hash = EXCLUDED.content_hash,
+                cached_at = EXCLUDED.cached_at,
+                expiry_at = EXCLUDED.expiry_at
+            RETURNING id
+            """;
+
+    private static final String RENEW_SQL = """
+            UPDATE product_raw_segment SET cached_at = ?, expiry_at = ?
+            WHERE external_product_id = ? AND segment = ? AND content_hash = ?
+            RETURNING id
+            """;
+
+    /**
+     * Outcome of {@link #writeDetails}; stable is null when the stable row was kept and is not in L1
+     */
+    public record DetailsWrite(RawDataL1Cache.Entry stable, RawDataL1Cache.Entry price, boolean stableWritten) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRawSegmentRepository segmentRepository;
+    private final ProductRawDataCacheRepository cacheRepository;
+    private final RawCacheWriter rawCacheWriter;
+    private final RawCacheStorage rawCacheStorage;
+    private final RawDataL1Cache rawDataL1Cache;
+    private final ObjectMapper objectMapper;
+
+    private final Duration stableTtl;
+    private final Map<Segment, Duration> ttls = new EnumMap<>(Segment.class);
+
+    private final Map<Segment, LongAdder> hits = new EnumMap<>(Segment.class);
+    private final Map<Segment, LongAdder> misses = new EnumMap<>(Segment.class);
+    private final Map<Segment, LongAdder> writes = new EnumMap<>(Segment.class);
+    private final Map<Segment, LongAdder> unchanged = new EnumMap<>(Segment.class);
+    private final LongAdder stableWrites = new LongAdder();
+    private final LongAdder stableWritesSkipped = new LongAdder();
+
+    public RawSegmentStore(
+            JdbcTemplate jdbcTemplate,
+            ProductRawSegmentRepository segmentRepository,
+            ProductRawDataCacheRepository cacheRepository,
+            RawCacheWriter rawCacheWriter,
+            RawCacheStorage rawCacheStorage,
+            RawDataL1Cache rawDataL1Cache,
+            ObjectMapper objectMapper,
+            @Value("${product.raw-cache.segments.stable-ttl-hours:168}") long stableTtlHours,
+            @Value("${product.raw-cache.segments.price-ttl-minutes:60}") long priceTtlMinutes,
+            @Value("${product.raw-cache.segments.reviews-ttl-hours:72}") long reviewsTtlHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.segmentRepository = segmentRepository;
+        this.cacheRepository = cacheRepository;
+        this.rawCacheWriter = rawCacheWriter;
+        this.rawCacheStorage = rawCacheStorage;
+        this.rawDataL1Cache = rawDataL1Cache;
+        this.objectMapper = objectMapper;
+        this.stableTtl = Duration.ofHours(stableTtlHours);
+        this.ttls.put(Segment.PRICE, Duration.ofMinutes(priceTtlMinutes));
+        this.ttls.put(Segment.REVIEWS, Duration.ofHours(reviewsTtlHours));
+        for (Segment segment : Segment.values()) {
+            hits.put(segment, new LongAdder());
+            misses.put(segment, new LongAdder());
+            writes.put(segment, new LongAdder());
+            unchanged.put(segment, new LongAdder());
+        }
+    }
+
+    private static String l1Key(String externalProductId, Segment segment) {
+        return externalProductId + "#" + segment.name();
+    }
+
+    public Duration ttl(Segment segment) {
+        return ttls.get(segment);
+    }
+
+    /**
+     * Splits a product details document into its segments and stores them.
+     *
+     * @throws IllegalArgumentException if the document cannot be encoded
+     */
+    public DetailsWrite writeDetails(String externalProductId, Map<String, Object> document) {
+        RawSegments.Split split = RawSegments.split(document);
+        RawDataL1Cache.Entry price = write(externalProductId, Segment.PRICE, split.volatileFields());
+
+        // Keep the stable row only if it holds the same content and would not lapse before
+        // the price is due again; changed titles or specs are written straight away
+        String stableHash = ContentHash.of(split.stable());
+        LocalDateTime needsUntil = LocalDateTime.now().plus(ttl(Segment.PRICE));
+        Optional<RawDataL1Cache.Entry> current = rawDataL1Cache.get(externalProductId);
+        boolean stableUnchanged = current.isPresent()
+                ? current.get().expiryAt().isAfter(needsUntil) && stableHash.equals(current.get().contentHash())
+                : cacheRepository.findContentHashByExternalProductIdAndExpiryAtAfter(externalProductId, needsUntil)
+                        .map(row -> stableHash.equals(row.getContentHash()))
+                        .orElse(false);
+        if (stableUnchanged) {
+            stableWritesSkipped.increment();
+            return new DetailsWrite(current.orElse(null), price, false);
+        }
+
+        RawDataL1Cache.Entry stable = rawCacheWriter.write(externalProductId, toJson(split.stable()),
+                stableHash, stableTtl);
+        stableWrites.increment();
+        return new DetailsWrite(stable, price, true);
+    }
+
+    /**
+     * Inserts or replaces one segment of an ASIN, expiring after the segment's TTL.
+     * Content that L1 shows is already stored (same ContentHash) only renews the expiry,
+     * as in {@link RawCacheWriter}.
+     */
+    public RawDataL1Cache.Entry write(String externalProductId, Segment segment, Map<String, Object> content) {
+        String json = toJson(content);
+        String contentHash = ContentHash.ofJson(json);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiryAt = now.plus(ttl(segment));
+        writes.get(segment).increment();
+
+        Optional<RawDataL1Cache.Entry> current = rawDataL1Cache.get(l1Key(externalProductId, segment));
+        if (current.isPresent() && contentHash.equals(current.get().contentHash())) {
+            Long id = jdbcTemplate.query(RENEW_SQL, rs -> rs.next() ? rs.getLong(1) : null,
+                    now, expiryAt, externalProductId, segment.name(), contentHash);
+            if (id != null) {
+                unchanged.get(segment).increment();
+                RawDataL1Cache.Entry entry = new RawDataL1Cache.Entry(id, l1Key(externalProductId, segment),
+                        current.get().payload(), contentHash, now, expiryAt);
+                rawDataL1Cache.put(entry);
+                return entry;
+            }
+        }
+
+        // Row vanished, changed, or unknown to L1
+        RawCacheStorage.Encoded encoded = rawCacheStorage.encode(json);
+        Long id = jdbcTemplate.queryForObject(UPSERT_SQL, Long.class, externalProductId, segment.name(),
+                encoded.json(), encoded.payloadColumn(), contentHash, now, expiryAt);
+
+        RawDataL1Cache.Entry entry = new RawDataL1Cache.Entry(id, l1Key(externalProductId, segment),
+                encoded.payload(), contentHash, now, expiryAt);
+        rawDataL1Cache.put(entry);
+        return entry;
+    }
+
+    /**
+     * Unexpired segment content (L1, then DB)
+     */
+    public Optional<RawPayload> find(String externalProductId, Segment segment) {
+        Optional<RawDataL1Cache.Entry> l1Hit = rawDataL1Cache.get(l1Key(externalProductId, segment));
+        if (l1Hit.isPresent()) {
+            hits.get(segment).increment();
+            return Optional.of(l1Hit.get().payload());
+        }
+
+        Optional<ProductRawSegment> row = segmentRepository.findByExternalProductIdAndSegment(externalProductId, segment)
+                .filter(r -> r.getExpiryAt().isAfter(LocalDateTime.now()));
+        if (row.isEmpty()) {
+            misses.get(segment).increment();
+            return Optional.empty();
+        }
+        hits.get(segment).increment();
+
+        ProductRawSegment segmentRow = row.get();
+        RawPayload payload = payload(segmentRow);
+        rawDataL1Cache.put(new RawDataL1Cache.Entry(segmentRow.getId(), l1Key(externalProductId, segment),
+                payload, segmentRow.getContentHash(), segmentRow.getCachedAt(), segmentRow.getExpiryAt()));
+        return Optional.of(payload);
+    }
+
+    /**
+     * Last stored segment content whether or not it has expired (fallback when the upstream is down)
+     */
+    public Optional<Map<String, Object>> findLastKnown(String externalProductId, Segment segment) {
+        return segmentRepository.findByExternalProductIdAndSegment(externalProductId, segment)
+                .map(row -> payload(row).toMap());
+    }
+
+    private RawPayload payload(ProductRawSegment row) {
+        return row.getRawPayload() != null
+                ? RawPayload.wrap(row.getRawPayload())
+                : RawPayload.fromMap(row.getRawJson());
+    }
+
+    private String toJson(Map<String, Object> content) {
+        try {
+            return objectMapper.writeValueAsString(content);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to encode raw segment: " + e.getMessage(), e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("stableTtlHours", stableTtl.toHours());
+        stats.put("stableWrites", stableWrites.sum());
+        stats.put("stableWritesSkipped", stableWritesSkipped.sum());
+        for (Segment segment : Segment.values()) {
+            Map<String, Object> segmentStats = new LinkedHashMap<>();
+            segmentStats.put("ttlMinutes", ttl(segment).toMinutes());
+            segmentStats.put("hits", hits.get(segment).sum());
+            segmentStats.put("misses", misses.get(segment).sum());
+            segmentStats.put("writes", writes.get(segment).sum());
+            segmentStats.put("unchanged", unchanged.get(segment).sum());
+            stats.put(segment.name().toLowerCase(Locale.ROOT), segmentStats);
+        }
+        return stats;
+    }
+}
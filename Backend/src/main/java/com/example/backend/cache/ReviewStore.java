@@ -0,0 +1,148 @@
+package com.example.backend.cache;
+
+import com.example.backend.util.ContentHash;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ingested reviews in product_review, one row per review.
+ *
+ * Review ingestion hands every page to {@link #append} as soon as it is parsed: one JDBC
+ * batch of upserts keyed by (ASIN, review key), so a review seen again (another slice,
+ * a later ingestion) replaces its row instead of adding one. Only the page being written
+ * is held in memory. Rows expire with the REVIEWS segment TTL and are removed by
+ * {@link RawCacheSweeper}.
+ */
+@Slf4j
+@Component
+public class ReviewStore {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO product_review (external_product_id, review_key, raw_json, fetched_at, expiry_at)
+            VALUES (?, ?, CAST(? AS json), ?, ?)
+            ON CONFLICT (external_product_id, review_key) DO UPDATE SET
+                raw_json = EXCLUDED.raw_json,
+                fetched_at = EXCLUDED.fetched_at,
+                expiry_at = EXCLUDED.expiry_at
+            """;
+
+    private static final String FIND_SQL = """
+            SELECT raw_json::text FROM product_review
+            WHERE external_product_id = ? AND expiry_at > ?
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private static final String DELETE_EXPIRED_SQL = """
+            DELETE FROM product_review
+            WHERE id IN (
+                SELECT id FROM product_review
+                WHERE expiry_at < ?
+                ORDER BY expiry_at
+                LIMIT ?
+            )
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    private final LongAdder pagesWritten = new LongAdder();
+    private final LongAdder reviewsWritten = new LongAdder();
+    private final LongAdder reviewsRead = new LongAdder();
+
+    public ReviewStore(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${product.raw-cache.segments.reviews-ttl-hours:72}") long reviewsTtlHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(reviewsTtlHours);
+    }
+
+    /**
+     * review_id when present, otherwise the review content itself
+     */
+    public static String reviewKey(Map<String, Object> review) {
+        Object id = review.get("review_id");
+        if (id != null) {
+            return id.toString();
+        }
+        return review.getOrDefault("review_author", "") + "|"
+                + review.getOrDefault("review_title", "") + "|"
+                + review.getOrDefault("review_comment", "");
+    }
+
+    /**
+     * Writes one page of reviews as a single batch
+     *
+     * @throws IllegalArgumentException if a review cannot be encoded
+     */
+    public void append(String externalProductId, List<Map<String, Object>> reviews) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiryAt = now.plus(ttl);
+        List<Object[]> rows = new ArrayList<>(reviews.size());
+        for (Map<String, Object> review : reviews) {
+            rows.add(new Object[]{externalProductId, ContentHash.of(reviewKey(review)), toJson(review), now, expiryAt});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        pagesWritten.increment();
+        reviewsWritten.add(rows.size());
+    }
+
+    /**
+     * Unexpired reviews of the ASIN in the order they were first stored
+     */
+    public List<Map<String, Object>> find(String externalProductId, int limit) {
+        List<Map<String, Object>> reviews = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> fromJson(rs.getString(1)), externalProductId, LocalDateTime.now(), limit);
+        reviewsRead.add(reviews.size());
+        return reviews;
+    }
+
+    /**
+     * Same contract as {@link com.example.backend.repository.ProductRawDataCacheRepository#deleteExpiredBatch}
+     */
+    public int deleteExpiredBatch(LocalDateTime now, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED_SQL, now, limit);
+    }
+
+    private String toJson(Map<String, Object> review) {
+        try {
+            return objectMapper.writeValueAsString(review);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to encode review: " + e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed stored review: " + e.getMessage(), e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ttlHours", ttl.toHours());
+        stats.put("pagesWritten", pagesWritten.sum());
+        stats.put("reviewsWritten", reviewsWritten.sum());
+        stats.put("reviewsRead", reviewsRead.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.backend.cache;
+
+import com.example.backend.client.RequestPriority;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Bounded query → ASIN list cache for searchAsins, with stale-while-revalidate.
+ *
+ * Fresh entries are served directly. Stale entries (older than the fresh TTL but
+ * within the stale TTL) are served immediately while one background refresh
+ * reloads them in the BACKGROUND quota lane. Anything older is a miss and is
+ * loaded on the caller's thread.
+ * Loader failures are never cached. A stale load (the client's last-good body, served
+ * while the upstream is unavailable) is stored already past the fresh TTL, so it is
+ * served but revalidated on the next lookup.
+ */
+@Slf4j
+@Component
+public class SearchResultCache {
+
+    /**
+     * What a loader returns; stale marks a body that did not come from the upstream just now
+     */
+    public record Loaded(List<String> asins, boolean stale) {
+    }
+
+    private record Entry(List<String> asins, long loadedAtNanos) {
+    }
+
+    private final ExecutorService outboundExecutor;
+    private final int maxEntries;
+    private final long freshNanos;
+    private final long staleNanos;
+
+    private final Map<String, Entry> entries;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder staleLoads = new LongAdder();
+
+    public SearchResultCache(
+            ExecutorService outboundExecutor,
+            @Value("${product.search.cache.max-entries:1000}") int maxEntries,
+            @Value("${product.search.cache.fresh-ttl-seconds:300}") long freshTtlSeconds,
+            @Value("${product.search.cache.stale-ttl-seconds:3600}") long staleTtlSeconds) {
+        this.outboundExecutor = outboundExecutor;
+        this.maxEntries = maxEntries;
+        this.freshNanos = TimeUnit.SECONDS.toNanos(freshTtlSeconds);
+        this.staleNanos = TimeUnit.SECONDS.toNanos(Math.max(staleTtlSeconds, freshTtlSeconds));
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > SearchResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Canonical cache key: case-folded, whitespace-normalised, tokens sorted
+     */
+    public static String canonicalKey(String query) {
+        String[] tokens = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        Arrays.sort(tokens);
+        return String.join(" ", tokens);
+    }
+
+    public List<String> get(String query, BiFunction<String, RequestPriority, Loaded> loader) {
+        String key = canonicalKey(query);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        long now = System.nanoTime();
+        if (entry != null) {
+            long age = now - entry.loadedAtNanos();
+            if (age < freshNanos) {
+                hits.increment();
+                return entry.asins();
+            }
+            if (age < staleNanos) {
+                staleHits.increment();
+                refreshInBackground(key, query, loader);
+                return entry.asins();
+            }
+        }
+
+        misses.increment();
+        return put(key, loader.apply(query, RequestPriority.SEARCH));
+    }
+
+    private void refreshInBackground(String key, String query, BiFunction<String, RequestPriority, Loaded> loader) {
+        if (!refreshing.add(key)) {
+            return; // a refresh for this key is already running
+        }
+        refreshes.increment();
+        try {
+            outboundExecutor.execute(() -> {
+                try {
+                    put(key, loader.apply(query, RequestPriority.BACKGROUND));
+                    log.debug("Refreshed search cache entry '{}'", key);
+                } catch (Exception e) {
+                    refreshFailures.increment();
+                    log.warn("Background refresh of search '{}' failed: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(key);
+            refreshFailures.increment();
+        }
+    }
+
+    private List<String> put(String key, Loaded loaded) {
+        List<String> asins = List.copyOf(loaded.asins());
+        long loadedAt = System.nanoTime();
+        if (loaded.stale()) {
+            staleLoads.increment();
+            loadedAt -= freshNanos;
+        }
+        Entry entry = new Entry(asins, loadedAt);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        return asins;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("refreshes", refreshes.sum());
+        stats.put("refreshFailures", refreshFailures.sum());
+        stats.put("staleLoads", staleLoads.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.backend.client;
+
+import com.example.backend.util.AiPayloadProjection;
+import com.example.backend.util.LatencyRecorder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Slimming stage in front of {@link AiServiceClient}: turns the raw product document into
+ * the compact {@link AiPayloadProjection} before it is sent.
+ *
+ * Counts the bytes of the raw documents and of what is actually sent, and keeps the AI
+ * latency of full and projected payloads apart, so switching ai.payload.projection.enabled
+ * shows the effect directly. A document that cannot be parsed is sent unchanged.
+ */
+@Slf4j
+@Component
+public class AiPayloadProjector {
+
+    /**
+     * What to send: the projected JSON, or the raw JSON when projection is off or failed
+     */
+    public record Payload(String json, boolean projected, int rawBytes, int sentBytes) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final AiPayloadProjection.Limits limits;
+
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder projected = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder sentBytes = new LongAdder();
+    private final LatencyRecorder fullLatency = new LatencyRecorder();
+    private final LatencyRecorder projectedLatency = new LatencyRecorder();
+
+    public AiPayloadProjector(
+            ObjectMapper objectMapper,
+            @Value("${ai.payload.projection.enabled:true}") boolean enabled,
+            @Value("${ai.payload.projection.max-reviews:10}") int maxReviews,
+            @Value("${ai.payload.projection.max-review-chars:400}") int maxReviewChars,
+            @Value("${ai.payload.projection.max-text-chars:500}") int maxTextChars,
+            @Value("${ai.payload.projection.max-list-items:8}") int maxListItems,
+            @Value("${ai.payload.projection.max-specs:30}") int maxSpecs) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.limits = new AiPayloadProjection.Limits(maxReviews, maxReviewChars, maxTextChars, maxListItems, maxSpecs);
+    }
+
+    public Payload prepare(String rawJson) {
+        int raw = utf8Length(rawJson);
+        documents.increment();
+        rawBytes.add(raw);
+
+        String json = rawJson;
+        boolean isProjected = false;
+        if (enabled) {
+            try {
+                Map<String, Object> document = objectMapper.readValue(rawJson, new TypeReference<>() {
+                });
+                json = objectMapper.writeValueAsString(AiPayloadProjection.project(document, limits));
+                isProjected = true;
+                projected.increment();
+            } catch (Exception e) {
+                log.warn("AI payload projection failed, sending the raw document: {}", e.getMessage());
+            }
+        }
+
+        int sent = isProjected ? utf8Length(json) : raw;
+        sentBytes.add(sent);
+        if (isProjected) {
+            log.info("AI payload projected to {} bytes from {} bytes ({})", sent, raw, AiPayloadProjection.VERSION);
+        }
+        return new Payload(json, isProjected, raw, sent);
+    }
+
+    public void recordLatency(Payload payload, long nanos) {
+        (payload.projected() ? projectedLatency : fullLatency).record(nanos);
+    }
+
+    private static int utf8Length(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    public Map<String, Object> stats() {
+        long docs = documents.sum();
+        long raw = rawBytes.sum();
+        long sent = sentBytes.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("version", AiPayloadProjection.VERSION);
+        stats.put("documents", docs);
+        stats.put("projected", projected.sum());
+        stats.put("rawBytes", raw);
+        stats.put("sentBytes", sent);
+        stats.put("avgRawBytes", docs == 0 ? 0 : raw / docs);
+        stats.put("avgSentBytes", docs == 0 ? 0 : sent / docs);
+        stats.put("bytesSavedPercent", raw == 0 ? 0.0 : Math.round(1000.0 * (raw - sent) / raw) / 10.0);
+        stats.put("latencyFull", fullLatency.stats());
+        stats.put("latencyProjected", projectedLatency.stats());
+        return stats;
+    }
+}
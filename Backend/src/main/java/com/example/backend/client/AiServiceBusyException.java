@@ -0,0 +1,11 @@
+package com.example.backend.client;
+
+/**
+ * The AI client's bulkhead refused the call: the wait queue was full or no slot freed up in time.
+ */
+public class AiServiceBusyException extends RuntimeException {
+
+    public AiServiceBusyException(String message) {
+        super(message);
+    }
+}
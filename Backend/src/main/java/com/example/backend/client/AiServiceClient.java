@@ -0,0 +1,160 @@
+package com.example.backend.client;
+
+import com.example.backend.util.LatencyRecorder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single outbound client for the AI service.
+ *
+ * One shared JDK HttpClient (pooled keep-alive connections, connect timeout) behind a
+ * RestTemplate with a read timeout, and a semaphore bulkhead: at most max-concurrent
+ * calls in flight, at most max-queue callers waiting up to max-wait-ms for a slot.
+ * A caller that finds the queue full, or whose wait runs out, gets
+ * {@link AiServiceBusyException} straight away instead of holding its thread.
+ */
+@Slf4j
+@Component
+public class AiServiceClient {
+
+    private final String serviceUrl;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitMs;
+
+    private final ExecutorService executor;
+    private final RestTemplate restTemplate;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedWaitTimeout = new LongAdder();
+    private final LatencyRecorder queueWait = new LatencyRecorder();
+    private final LatencyRecorder latency = new LatencyRecorder();
+
+    public AiServiceClient(
+            @Value("${aiserviceurl}") String serviceUrl,
+            @Value("${ai.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+            @Value("${ai.http.read-timeout-ms:30000}") long readTimeoutMs,
+            @Value("${ai.bulkhead.max-concurrent:4}") int maxConcurrent,
+            @Value("${ai.bulkhead.max-queue:16}") int maxQueue,
+            @Value("${ai.bulkhead.max-wait-ms:2000}") long maxWaitMs) {
+        this.serviceUrl = serviceUrl;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitMs = maxWaitMs;
+        this.permits = new Semaphore(maxConcurrent, true);
+
+        // Blocking sends park virtual threads only; the client's own work runs here
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-http-", 0).factory());
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(executor)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        log.info("AI client ready (url={}, connectTimeout={}ms, readTimeout={}ms, maxConcurrent={}, maxQueue={})",
+                serviceUrl, connectTimeoutMs, readTimeoutMs, maxConcurrent, maxQueue);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public String getServiceUrl() {
+        return serviceUrl;
+    }
+
+    /**
+     * POSTs a JSON body to the AI service through the bulkhead
+     *
+     * @throws AiServiceBusyException if no slot is available in time
+     */
+    public ResponseEntity<String> post(String json) {
+        acquire();
+        long startedAt = System.nanoTime();
+        calls.increment();
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            return restTemplate.postForEntity(serviceUrl, new HttpEntity<>(json, headers), String.class);
+        } catch (RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            latency.recordSince(startedAt);
+            permits.release();
+        }
+    }
+
+    private void acquire() {
+        // Timed form even with no wait: the untimed tryAcquire() barges past queued callers
+        try {
+            if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                queueWait.record(0);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AiServiceBusyException("Interrupted while waiting for the AI service");
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejectedQueueFull.increment();
+            throw new AiServiceBusyException("AI service busy: " + maxQueue + " calls already waiting");
+        }
+        long startedAt = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                rejectedWaitTimeout.increment();
+                throw new AiServiceBusyException("AI service busy: no slot within " + maxWaitMs + " ms");
+            }
+            queueWait.recordSince(startedAt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AiServiceBusyException("Interrupted while waiting for the AI service");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("inFlight", maxConcurrent - permits.availablePermits());
+        stats.put("maxQueue", maxQueue);
+        stats.put("waiting", waiting.get());
+        stats.put("calls", calls.sum());
+        stats.put("failures", failures.sum());
+        stats.put("rejectedQueueFull", rejectedQueueFull.sum());
+        stats.put("rejectedWaitTimeout", rejectedWaitTimeout.sum());
+        stats.put("queueWait", queueWait.stats());
+        stats.put("latency", latency.stats());
+        return stats;
+    }
+}
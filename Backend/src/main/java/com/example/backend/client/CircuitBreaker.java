@@ -0,0 +1,120 @@
+package com.example.backend.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consecutive-failure circuit breaker for one upstream endpoint.
+ *
+ * CLOSED lets every call through. After {@code failureThreshold} consecutive failures it
+ * goes OPEN and rejects calls for a jittered, exponentially growing interval. Once that
+ * interval has passed, the next call becomes the single HALF_OPEN probe: success closes
+ * the circuit, failure re-opens it with a longer backoff.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long baseOpenNanos;
+    private final long maxOpenNanos;
+
+    // guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int consecutiveOpens;
+    private long openUntilNanos;
+    private boolean probeInFlight;
+
+    private long opened;
+    private long rejected;
+
+    public CircuitBreaker(String name, int failureThreshold, long baseOpenMs, long maxOpenMs) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.baseOpenNanos = TimeUnit.MILLISECONDS.toNanos(baseOpenMs);
+        this.maxOpenNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(baseOpenMs, maxOpenMs));
+    }
+
+    /**
+     * @return true if the call may go upstream; every permitted call must be followed
+     * by {@link #onSuccess()} or {@link #onFailure()}
+     */
+    public synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openUntilNanos >= 0) {
+                    state = State.HALF_OPEN;
+                    probeInFlight = true;
+                    return true;
+                }
+                rejected++;
+                return false;
+            default: // HALF_OPEN
+                if (!probeInFlight) {
+                    probeInFlight = true;
+                    return true;
+                }
+                rejected++;
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        consecutiveOpens = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * Releases a HALF_OPEN probe slot when the permitted call never reached the upstream
+     */
+    public synchronized void releasePermission() {
+        probeInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        // Exponential backoff with jitter in [50%, 100%] so clients do not probe in lockstep
+        long backoff = Math.min(maxOpenNanos, baseOpenNanos << Math.min(consecutiveOpens, 16));
+        long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+
+        state = State.OPEN;
+        openUntilNanos = System.nanoTime() + jittered;
+        consecutiveOpens++;
+        opened++;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("timesOpened", opened);
+        stats.put("rejected", rejected);
+        if (state == State.OPEN) {
+            stats.put("retryInMs", Math.max(0, TimeUnit.NANOSECONDS.toMillis(openUntilNanos - System.nanoTime())));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.backend.client;
+
+/**
+ * The endpoint's circuit is open and there is no earlier good response to serve instead.
+ */
+public class CircuitOpenException extends RapidApiException {
+
+    public CircuitOpenException(String message) {
+        super(503, message);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.backend.client;
+
+import com.example.backend.util.RawJson;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single-pass streaming reader for RapidAPI /product-details responses.
+ *
+ * Walks the body once with a JsonParser: the handful of scalar fields the service
+ * needs are captured as they go by, and the whole "data" object is copied token by
+ * token into a compact byte[] ({@link RawJson}) instead of being materialised as
+ * nested HashMaps. For compact input the copy is byte-for-byte: numbers keep their
+ * original text and characters outside the BMP stay UTF-8 rather than being escaped as
+ * surrogate pairs.
+ */
+public final class ProductDetailsParser {
+
+    public static final Set<String> EXTRACTED_FIELDS = Set.of(
+            "product_title",
+            "product_price",
+            "product_photo",
+            "product_url",
+            "product_star_rating",
+            "product_num_ratings"
+    );
+
+    /**
+     * @param fields scalar values of {@link #EXTRACTED_FIELDS} found under "data"
+     * @param data   the "data" object as compact JSON, or null when the response has none
+     */
+    public record Result(Map<String, Object> fields, RawJson data) {
+
+        public Object field(String name) {
+            return fields.get(name);
+        }
+
+        public Object field(String name, Object defaultValue) {
+            return fields.getOrDefault(name, defaultValue);
+        }
+    }
+
+    // Only writes our copy of "data"; the caller's factory still does the parsing
+    private static final JsonFactory WRITER = JsonFactory.builder()
+            .enable(JsonWriteFeature.COMBINE_UNICODE_SURROGATES_IN_UTF8)
+            .build();
+
+    private ProductDetailsParser() {
+    }
+
+    public static Result parse(JsonFactory factory, byte[] body) throws IOException {
+        Map<String, Object> fields = new HashMap<>();
+        RawJson data = null;
+
+        try (JsonParser parser = factory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new Result(fields, null);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(name) && value == JsonToken.START_OBJECT) {
+                    data = copyData(parser, fields, body.length);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new Result(fields, data);
+    }
+
+    // Parser is on the START_OBJECT of "data"; leaves it on the matching END_OBJECT
+    private static RawJson copyData(JsonParser parser, Map<String, Object> fields, int sizeHint) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHint);
+        try (JsonGenerator generator = WRITER.createGenerator(out)) {
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                generator.writeFieldName(name);
+                if (value.isScalarValue() && EXTRACTED_FIELDS.contains(name)) {
+                    fields.put(name, scalarValue(parser, value));
+                }
+                copyExact(parser, generator);
+            }
+            generator.writeEndObject();
+        }
+        return new RawJson(out.toByteArray());
+    }
+
+    // copyCurrentStructure, but numbers are written from their source text instead of being re-printed
+    private static void copyExact(JsonParser parser, JsonGenerator generator) throws IOException {
+        int depth = 0;
+        do {
+            JsonToken token = parser.currentToken();
+            if (token.isNumeric()) {
+                generator.writeNumber(parser.getText());
+            } else {
+                generator.copyCurrentEvent(parser);
+            }
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        } while (depth > 0 && parser.nextToken() != null);
+    }
+
+    private static Object scalarValue(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+}
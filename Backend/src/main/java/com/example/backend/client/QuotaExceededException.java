@@ -0,0 +1,11 @@
+package com.example.backend.client;
+
+/**
+ * The quota governor refused (shed) or timed out a RapidAPI call before it was sent.
+ */
+public class QuotaExceededException extends RapidApiException {
+
+    public QuotaExceededException(String message) {
+        super(429, message);
+    }
+}
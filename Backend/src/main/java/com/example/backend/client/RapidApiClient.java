@@ -0,0 +1,266 @@
+package com.example.backend.client;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single outbound client for every RapidAPI call.
+ *
+ * Owns one shared HTTP/2 HttpClient (so TLS sessions and connections are reused),
+ * a dedicated executor for its async work, and per-endpoint request settings.
+ * Every call first passes the endpoint's {@link CircuitBreaker} and then the
+ * {@link RapidApiQuotaGovernor}.
+ *
+ * The last good (200) body of each request is kept in a bounded LRU store. When the
+ * circuit is open, or the call fails with a breaker-worthy error (403, 429, 5xx,
+ * timeout, I/O), that body is returned as a stale response instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RapidApiClient {
+
+    public enum Endpoint {
+        SEARCH("/search", false),
+        PRODUCT_DETAILS("/product-details", true),
+        PRODUCT_REVIEWS("/product-reviews", true);
+
+        private final String path;
+        private final boolean sendUserAgent;
+
+        Endpoint(String path, boolean sendUserAgent) {
+            this.path = path;
+            this.sendUserAgent = sendUserAgent;
+        }
+
+        public String getPath() {
+            return path;
+        }
+    }
+
+    private final RapidApiQuotaGovernor quotaGovernor;
+
+    @Value("${rapidkey}")
+    private String rapidApiKey;
+
+    @Value("${rapidhost}")
+    private String rapidApiHost;
+
+    @Value("${rapidurl}")
+    private String rapidApiBaseUrl;
+
+    @Value("${rapidapi.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${rapidapi.http.executor-threads:8}")
+    private int executorThreads;
+
+    @Value("${rapidapi.http.search.timeout-ms:8000}")
+    private long searchTimeoutMs;
+
+    @Value("${rapidapi.http.details.timeout-ms:10000}")
+    private long detailsTimeoutMs;
+
+    @Value("${rapidapi.http.reviews.timeout-ms:15000}")
+    private long reviewsTimeoutMs;
+
+    @Value("${rapidapi.circuit.failure-threshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${rapidapi.circuit.open-ms:5000}")
+    private long circuitOpenMs;
+
+    @Value("${rapidapi.circuit.max-open-ms:300000}")
+    private long circuitMaxOpenMs;
+
+    @Value("${rapidapi.circuit.last-good.max-entries:200}")
+    private int lastGoodMaxEntries;
+
+    private ExecutorService executor;
+    private HttpClient httpClient;
+    private final Map<Endpoint, Duration> requestTimeouts = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, CircuitBreaker> circuitBreakers = new EnumMap<>(Endpoint.class);
+    private Map<String, byte[]> lastGoodBodies;
+    private final LongAdder staleServed = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "rapidapi-http-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = Executors.newFixedThreadPool(executorThreads, threadFactory);
+
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+
+        requestTimeouts.put(Endpoint.SEARCH, Duration.ofMillis(searchTimeoutMs));
+        requestTimeouts.put(Endpoint.PRODUCT_DETAILS, Duration.ofMillis(detailsTimeoutMs));
+        requestTimeouts.put(Endpoint.PRODUCT_REVIEWS, Duration.ofMillis(reviewsTimeoutMs));
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            circuitBreakers.put(endpoint, new CircuitBreaker(endpoint.name(),
+                    circuitFailureThreshold, circuitOpenMs, circuitMaxOpenMs));
+        }
+
+        lastGoodBodies = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > lastGoodMaxEntries;
+            }
+        });
+
+        log.info("RapidAPI client ready (host={}, connectTimeout={}ms, timeouts={})",
+                rapidApiHost, connectTimeoutMs, requestTimeouts);
+    }
+
+    /**
+     * GET {base-url}{endpoint path}?{query} with the RapidAPI auth headers,
+     * after taking a token from the quota governor in the given lane.
+     *
+     * @param query already-encoded query string, without the leading '?'
+     * @throws CircuitOpenException   when the circuit is open and no earlier good body exists
+     * @throws QuotaExceededException when the governor sheds the call
+     */
+    public RapidApiResponse get(Endpoint endpoint, String query, RequestPriority priority)
+            throws IOException, InterruptedException {
+        String key = endpoint.name() + "?" + query;
+        CircuitBreaker breaker = circuitBreakers.get(endpoint);
+
+        if (!breaker.tryAcquirePermission()) {
+            RapidApiResponse stale = lastGood(key);
+            if (stale != null) {
+                log.warn("Circuit {} open. Serving last good response for {}", endpoint, key);
+                return stale;
+            }
+            throw new CircuitOpenException("Circuit open for RapidAPI " + endpoint);
+        }
+
+        // Every exit must settle the permission, or a HALF_OPEN probe slot stays taken for good
+        boolean settled = false;
+        try {
+            quotaGovernor.acquire(priority);
+
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
+                    .uri(URI.create(rapidApiBaseUrl + endpoint.getPath() + "?" + query))
+                    .timeout(requestTimeouts.get(endpoint))
+                    .header("x-rapidapi-key", rapidApiKey)
+                    .header("x-rapidapi-host", rapidApiHost)
+                    .GET();
+
+            if (endpoint.sendUserAgent) {
+                builder.header("User-Agent", "Mozilla/5.0");
+            }
+
+            HttpResponse<byte[]> response;
+            try {
+                response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            } catch (IOException | RuntimeException e) {
+                breaker.onFailure();
+                settled = true;
+                RapidApiResponse stale = lastGood(key);
+                if (stale != null) {
+                    log.warn("RapidAPI {} failed ({}). Serving last good response", endpoint, e.getMessage());
+                    return stale;
+                }
+                throw e;
+            }
+
+            int status = response.statusCode();
+            settled = true;
+            if (status == 200) {
+                breaker.onSuccess();
+                lastGoodBodies.put(key, response.body());
+            } else if (isBreakerFailure(status)) {
+                breaker.onFailure();
+                RapidApiResponse stale = lastGood(key);
+                if (stale != null) {
+                    log.warn("RapidAPI {} returned {}. Serving last good response", endpoint, status);
+                    return stale;
+                }
+            } else {
+                // e.g. 404 for an unknown ASIN: the endpoint itself is healthy
+                breaker.onSuccess();
+            }
+
+            return new RapidApiResponse(status, response.body(), false);
+        } finally {
+            // Shed, interrupted or malformed before any answer: neither a success nor a failure
+            if (!settled) {
+                breaker.releasePermission();
+            }
+        }
+    }
+
+    /**
+     * Whether the endpoint's circuit is closed, i.e. calls go upstream rather than to stale copies
+     */
+    public boolean isAvailable(Endpoint endpoint) {
+        return circuitBreakers.get(endpoint).getState() == CircuitBreaker.State.CLOSED;
+    }
+
+    private static boolean isBreakerFailure(int status) {
+        return status == 403 || status == 429 || status >= 500;
+    }
+
+    private RapidApiResponse lastGood(String key) {
+        byte[] body = lastGoodBodies.get(key);
+        if (body == null) {
+            return null;
+        }
+        staleServed.increment();
+        return new RapidApiResponse(200, body, true);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> breakers = new LinkedHashMap<>();
+        circuitBreakers.forEach((endpoint, breaker) -> breakers.put(endpoint.name(), breaker.stats()));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuits", breakers);
+        stats.put("lastGoodEntries", lastGoodBodies.size());
+        stats.put("staleResponsesServed", staleServed.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        httpClient.close();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
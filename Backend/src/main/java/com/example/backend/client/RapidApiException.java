@@ -0,0 +1,27 @@
+package com.example.backend.client;
+
+/**
+ * Raised when a RapidAPI call does not produce a usable response
+ * (non-200 status, transport failure or timeout).
+ */
+public class RapidApiException extends RuntimeException {
+
+    private final int statusCode;
+
+    public RapidApiException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public RapidApiException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = -1;
+    }
+
+    /**
+     * HTTP status returned by RapidAPI, or -1 when no response was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.backend.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token-bucket governor for the single RapidAPI key, with priority lanes.
+ *
+ * A per-second bucket limits the request rate and a per-day counter limits total spend.
+ * Lower lanes may only take a token while a reserve is left for the lanes above them,
+ * and never while a higher lane is waiting, so SEARCH and BACKGROUND work is queued
+ * or shed before an INTERACTIVE call is throttled. Each lane waits at most its own
+ * max-wait for a token; BACKGROUND does not wait at all by default.
+ */
+@Slf4j
+@Component
+public class RapidApiQuotaGovernor {
+
+    private final double perSecond;
+    private final long perDay;
+
+    private final Map<RequestPriority, Double> secondReserve = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Long> dayReserve = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Long> maxWaitNanos = new EnumMap<>(RequestPriority.class);
+
+    // ReentrantLock rather than synchronized: callers may be virtual threads, which must not pin while waiting
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    // guarded by lock
+    private double tokens;
+    private long lastRefillNanos;
+    private LocalDate day = LocalDate.now();
+    private long usedToday;
+    private final int[] waiting = new int[RequestPriority.values().length];
+
+    private final Map<RequestPriority, LongAdder> granted = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, LongAdder> delayed = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, LongAdder> shed = new EnumMap<>(RequestPriority.class);
+
+    public RapidApiQuotaGovernor(
+            @Value("${rapidapi.quota.per-second:5}") double perSecond,
+            @Value("${rapidapi.quota.per-day:0}") long perDay,
+            @Value("${rapidapi.quota.search.reserve-per-second:1}") double searchSecondReserve,
+            @Value("${rapidapi.quota.background.reserve-per-second:2}") double backgroundSecondReserve,
+            @Value("${rapidapi.quota.search.reserve-per-day-fraction:0.05}") double searchDayReserve,
+            @Value("${rapidapi.quota.background.reserve-per-day-fraction:0.25}") double backgroundDayReserve,
+            @Value("${rapidapi.quota.interactive.max-wait-ms:5000}") long interactiveMaxWaitMs,
+            @Value("${rapidapi.quota.search.max-wait-ms:2000}") long searchMaxWaitMs,
+            @Value("${rapidapi.quota.background.max-wait-ms:0}") long backgroundMaxWaitMs) {
+
+        this.perSecond = perSecond;
+        this.perDay = perDay;
+        this.tokens = perSecond;
+        this.lastRefillNanos = System.nanoTime();
+
+        // A lane must always be able to reach at least one token
+        double maxReserve = Math.max(0, perSecond - 1);
+        secondReserve.put(RequestPriority.INTERACTIVE, 0.0);
+        secondReserve.put(RequestPriority.SEARCH, Math.min(searchSecondReserve, maxReserve));
+        secondReserve.put(RequestPriority.BACKGROUND, Math.min(backgroundSecondReserve, maxReserve));
+
+        dayReserve.put(RequestPriority.INTERACTIVE, 0L);
+        dayReserve.put(RequestPriority.SEARCH, (long) (perDay * searchDayReserve));
+        dayReserve.put(RequestPriority.BACKGROUND, (long) (perDay * backgroundDayReserve));
+
+        maxWaitNanos.put(RequestPriority.INTERACTIVE, TimeUnit.MILLISECONDS.toNanos(interactiveMaxWaitMs));
+        maxWaitNanos.put(RequestPriority.SEARCH, TimeUnit.MILLISECONDS.toNanos(searchMaxWaitMs));
+        maxWaitNanos.put(RequestPriority.BACKGROUND, TimeUnit.MILLISECONDS.toNanos(backgroundMaxWaitMs));
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            granted.put(priority, new LongAdder());
+            delayed.put(priority, new LongAdder());
+            shed.put(priority, new LongAdder());
+        }
+    }
+
+    /**
+     * Blocks until a token is available for the given lane.
+     *
+     * @throws QuotaExceededException when the daily budget left for this lane is spent,
+     *                                or no token frees up within the lane's max wait
+     */
+    public void acquire(RequestPriority priority) {
+        long deadline = System.nanoTime() + maxWaitNanos.get(priority);
+        boolean counted = false;
+
+        lock.lock();
+        try {
+            waiting[priority.ordinal()]++;
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    refill(now);
+
+                    if (perDay > 0 && usedToday >= perDay - dayReserve.get(priority)) {
+                        shed.get(priority).increment();
+                        throw new QuotaExceededException("Daily RapidAPI budget exhausted for " + priority + " requests");
+                    }
+
+                    double threshold = 1 + secondReserve.get(priority);
+                    if (!higherLaneWaiting(priority) && tokens >= threshold) {
+                        tokens -= 1;
+                        usedToday++;
+                        granted.get(priority).increment();
+                        return;
+                    }
+
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        shed.get(priority).increment();
+                        throw new QuotaExceededException("RapidAPI rate limit reached for " + priority + " requests");
+                    }
+                    if (!counted) {
+                        delayed.get(priority).increment();
+                        counted = true;
+                    }
+
+                    long untilToken = (long) (Math.max(threshold - tokens, 0.05) / perSecond * 1_000_000_000L);
+                    long waitNanos = Math.max(1_000_000L, Math.min(remaining, untilToken));
+                    try {
+                        released.awaitNanos(waitNanos);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new QuotaExceededException("Interrupted while waiting for RapidAPI quota");
+                    }
+                }
+            } finally {
+                waiting[priority.ordinal()]--;
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean higherLaneWaiting(RequestPriority priority) {
+        for (int i = 0; i < priority.ordinal(); i++) {
+            if (waiting[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(perSecond, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * perSecond);
+        lastRefillNanos = now;
+
+        LocalDate today = LocalDate.now();
+        if (!today.equals(day)) {
+            day = today;
+            usedToday = 0;
+        }
+    }
+
+    /**
+     * Calls still available today, or -1 when there is no daily budget
+     */
+    public long remainingToday() {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            return perDay > 0 ? Math.max(0, perDay - usedToday) : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Configured calls per day, or 0 when there is no daily budget
+     */
+    public long dailyLimit() {
+        return perDay;
+    }
+
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            return buildStats();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, Object> buildStats() {
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("perSecond", perSecond);
+        stats.put("perDay", perDay);
+        stats.put("tokensAvailable", tokens);
+        stats.put("usedToday", usedToday);
+
+        Map<String, Object> lanes = new LinkedHashMap<>();
+        for (RequestPriority priority : RequestPriority.values()) {
+            Map<String, Object> lane = new LinkedHashMap<>();
+            lane.put("granted", granted.get(priority).sum());
+            lane.put("delayed", delayed.get(priority).sum());
+            lane.put("shed", shed.get(priority).sum());
+            lane.put("waiting", waiting[priority.ordinal()]);
+            lanes.put(priority.name(), lane);
+        }
+        stats.put("lanes", lanes);
+        return stats;
+    }
+}
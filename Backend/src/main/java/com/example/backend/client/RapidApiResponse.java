@@ -0,0 +1,19 @@
+package com.example.backend.client;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Response of a RapidAPI call, body kept as raw UTF-8 bytes.
+ *
+ * @param stale true when the body is the last good response for the same request,
+ *              served because the upstream is failing or its circuit is open
+ */
+public record RapidApiResponse(int statusCode, byte[] body, boolean stale) {
+
+    /**
+     * Up to {@code maxBytes} of the body as text, for logging
+     */
+    public String preview(int maxBytes) {
+        return new String(body, 0, Math.min(body.length, maxBytes), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.backend.client;
+
+/**
+ * Priority lanes for the shared RapidAPI quota, highest first.
+ */
+public enum RequestPriority {
+    // A user is waiting on an analyze request
+    INTERACTIVE,
+    // Search result pages
+    SEARCH,
+    // Cache refreshes and other work nobody is waiting for
+    BACKGROUND
+}
@@ -0,0 +1,30 @@
+package com.example.backend.config;
+
+import com.example.backend.util.BrandMatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Slf4j
+@Configuration
+public class BrandMatcherConfig {
+
+    /**
+     * Brand automaton compiled once at startup from the brand dictionary.
+     * Point brand.dictionary.location at a file: resource to use a larger list.
+     */
+    @Bean
+    public BrandMatcher brandMatcher(
+            @Value("${brand.dictionary.location:classpath:brands/brands.txt}") Resource dictionary) throws IOException {
+        try (InputStream in = dictionary.getInputStream()) {
+            BrandMatcher matcher = BrandMatcher.load(in);
+            log.info("Loaded {} brands from {}", matcher.brandCount(), dictionary.getDescription());
+            return matcher;
+        }
+    }
+}
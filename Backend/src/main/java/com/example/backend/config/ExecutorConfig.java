@@ -0,0 +1,22 @@
+package com.example.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Virtual-thread executor for blocking outbound fan-out (upstream lookups, DB reads).
+     * Callers bound their own concurrency; this executor only supplies cheap threads.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService outboundExecutor() {
+        return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("outbound-", 0).factory()
+        );
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.backend.controller;
+
+import com.example.backend.cache.AiResultCache;
+import com.example.backend.cache.NegativeResultCache;
+import com.example.backend.cache.RawCacheRefresher;
+import com.example.backend.cache.RawCacheStorage;
+import com.example.backend.cache.RawCacheSweeper;
+import com.example.backend.cache.RawCacheWarmer;
+import com.example.backend.cache.RawCacheWriter;
+import com.example.backend.cache.RawSegmentStore;
+import com.example.backend.cache.ReviewStore;
+import com.example.backend.cache.RawDataL1Cache;
+import com.example.backend.cache.SearchResultCache;
+import com.example.backend.client.AiPayloadProjector;
+import com.example.backend.client.AiServiceClient;
+import com.example.backend.client.RapidApiClient;
+import com.example.backend.client.RapidApiQuotaGovernor;
+import com.example.backend.job.AnalysisJobManager;
+import com.example.backend.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final ProductService productService;
+    private final SearchResultCache searchResultCache;
+    private final RapidApiQuotaGovernor quotaGovernor;
+    private final RapidApiClient rapidApiClient;
+    private final RawDataL1Cache rawDataL1Cache;
+    private final RawCacheStorage rawCacheStorage;
+    private final RawCacheSweeper rawCacheSweeper;
+    private final RawCacheRefresher rawCacheRefresher;
+    private final RawCacheWriter rawCacheWriter;
+    private final RawSegmentStore rawSegmentStore;
+    private final ReviewStore reviewStore;
+    private final RawCacheWarmer rawCacheWarmer;
+    private final NegativeResultCache negativeResultCache;
+    private final AnalysisJobManager analysisJobManager;
+    private final AiResultCache aiResultCache;
+    private final AiServiceClient aiServiceClient;
+    private final AiPayloadProjector aiPayloadProjector;
+
+    /**
+     * Runtime counters of the upstream (RapidAPI) access path
+     */
+    @GetMapping("/upstream")
+    public ResponseEntity<Map<String, Object>> upstreamMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("coalescing", productService.getCoalescingStats());
+        metrics.put("productWrites", productService.getProductWriteStats());
+        metrics.put("searchCache", searchResultCache.stats());
+        metrics.put("negativeCache", negativeResultCache.stats());
+        metrics.put("quota", quotaGovernor.stats());
+        metrics.put("client", rapidApiClient.stats());
+        metrics.put("rawCacheL1", rawDataL1Cache.stats());
+        metrics.put("rawCacheStorage", rawCacheStorage.stats());
+        metrics.put("rawCacheSweeper", rawCacheSweeper.stats());
+        metrics.put("rawCacheRefresh", rawCacheRefresher.stats());
+        metrics.put("rawCacheWriter", rawCacheWriter.stats());
+        metrics.put("rawCacheSegments", rawSegmentStore.stats());
+        metrics.put("reviewStore", reviewStore.stats());
+        metrics.put("rawCacheWarmUp", rawCacheWarmer.stats());
+        return ResponseEntity.ok(metrics);
+    }
+
+    /**
+     * Analysis job pool (queue depth, outcomes, queue wait, per-stage latency), the AI result cache, the AI client bulkhead and AI payload sizes
+     */
+    @GetMapping("/analysis")
+    public ResponseEntity<Map<String, Object>> analysisMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>(analysisJobManager.stats());
+        metrics.put("aiResultCache", aiResultCache.stats());
+        metrics.put("aiClient", aiServiceClient.stats());
+        metrics.put("aiPayload", aiPayloadProjector.stats());
+        return ResponseEntity.ok(metrics);
+    }
+}
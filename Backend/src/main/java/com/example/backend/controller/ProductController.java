@@ -6,20 +6,43 @@ package com.example.backend.controller;
 import com.example.backend.DTO.cache.RawCacheDTO;
 import com.example.backend.DTO.request.ProductRequestDTO;
 import com.example.backend.DTO.response.ProductResponseDTO;
-import com.example.backend.entity.AnalysisResult;
+import com.example.backend.cache.RawCacheWarmer;
+import com.example.backend.client.RequestPriority;
 import com.example.backend.entity.Product;
 import com.example.backend.entity.User;
-import com.example.backend.service.AnalysisService;
+import com.example.backend.job.AnalysisJob;
+import com.example.backend.job.AnalysisJobManager;
+import com.example.backend.service.ProductAnalysisService;
 import com.example.backend.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,19 +52,35 @@ import java.util.stream.Collectors;
 public class ProductController {
 
     private final ProductService productService;
-    private final AnalysisService analysisService;
     private final ObjectMapper objectMapper;
     private final com.example.backend.repository.UserRepository userRepository;
     private final com.example.backend.service.SearchHistoryService searchHistoryService;
+    private final ExecutorService outboundExecutor;
+    private final RawCacheWarmer rawCacheWarmer;
+    private final ApplicationAvailability applicationAvailability;
+    private final ProductAnalysisService productAnalysisService;
+    private final AnalysisJobManager analysisJobManager;
+
+    @Value("${product.search.fanout.max-concurrency:5}")
+    private int searchMaxConcurrency;
+
+    @Value("${product.search.deadline-ms:12000}")
+    private long searchDeadlineMs;
+
+    @Value("${product.analysis.jobs.sse-timeout-ms:300000}")
+    private long analysisJobStreamTimeoutMs;
 
     // ------------------------------------------------------------
     // Health Check Endpoint
     // ------------------------------------------------------------
     @GetMapping("/health")
-    public ResponseEntity<Map<String, String>> healthCheck() {
+    public ResponseEntity<Map<String, Object>> healthCheck() {
+        // readiness stays REFUSING_TRAFFIC until the raw cache warm-up reached its ready fraction
         return ResponseEntity.ok(Map.of(
             "status", "OK",
             "message", "ProductController is working",
+            "readiness", applicationAvailability.getReadinessState().name(),
+            "warmUp", rawCacheWarmer.stats(),
             "timestamp", java.time.LocalDateTime.now().toString()
         ));
     }
@@ -63,65 +102,28 @@ public class ProductController {
                 return ResponseEntity.ok(Collections.emptyList());
             }
 
-            // Limit to first 5 results
-            List<Map<String, Object>> results = asins.stream()
-                    .limit(10)
-                    .map(asin -> {
-                        try {
-                            // Check if we have this product in cache/DB
-                            Map<String, Object> result = new HashMap<>();
-                            result.put("id", asin);
-                            
-                            // Try to get from existing product
-                            productService.findByProductId(asin).ifPresentOrElse(
-                                product -> {
-                                    result.put("name", product.getProductName());
-                                    result.put("brand", product.getBrand());
-                                    result.put("price", product.getLastPrice());
-                                    result.put("imageUrl", product.getImageUrl());
-                                    result.put("rating", 4.5); // Default or fetch from raw data
-                                    result.put("reviewCount", 1000); // Default or fetch from raw data
-                                },
-                                () -> {
-                                    // Product not in DB yet, fetch basic info
-                                    try {
-                                        Map<String, Object> details = productService.fetchProductDetails(asin);
-                                        log.info("Fetched details for ASIN {}: keys={}, title={}", 
-                                            asin, details.keySet(), details.get("title"));
-                                        
-                                        // ❌ REMOVED: Don't cache during search - only cache when user analyzes
-                                        // This prevents creating 10-20 cache entries for a single search
-                                        // Caching will happen in /analyze endpoint when user selects a product
-                                        
-                                        String productName = (String) details.getOrDefault("title", "Unknown Product");
-                                        log.info("Setting product name for ASIN {}: '{}'", asin, productName);
-                                        
-                                        result.put("name", productName);
-                                        result.put("brand", details.getOrDefault("brand", "Unknown Brand"));
-                                        result.put("price", details.getOrDefault("price", 0.0));
-                                        result.put("imageUrl", details.getOrDefault("imageUrl", ""));
-                                        result.put("rating", details.getOrDefault("rating", 0.0));
-                                        result.put("reviewCount", details.getOrDefault("reviewCount", 0));
-                                    } catch (Exception e) {
-                                        log.error("Error fetching product details for ASIN {}", asin, e);
-                                        result.put("name", "Product " + asin);
-                                        result.put("brand", "Unknown");
-                                        result.put("price", 0.0);
-                                        result.put("imageUrl", "");
-                                        result.put("rating", 0.0);
-                                        result.put("reviewCount", 0);
-                                    }
-                                }
-                            );
-                            
-                            return result;
-                        } catch (Exception e) {
-                            log.error("Error processing ASIN {}", asin, e);
-                            return null;
-                        }
-                    })
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+            // Limit to first 10 results
+            List<String> limited = asins.stream().limit(10).toList();
+
+            // Resolve every ASIN concurrently, then collect in the original order
+            List<CompletableFuture<Map<String, Object>>> lookups = startSearchLookups(limited);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(searchDeadlineMs);
+
+            List<Map<String, Object>> results = new ArrayList<>(limited.size());
+            for (int i = 0; i < limited.size(); i++) {
+                String asin = limited.get(i);
+                CompletableFuture<Map<String, Object>> lookup = lookups.get(i);
+                try {
+                    long remaining = Math.max(0, deadline - System.nanoTime());
+                    results.add(lookup.get(remaining, TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    log.warn("Search deadline ({} ms) reached before ASIN {} resolved", searchDeadlineMs, asin);
+                    lookup.cancel(true);
+                    results.add(placeholderSearchCard(asin));
+                } catch (ExecutionException e) {
+                    log.error("Error processing ASIN {}", asin, e.getCause());
+                }
+            }
 
             return ResponseEntity.ok(results);
             
@@ -131,6 +133,206 @@ public class ProductController {
         }
     }
 
+    // ------------------------------------------------------------
+    // 1a'. Streaming variant of /search (Server-Sent Events)
+    //      "product" event per card as soon as it resolves, then one "summary" event
+    // ------------------------------------------------------------
+    @GetMapping(value = "/search/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSearchProducts(@RequestParam String query) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "query is required");
+        }
+
+        // Generous margin over the lookup deadline so the summary always fits
+        SseEmitter emitter = new SseEmitter(searchDeadlineMs + 30_000);
+        outboundExecutor.execute(() -> streamSearch(query, emitter));
+        return emitter;
+    }
+
+    private void streamSearch(String query, SseEmitter emitter) {
+        long startedAt = System.nanoTime();
+        List<CompletableFuture<Map<String, Object>>> lookups = List.of();
+        try {
+            List<String> limited = productService.searchAsins(query).stream().limit(10).toList();
+            lookups = startSearchLookups(limited);
+
+            // Cards are handed over in completion order; this thread is the only sender
+            BlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+            for (int i = 0; i < lookups.size(); i++) {
+                int index = i;
+                lookups.get(i).whenComplete((card, error) -> completed.add(index));
+            }
+
+            long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(searchDeadlineMs);
+            boolean[] sent = new boolean[limited.size()];
+            int resolved = 0;
+            int failed = 0;
+
+            for (int n = 0; n < limited.size(); n++) {
+                Integer index = completed.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (index == null) {
+                    break;
+                }
+                sent[index] = true;
+                try {
+                    Map<String, Object> card = lookups.get(index).join();
+                    card.put("index", index);
+                    emitter.send(SseEmitter.event().name("product").data(card, MediaType.APPLICATION_JSON));
+                    resolved++;
+                } catch (CompletionException | CancellationException e) {
+                    log.error("Error processing ASIN {}", limited.get(index), e.getCause());
+                    failed++;
+                }
+            }
+
+            // Anything still running missed the deadline: same placeholder as /search
+            List<String> timedOut = new ArrayList<>();
+            for (int i = 0; i < limited.size(); i++) {
+                if (!sent[i]) {
+                    String asin = limited.get(i);
+                    log.warn("Search deadline ({} ms) reached before ASIN {} resolved", searchDeadlineMs, asin);
+                    lookups.get(i).cancel(true);
+                    timedOut.add(asin);
+
+                    Map<String, Object> card = placeholderSearchCard(asin);
+                    card.put("index", i);
+                    emitter.send(SseEmitter.event().name("product").data(card, MediaType.APPLICATION_JSON));
+                }
+            }
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("query", query);
+            summary.put("total", limited.size());
+            summary.put("resolved", resolved);
+            summary.put("failed", failed);
+            summary.put("timedOut", timedOut);
+            summary.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            emitter.send(SseEmitter.event().name("summary").data(summary, MediaType.APPLICATION_JSON));
+            emitter.complete();
+
+        } catch (IOException e) {
+            // Client went away; stop spending upstream calls on it
+            log.info("Search stream for '{}' closed by client", query);
+            lookups.forEach(lookup -> lookup.cancel(true));
+            emitter.completeWithError(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lookups.forEach(lookup -> lookup.cancel(true));
+            emitter.completeWithError(e);
+        } catch (Exception e) {
+            log.error("Search stream failed for query: {}", query, e);
+            lookups.forEach(lookup -> lookup.cancel(true));
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * One future per ASIN, in the same order. Products already in the DB are read in a
+     * single query; the rest fetch details upstream on the outbound executor, with at
+     * most {@code product.search.fanout.max-concurrency} calls in flight per search.
+     */
+    private List<CompletableFuture<Map<String, Object>>> startSearchLookups(List<String> asins) {
+        Map<String, Product> known = productService.findByProductIds(asins).stream()
+                .collect(Collectors.toMap(Product::getProductId, p -> p, (a, b) -> a));
+
+        Semaphore permits = new Semaphore(searchMaxConcurrency);
+
+        return asins.stream()
+                .map(asin -> {
+                    Product product = known.get(asin);
+                    if (product != null) {
+                        return CompletableFuture.completedFuture(productSearchCard(asin, product));
+                    }
+                    return interruptibleLookup(() -> {
+                        try {
+                            permits.acquire();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return placeholderSearchCard(asin);
+                        }
+                        try {
+                            return fetchedSearchCard(asin);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                })
+                .toList();
+    }
+
+    /**
+     * Runs the lookup as an executor task whose Future is cancelled together with the
+     * returned one. Cancelling a plain supplyAsync future never reaches its thread; this
+     * interrupts it, which aborts the permit wait or the upstream call in flight.
+     */
+    private CompletableFuture<Map<String, Object>> interruptibleLookup(Supplier<Map<String, Object>> lookup) {
+        CompletableFuture<Map<String, Object>> card = new CompletableFuture<>();
+        try {
+            Future<?> task = outboundExecutor.submit(() -> {
+                try {
+                    card.complete(lookup.get());
+                } catch (Throwable t) {
+                    card.completeExceptionally(t);
+                }
+            });
+            card.whenComplete((result, error) -> {
+                if (card.isCancelled()) {
+                    task.cancel(true);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            card.completeExceptionally(e);
+        }
+        return card;
+    }
+
+    private Map<String, Object> productSearchCard(String asin, Product product) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("id", asin);
+        result.put("name", product.getProductName());
+        result.put("brand", product.getBrand());
+        result.put("price", product.getLastPrice());
+        result.put("imageUrl", product.getImageUrl());
+        result.put("rating", 4.5); // Default or fetch from raw data
+        result.put("reviewCount", 1000); // Default or fetch from raw data
+        return result;
+    }
+
+    // Product not in DB yet, fetch basic info
+    // (not cached here - caching happens in /analyze when the user selects a product)
+    private Map<String, Object> fetchedSearchCard(String asin) {
+        try {
+            Map<String, Object> details = productService.fetchProductDetails(asin, RequestPriority.SEARCH);
+            log.info("Fetched details for ASIN {}: keys={}, title={}", 
+                asin, details.keySet(), details.get("title"));
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("id", asin);
+            result.put("name", details.getOrDefault("title", "Unknown Product"));
+            result.put("brand", details.getOrDefault("brand", "Unknown Brand"));
+            result.put("price", details.getOrDefault("price", 0.0));
+            result.put("imageUrl", details.getOrDefault("imageUrl", ""));
+            result.put("rating", details.getOrDefault("rating", 0.0));
+            result.put("reviewCount", details.getOrDefault("reviewCount", 0));
+            return result;
+        } catch (Exception e) {
+            log.error("Error fetching product details for ASIN {}", asin, e);
+            return placeholderSearchCard(asin);
+        }
+    }
+
+    private Map<String, Object> placeholderSearchCard(String asin) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("id", asin);
+        result.put("name", "Product " + asin);
+        result.put("brand", "Unknown");
+        result.put("price", 0.0);
+        result.put("imageUrl", "");
+        result.put("rating", 0.0);
+        result.put("reviewCount", 0);
+        return result;
+    }
+
     // ------------------------------------------------------------
     // 1b. Search Product → Fetch Raw → AI → Structured Save → Return DTO
     // ------------------------------------------------------------
@@ -156,14 +358,11 @@ public class ProductController {
         // ---------------------------------------------------------
         // 2️⃣ Check RAW CACHE
         // ---------------------------------------------------------
-        String cachedRaw = productService.getRawCache(asin);
+        Map<String, Object> rawMap = productService.getRawCacheData(asin);
 
-        if (cachedRaw != null) {
+        if (rawMap != null) {
             log.info("CACHE HIT for ASIN {}", asin);
 
-            // Convert JSON string → Map
-            Map<String, Object> rawMap = objectMapper.readValue(cachedRaw, Map.class);
-
             // Process product using cached RAW data
             Product product = productService.processAndSaveProduct(asin, rawMap);
 
@@ -177,11 +376,13 @@ public class ProductController {
 
         Map<String, Object> freshDetails = productService.fetchProductDetails(asin);
 
-        // Save RAW JSON to cache
-        RawCacheDTO dto = new RawCacheDTO();
-        dto.setProductId(asin);
-        dto.setRawJson(objectMapper.writeValueAsString(freshDetails));
-        productService.saveRawCache(dto);
+        // Save RAW JSON to cache (never mock or stale fallback details)
+        if (ProductService.isFreshDetails(freshDetails)) {
+            RawCacheDTO dto = new RawCacheDTO();
+            dto.setProductId(asin);
+            dto.setRawJson(objectMapper.writeValueAsString(freshDetails));
+            productService.saveRawCache(dto);
+        }
 
         // ---------------------------------------------------------
         // 4️⃣ Process & Save Product using fresh API data
@@ -237,457 +438,126 @@ public class ProductController {
             @RequestBody Map<String, String> request, 
             Authentication authentication,
             @RequestHeader(value = "Authorization", required = false) String authHeader) {
-        try {
-            String productId = request.get("productId");
-            String productName = request.get("productName");
-            
-            if (productId == null || productId.isBlank()) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(Map.of("error", "productId is required"));
-            }
+        String productId = request.get("productId");
+        String productName = request.get("productName");
 
-            log.info("Analyzing product: {} ({})", productName, productId);
-            log.info("🔍 Authentication object: {}", authentication != null ? "Present" : "NULL");
-            log.info("🔍 Authorization header: {}", authHeader != null ? "Present (Bearer token)" : "NULL");
+        if (productId == null || productId.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "productId is required"));
+        }
 
-            // 🔧 CHECK FOR CACHED ANALYSIS FIRST
-            log.info("🔍 Checking for existing analysis result for product: {}", productId);
-            Optional<AnalysisResult> cachedAnalysis = analysisService.getLatestAnalysisForProduct(productId);
-            
-            if (cachedAnalysis.isPresent()) {
-                AnalysisResult existingAnalysis = cachedAnalysis.get();
-                log.info("✅ Found cached analysis! Analysis ID: {}, Created: {}", 
-                    existingAnalysis.getId(), existingAnalysis.getAnalyzedAt());
-                
-                // Build response from cached analysis
-                Map<String, Object> response = new HashMap<>();
-                response.put("id", existingAnalysis.getId().toString());
-                response.put("productId", productId);
-                response.put("message", "Using cached analysis result");
-                response.put("overallScore", existingAnalysis.getTotalScore());
-                response.put("verdict", existingAnalysis.getVerdict());
-                response.put("cached", true);
-                
-                // Build structured data object from cached analysis
-                Map<String, Object> structuredData = new HashMap<>();
-                structuredData.put("overall_score", existingAnalysis.getTotalScore() / 100.0);
-                structuredData.put("decision", existingAnalysis.getVerdict());
-                structuredData.put("reason", existingAnalysis.getSummary());
-                
-                // Parse pros and cons from JSON strings
-                try {
-                    if (existingAnalysis.getPros() != null && !existingAnalysis.getPros().isEmpty()) {
-                        structuredData.put("pros", objectMapper.readValue(existingAnalysis.getPros(), List.class));
-                    }
-                    if (existingAnalysis.getCons() != null && !existingAnalysis.getCons().isEmpty()) {
-                        structuredData.put("cons", objectMapper.readValue(existingAnalysis.getCons(), List.class));
-                    }
-                    if (existingAnalysis.getKeyFeatures() != null && !existingAnalysis.getKeyFeatures().isEmpty()) {
-                        structuredData.put("key_features", objectMapper.readValue(existingAnalysis.getKeyFeatures(), Map.class));
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to parse cached JSON fields: {}", e.getMessage());
-                }
-                
-                // Add product details
-                Product product = existingAnalysis.getProduct();
-                if (product != null) {
-                    structuredData.put("title", product.getProductName());
-                    structuredData.put("brand", product.getBrand());
-                    structuredData.put("price", product.getLastPrice());
-                    structuredData.put("imageUrl", product.getImageUrl());
-                    structuredData.put("productLink", product.getProductLink());
-                }
-                
-                response.put("data", structuredData);
-                
-                log.info("✅ Returning cached analysis result (saved time and resources)");
-                return ResponseEntity.ok(response);
-            }
-            
-            log.info("⚠️ No cached analysis found. Proceeding with new analysis...");
+        log.info("🔍 Authentication object: {}", authentication != null ? "Present" : "NULL");
+        log.info("🔍 Authorization header: {}", authHeader != null ? "Present (Bearer token)" : "NULL");
 
-            // 🔧 ENHANCED: Get current user with multiple methods
-            User user = null;
-            
-            // Method 1: Try Authentication object first
-            if (authentication != null && authentication.isAuthenticated()) {
-                String email = authentication.getName();
-                log.info("🔐 Method 1 - Authentication object present: {}", email);
-                
-                // Check if email looks like "anonymousUser" (Spring Security default)
-                if ("anonymousUser".equals(email)) {
-                    log.info("⚠ Anonymous user (Spring Security anonymous authentication)");
-                    user = null;
-                } else {
-                    user = userRepository.findByEmail(email).orElse(null);
-                    if (user == null) {
-                        log.warn("❌ Authenticated user {} not found in database. Analysis will be saved without user_id.", email);
-                    } else {
-                        log.info("✓ User found via Authentication: {} (ID: {})", user.getEmail(), user.getId());
-                    }
-                }
-            }
-            
-            // Method 2: Try JWT token from header if Authentication didn't work
-            if (user == null && authHeader != null && authHeader.startsWith("Bearer ")) {
-                try {
-                    String token = authHeader.substring(7);
-                    log.info("🔐 Method 2 - Attempting to extract user from JWT token");
-                    
-                    // Use JwtTokenUtil to extract email from token
-                    com.example.backend.security.JwtTokenUtil jwtTokenUtil = 
-                        new com.example.backend.security.JwtTokenUtil(userRepository);
-                    String email = jwtTokenUtil.getEmailFromToken(token);
-                    
-                    if (email != null && !email.equals("anonymousUser")) {
-                        user = userRepository.findByEmail(email).orElse(null);
-                        if (user != null) {
-                            log.info("✓ User found via JWT token: {} (ID: {})", user.getEmail(), user.getId());
-                        } else {
-                            log.warn("❌ Email {} from JWT token not found in database", email);
-                        }
-                    }
-                } catch (Exception e) {
-                    log.error("❌ Failed to extract user from JWT token: {}", e.getMessage());
-                }
-            }
-            
-            if (user == null) {
-                log.info("🔓 No user authentication - Analysis will be saved without user_id (anonymous)");
-            }
+        ProductAnalysisService.Outcome outcome = productAnalysisService.analyze(productId, productName,
+                () -> resolveUser(authentication, authHeader), stage -> { });
+        return ResponseEntity.status(outcome.status()).body(outcome.body());
+    }
 
-            // 1️⃣ Get raw JSON from cache OR fetch if not available
-            String rawJson = productService.getRawCache(productId);
-            
-            if (rawJson == null) {
-                log.info("No cached data for {}. Fetching from API...", productId);
-                
-                // Fetch product details from RapidAPI
-                Map<String, Object> freshDetails = productService.fetchProductDetails(productId);
-                
-                if (freshDetails.containsKey("error")) {
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .body(Map.of("error", "Failed to fetch product details: " + freshDetails.get("error")));
-                }
-                
-                // Save to cache for future use
-                RawCacheDTO dto = new RawCacheDTO();
-                dto.setProductId(productId);
-                dto.setRawJson(objectMapper.writeValueAsString(freshDetails));
-                productService.saveRawCache(dto);
-                
-                // Convert back to JSON string for AI processing
-                rawJson = objectMapper.writeValueAsString(freshDetails);
-            } else {
-                log.info("Using cached data for {}", productId);
-            }
+    // ------------------------------------------------------------
+    // Analysis jobs: same pipeline as /analyze on a bounded worker pool.
+    // Submit returns the job id at once; poll the job or stream its stages (SSE)
+    // ------------------------------------------------------------
+    @PostMapping("/analyze/jobs")
+    public ResponseEntity<Map<String, Object>> submitAnalysisJob(
+            @RequestBody Map<String, String> request,
+            Authentication authentication,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        String productId = request.get("productId");
+        String productName = request.get("productName");
 
-            // 2️⃣ Send raw → AI Engine (or local processing if AI disabled)
-            Map<String, Object> structured =
-                    productService.sendRawToAiAndGetStructured(rawJson);
-            
-            if (structured == null || structured.isEmpty()) {
-                log.error("AI service returned null or empty structured data");
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Map.of("error", "Failed to process product data"));
-            }
-            
-            // Check if the structured data contains an error before proceeding
-            if (structured.containsKey("error") && structured.get("error").equals("PROCESSING_FAILED")) {
-                log.error("Processing failed: {}", structured.get("message"));
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Map.of(
-                            "error", "Processing failed",
-                            "message", structured.getOrDefault("message", "Unable to process product data")
-                        ));
-            }
-            
-            log.info("Structured data received: {}", structured.keySet());
-            
-            // Validate that the analyzed product matches the requested ASIN
-            Object rawObj = structured.get("raw");
-            if (rawObj instanceof Map) {
-                Map<String, Object> rawData = (Map<String, Object>) rawObj;
-                String actualAsin = (String) rawData.get("asin");
-                if (actualAsin != null && !actualAsin.equals(productId)) {
-                    log.warn("ASIN mismatch: requested={}, got={}", productId, actualAsin);
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .body(Map.of(
-                                "error", "Product mismatch detected",
-                                "message", "The analyzed product (" + actualAsin + ") does not match the requested product (" + productId + ")"
-                            ));
-                }
-            }
+        if (productId == null || productId.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "productId is required"));
+        }
 
-            // 3️⃣ Save the structured product to database
-            log.info("Saving product with structured data. Title: {}, Brand: {}, Price: {}, ImageURL: {}", 
-                structured.get("title"), structured.get("brand"), structured.get("price"), structured.get("imageUrl"));
-            
-            Product savedProduct = productService.processAndSaveProduct(productId, structured);
-            
-            if (savedProduct == null) {
-                log.error("Failed to save product");
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Map.of("error", "Failed to save product"));
-            }
-            
-            log.info("Product saved successfully. Name: {}, Brand: {}, Price: {}, ImageURL: {}", 
-                savedProduct.getProductName(), savedProduct.getBrand(), 
-                savedProduct.getLastPrice(), savedProduct.getImageUrl());
-
-            // 4️⃣ Create and save analysis result
-            int totalScore = 75; // Default score
-            String verdict = "BUY";
-            String summary = "Product analysis completed";
-            String pros = "[]";
-            String cons = "[]";
-            
-            // Extract scores from AI response if available
-            if (structured.containsKey("overall_score")) {
-                Object scoreObj = structured.get("overall_score");
-                if (scoreObj instanceof Number) {
-                    double score = ((Number) scoreObj).doubleValue();
-                    totalScore = (int) (score * 100); // Convert 0-1 to 0-100
-                }
-            }
-            
-            if (structured.containsKey("decision")) {
-                String decision = structured.get("decision").toString();
-                verdict = decision.equals("BUY") ? "BUY" : "NOT_BUY";
-            }
-            
-            if (structured.containsKey("reason")) {
-                summary = structured.get("reason").toString();
-            }
+        try {
+            AnalysisJob job = analysisJobManager.submit(productId, productName,
+                    () -> resolveUser(authentication, authHeader));
+
+            Map<String, Object> response = new LinkedHashMap<>(job.snapshot());
+            response.put("queueDepth", analysisJobManager.queueDepth());
+            response.put("statusUrl", "/api/products/analyze/jobs/" + job.getId());
+            response.put("eventsUrl", "/api/products/analyze/jobs/" + job.getId() + "/events");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (RejectedExecutionException e) {
+            log.warn("Analysis queue full, rejecting job for product {}", productId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of(
+                        "error", "Analysis queue is full",
+                        "queueDepth", analysisJobManager.queueDepth()
+                    ));
+        }
+    }
+
+    @GetMapping("/analyze/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getAnalysisJob(@PathVariable String jobId) {
+        return analysisJobManager.find(jobId)
+                .map(job -> ResponseEntity.ok(job.snapshot()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Unknown analysis job: " + jobId)));
+    }
+
+    // "stage" event on every stage change, then one "result" event with the outcome
+    @GetMapping(value = "/analyze/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAnalysisJob(@PathVariable String jobId) {
+        AnalysisJob job = analysisJobManager.find(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown analysis job: " + jobId));
+
+        SseEmitter emitter = new SseEmitter(analysisJobStreamTimeoutMs);
+        job.subscribe(emitter);
+        return emitter;
+    }
+
+    // 🔧 ENHANCED: Get current user with multiple methods
+    private User resolveUser(Authentication authentication, String authHeader) {
+        User user = null;
+        
+        // Method 1: Try Authentication object first
+        if (authentication != null && authentication.isAuthenticated()) {
+            String email = authentication.getName();
+            log.info("🔐 Method 1 - Authentication object present: {}", email);
             
-            // 🔧 ENHANCED: Extract pros and cons from AI response with better fallback
-            try {
-                log.info("🔍 Checking for pros/cons in AI response. Available keys: {}", structured.keySet());
-                
-                if (structured.containsKey("pros")) {
-                    Object prosObj = structured.get("pros");
-                    log.info("✓ Found 'pros' field: {} (type: {})", prosObj, prosObj.getClass().getSimpleName());
-                    
-                    if (prosObj instanceof List && !((List<?>) prosObj).isEmpty()) {
-                        pros = objectMapper.writeValueAsString(prosObj);
-                        log.info("✓ Serialized pros: {}", pros);
-                    } else if (prosObj instanceof String && !((String) prosObj).isEmpty()) {
-                        pros = (String) prosObj;
-                        log.info("✓ Used string pros: {}", pros);
-                    } else {
-                        log.warn("⚠ Pros field is empty or unexpected type");
-                        pros = "[\"Good product features\"]"; // Default fallback
-                    }
-                } else {
-                    log.warn("⚠ No 'pros' field in AI response, using default");
-                    pros = "[\"Product features are satisfactory\"]";
-                }
-                
-                if (structured.containsKey("cons")) {
-                    Object consObj = structured.get("cons");
-                    log.info("✓ Found 'cons' field: {} (type: {})", consObj, consObj.getClass().getSimpleName());
-                    
-                    if (consObj instanceof List && !((List<?>) consObj).isEmpty()) {
-                        cons = objectMapper.writeValueAsString(consObj);
-                        log.info("✓ Serialized cons: {}", cons);
-                    } else if (consObj instanceof String && !((String) consObj).isEmpty()) {
-                        cons = (String) consObj;
-                        log.info("✓ Used string cons: {}", cons);
-                    } else {
-                        log.warn("⚠ Cons field is empty or unexpected type");
-                        cons = "[\"No major issues found\"]"; // Default fallback
-                    }
+            // Check if email looks like "anonymousUser" (Spring Security default)
+            if ("anonymousUser".equals(email)) {
+                log.info("⚠ Anonymous user (Spring Security anonymous authentication)");
+                user = null;
+            } else {
+                user = userRepository.findByEmail(email).orElse(null);
+                if (user == null) {
+                    log.warn("❌ Authenticated user {} not found in database. Analysis will be saved without user_id.", email);
                 } else {
-                    log.warn("⚠ No 'cons' field in AI response, using default");
-                    cons = "[\"Limited information available\"]";
+                    log.info("✓ User found via Authentication: {} (ID: {})", user.getEmail(), user.getId());
                 }
-            } catch (Exception e) {
-                log.error("❌ Failed to extract pros/cons: {}", e.getMessage(), e);
-                pros = "[\"Unable to extract pros\"]";
-                cons = "[\"Unable to extract cons\"]";
             }
-            
-            // 🔧 ENHANCED: Extract key_features from AI response with comprehensive fallback
-            String keyFeatures = null;
+        }
+        
+        // Method 2: Try JWT token from header if Authentication didn't work
+        if (user == null && authHeader != null && authHeader.startsWith("Bearer ")) {
             try {
-                log.info("🔍 Checking for key_features in AI response. Available keys: {}", structured.keySet());
+                String token = authHeader.substring(7);
+                log.info("🔐 Method 2 - Attempting to extract user from JWT token");
                 
-                if (structured.containsKey("key_features")) {
-                    Object kfObj = structured.get("key_features");
-                    log.info("✓ Found 'key_features' field: {} (type: {})", kfObj, kfObj.getClass().getSimpleName());
-                    
-                    if (kfObj instanceof Map && !((Map<?, ?>) kfObj).isEmpty()) {
-                        keyFeatures = objectMapper.writeValueAsString(kfObj);
-                        log.info("✓ Serialized key_features: {}", keyFeatures);
-                    } else if (kfObj instanceof String) {
-                        keyFeatures = (String) kfObj;
-                        log.info("✓ Used string key_features: {}", keyFeatures);
-                    }
-                } else if (structured.containsKey("keyFeatures")) {
-                    Object kfObj = structured.get("keyFeatures");
-                    log.info("✓ Found 'keyFeatures' field: {} (type: {})", kfObj, kfObj.getClass().getSimpleName());
-                    
-                    if (kfObj instanceof Map && !((Map<?, ?>) kfObj).isEmpty()) {
-                        keyFeatures = objectMapper.writeValueAsString(kfObj);
-                        log.info("✓ Serialized keyFeatures: {}", keyFeatures);
-                    }
-                }
+                // Use JwtTokenUtil to extract email from token
+                com.example.backend.security.JwtTokenUtil jwtTokenUtil = 
+                    new com.example.backend.security.JwtTokenUtil(userRepository);
+                String email = jwtTokenUtil.getEmailFromToken(token);
                 
-                // Fallback: Extract from product specs if AI didn't provide
-                if (keyFeatures == null || keyFeatures.equals("null")) {
-                    log.info("⚠ No key_features from AI, extracting from product specs...");
-                    Map<String, Object> specs = savedProduct.getSpecification();
-                    
-                    if (specs != null && !specs.isEmpty()) {
-                        Map<String, String> extractedFeatures = new HashMap<>();
-                        
-                        // Try to extract from raw data if available
-                        Object specRawObj = specs.get("raw");
-                        Map<String, Object> rawData = (specRawObj instanceof Map) ? (Map<String, Object>) specRawObj : specs;
-                        
-                        // Common product specifications
-                        String[] specKeys = {"RAM", "Storage", "Battery", "Display", "Screen Size", 
-                                           "Processor", "CPU", "Camera", "OS", "Operating System",
-                                           "Weight", "Color", "Warranty", "Brand"};
-                        
-                        for (String key : specKeys) {
-                            if (rawData.containsKey(key) && rawData.get(key) != null) {
-                                extractedFeatures.put(key, rawData.get(key).toString());
-                            }
-                            // Try lowercase
-                            String lowerKey = key.toLowerCase();
-                            if (rawData.containsKey(lowerKey) && rawData.get(lowerKey) != null) {
-                                extractedFeatures.put(key, rawData.get(lowerKey).toString());
-                            }
-                        }
-                        
-                        // Add brand and price as key features
-                        if (savedProduct.getBrand() != null) {
-                            extractedFeatures.put("Brand", savedProduct.getBrand());
-                        }
-                        if (savedProduct.getLastPrice() != null) {
-                            extractedFeatures.put("Price", "₹" + savedProduct.getLastPrice());
-                        }
-                        
-                        if (!extractedFeatures.isEmpty()) {
-                            keyFeatures = objectMapper.writeValueAsString(extractedFeatures);
-                            log.info("✓ Created key_features from specs: {}", keyFeatures);
-                        } else {
-                            // Last resort: create minimal features
-                            Map<String, String> minimalFeatures = new HashMap<>();
-                            minimalFeatures.put("Product", savedProduct.getProductName());
-                            minimalFeatures.put("Brand", savedProduct.getBrand() != null ? savedProduct.getBrand() : "N/A");
-                            if (savedProduct.getLastPrice() != null) {
-                                minimalFeatures.put("Price", "₹" + savedProduct.getLastPrice());
-                            }
-                            keyFeatures = objectMapper.writeValueAsString(minimalFeatures);
-                            log.info("⚠ Created minimal key_features: {}", keyFeatures);
-                        }
+                if (email != null && !email.equals("anonymousUser")) {
+                    user = userRepository.findByEmail(email).orElse(null);
+                    if (user != null) {
+                        log.info("✓ User found via JWT token: {} (ID: {})", user.getEmail(), user.getId());
                     } else {
-                        log.warn("⚠ No specs available, creating basic key_features");
-                        Map<String, String> basicFeatures = new HashMap<>();
-                        basicFeatures.put("Product", savedProduct.getProductName());
-                        basicFeatures.put("Brand", savedProduct.getBrand() != null ? savedProduct.getBrand() : "N/A");
-                        keyFeatures = objectMapper.writeValueAsString(basicFeatures);
+                        log.warn("❌ Email {} from JWT token not found in database", email);
                     }
-                } else {
-                    log.info("✓ Key features successfully extracted from AI response");
-                }
-            } catch (Exception e) {
-                log.error("❌ Failed to extract key_features: {}", e.getMessage(), e);
-                // Final fallback
-                try {
-                    Map<String, String> errorFallback = new HashMap<>();
-                    errorFallback.put("Product", savedProduct.getProductName());
-                    errorFallback.put("Status", "Features extraction failed");
-                    keyFeatures = objectMapper.writeValueAsString(errorFallback);
-                } catch (Exception ex) {
-                    keyFeatures = "{\"error\":\"Unable to extract features\"}";
-                }
-            }
-            
-            // 🔧 Create and save analysis result with comprehensive logging
-            AnalysisResult analysisResult = new AnalysisResult();
-            analysisResult.setProduct(savedProduct);
-            analysisResult.setUser(user); // Can be null for anonymous users
-            analysisResult.setTotalScore(totalScore);
-            analysisResult.setOverallScore(totalScore);
-            analysisResult.setVerdict(verdict);
-            analysisResult.setSummary(summary);
-            analysisResult.setPros(pros);
-            analysisResult.setCons(cons);
-            analysisResult.setKeyFeatures(keyFeatures);
-            
-            // 📊 Log what we're about to save
-            log.info("═══════════════════════════════════════════════════════");
-            log.info("📝 ANALYSIS RESULT TO BE SAVED:");
-            log.info("  Product ID: {}", savedProduct.getId());
-            log.info("  Product Name: {}", savedProduct.getProductName());
-            log.info("  User ID: {}", user != null ? user.getId() : "NULL (anonymous)");
-            log.info("  User Email: {}", user != null ? user.getEmail() : "N/A");
-            log.info("  Total Score: {}", totalScore);
-            log.info("  Verdict: {}", verdict);
-            log.info("  Summary Length: {} chars", summary != null ? summary.length() : 0);
-            log.info("  Pros: {}", pros != null && pros.length() > 50 ? pros.substring(0, 50) + "..." : pros);
-            log.info("  Cons: {}", cons != null && cons.length() > 50 ? cons.substring(0, 50) + "..." : cons);
-            log.info("  Key Features: {}", keyFeatures != null && keyFeatures.length() > 100 ? keyFeatures.substring(0, 100) + "..." : keyFeatures);
-            log.info("═══════════════════════════════════════════════════════");
-            
-            // Save to database
-            analysisResult = analysisService.saveAnalysisResult(analysisResult);
-            
-            // 📊 Log what was actually saved
-            log.info("═══════════════════════════════════════════════════════");
-            log.info("✅ ANALYSIS RESULT SAVED SUCCESSFULLY:");
-            log.info("  Analysis ID: {}", analysisResult.getId());
-            log.info("  Product ID (in DB): {}", analysisResult.getProduct() != null ? analysisResult.getProduct().getId() : "NULL");
-            log.info("  User ID (in DB): {}", analysisResult.getUser() != null ? analysisResult.getUser().getId() : "NULL");
-            log.info("  Key Features (in DB): {}", analysisResult.getKeyFeatures() != null ? "SET" : "NULL");
-            log.info("  Pros (in DB): {}", analysisResult.getPros() != null ? "SET" : "NULL");
-            log.info("  Cons (in DB): {}", analysisResult.getCons() != null ? "SET" : "NULL");
-            log.info("═══════════════════════════════════════════════════════");
-
-            // 🔧 FIX 3: Save search history for this analysis
-            try {
-                if (user != null) {
-                    searchHistoryService.saveSearch(user, productName != null ? productName : savedProduct.getProductName(), productId);
-                    log.info("Search history saved for user: {} analyzing product: {}", user.getEmail(), productId);
-                } else {
-                    log.info("Skipping search history for anonymous user");
                 }
             } catch (Exception e) {
-                log.error("Failed to save search history: {}", e.getMessage());
-                // Don't fail the whole request if search history fails
+                log.error("❌ Failed to extract user from JWT token: {}", e.getMessage());
             }
-
-            // 5️⃣ Return analysis result with analysis ID
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", analysisResult.getId().toString());
-            response.put("productId", savedProduct.getProductId());
-            response.put("message", "Analysis completed successfully");
-            response.put("overallScore", totalScore);
-            response.put("verdict", verdict);
-            response.put("data", structured);
-            
-            return ResponseEntity.ok(response);
-            
-        } catch (IllegalArgumentException e) {
-            log.error("Invalid request: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of(
-                        "error", "Invalid request",
-                        "message", e.getMessage()
-                    ));
-        } catch (Exception e) {
-            log.error("Error analyzing product: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                        "error", "Analysis failed",
-                        "message", e.getMessage() != null ? e.getMessage() : "An unexpected error occurred",
-                        "type", e.getClass().getSimpleName()
-                    ));
         }
+
+        return user;
     }
 
     @PostMapping("/analyze/{productId}")
@@ -82,10 +82,11 @@ public class ProductRawDataCacheController {
     @DeleteMapping("/expired")
     public ResponseEntity<?> deleteExpired() {
 
-        cacheService.deleteExpiredCache();
+        int deleted = cacheService.deleteExpiredCache();
 
         return ResponseEntity.ok(
-                Map.of("status", "Expired cache entries removed")
+                Map.of("status", "Expired cache entries removed",
+                        "deleted", deleted)
         );
     }
 }
@@ -0,0 +1,37 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * AI service response for one exact input payload, keyed by the payload's ContentHash and
+ * the prompt/model version it was produced with (see AiResultCache)
+ */
+@Entity
+@Data
+@Table(name = "ai_analysis_cache",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"input_hash", "prompt_version"}))
+public class AiAnalysisCache {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "input_hash", nullable = false, length = 64)
+    private String inputHash;
+
+    @Column(name = "prompt_version", nullable = false, length = 32)
+    private String promptVersion;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "json", nullable = false)
+    private Map<String, Object> result;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -31,6 +31,10 @@ public class AnalysisResult {
     @Column(columnDefinition = "TEXT")
     private String keyFeatures;       // JSON map: {"RAM":"8GB","Battery":"5000mAh"}
 
+    // Product.contentHash the analysis was made from; a different current hash means stale
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     private LocalDateTime analyzedAt = LocalDateTime.now();
     private java.util.Date createdAt = new java.util.Date();  // For frontend compatibility
 
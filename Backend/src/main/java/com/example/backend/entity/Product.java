@@ -32,6 +32,10 @@ public class Product {
     @Column(columnDefinition = "TEXT")
     private Map<String, Object> specification;
 
+    // ContentHash of the upstream details document and reviews last saved; equal input skips the update
+    @Column(length = 64)
+    private String contentHash;
+
     // Relationships
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL)
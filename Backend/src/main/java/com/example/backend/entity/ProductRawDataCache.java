@@ -13,7 +13,8 @@ import java.util.Map;
 @Entity
 @Data
 @Table(name = "product_raw_data_cache", 
-       uniqueConstraints = @UniqueConstraint(columnNames = "external_product_id"))
+       uniqueConstraints = @UniqueConstraint(columnNames = "external_product_id"),
+       indexes = @Index(name = "idx_raw_cache_expiry_at", columnList = "expiry_at"))
 public class ProductRawDataCache {
 
     @Id
@@ -25,10 +26,19 @@ public class ProductRawDataCache {
     @Column(columnDefinition = "json")
     private Map<String, Object> rawJson;
 
+    // LZ4-compressed Smile form of the payload, used instead of rawJson
+    // when product.raw-cache.storage-format=smile-lz4 (see RawCacheStorage)
+    @Column(name = "raw_payload", columnDefinition = "bytea")
+    private byte[] rawPayload;
+
+    // ContentHash of the stored document; a write of the same content only renews the expiry
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(nullable = false)
     private LocalDateTime cachedAt;
 
-    @Column(nullable = false)
+    @Column(name = "expiry_at", nullable = false)
     private LocalDateTime expiryAt;
 
     // External product ID (e.g., Amazon ASIN, Flipkart item ID)
@@ -0,0 +1,53 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A part of a product's raw data cached with its own expiry, next to the stable
+ * document in product_raw_data_cache (see RawSegmentStore)
+ */
+@Entity
+@Data
+@Table(name = "product_raw_segment",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"external_product_id", "segment"}),
+       indexes = @Index(name = "idx_raw_segment_expiry_at", columnList = "expiry_at"))
+public class ProductRawSegment {
+
+    public enum Segment {
+        PRICE, REVIEWS
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "external_product_id", nullable = false)
+    private String externalProductId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Segment segment;
+
+    // Same storage formats as product_raw_data_cache (see RawCacheStorage)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "json")
+    private Map<String, Object> rawJson;
+
+    @Column(name = "raw_payload", columnDefinition = "bytea")
+    private byte[] rawPayload;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private LocalDateTime cachedAt;
+
+    @Column(name = "expiry_at", nullable = false)
+    private LocalDateTime expiryAt;
+}
@@ -0,0 +1,42 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One ingested upstream review of a product, written page by page as reviews arrive
+ * (see ReviewStore)
+ */
+@Entity
+@Data
+@Table(name = "product_review",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"external_product_id", "review_key"}),
+       indexes = @Index(name = "idx_product_review_expiry_at", columnList = "expiry_at"))
+public class ProductReview {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "external_product_id", nullable = false)
+    private String externalProductId;
+
+    // ContentHash of review_id, or of author, title and text when there is no id
+    @Column(name = "review_key", nullable = false, length = 64)
+    private String reviewKey;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "json", nullable = false)
+    private Map<String, Object> rawJson;
+
+    @Column(nullable = false)
+    private LocalDateTime fetchedAt;
+
+    @Column(name = "expiry_at", nullable = false)
+    private LocalDateTime expiryAt;
+}
@@ -0,0 +1,227 @@
+package com.example.backend.job;
+
+import com.example.backend.service.ProductAnalysisService.Outcome;
+import com.example.backend.service.ProductAnalysisService.Stage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One submitted analysis: its state, the stage it is in, how long each finished stage
+ * took and, once done, the pipeline outcome. SSE subscribers get a "stage" event on
+ * every transition and a final "result" event, after which their stream completes.
+ *
+ * State changes and snapshots happen under the job's monitor; events are sent after it
+ * is released, so a slow subscriber never holds up the worker's transitions or readers
+ * of the job. Every transition bumps a version, and a subscriber skips a snapshot older
+ * than one it was already sent, so events sent from different threads stay in order.
+ */
+@Slf4j
+public class AnalysisJob {
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String productId;
+    private final String productName;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final long submittedNanos = System.nanoTime();
+
+    private State state = State.QUEUED;
+    private Stage stage;
+    private long stageStartedNanos;
+    private final Map<Stage, Long> stageMillis = new EnumMap<>(Stage.class);
+    private long queuedMillis;
+    private Outcome outcome;
+    private LocalDateTime finishedAt;
+    private long finishedNanos;
+
+    private long version;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+
+    private record Event(long version, String name, Map<String, Object> data) {
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private long sentVersion = -1;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void send(Event event) throws IOException {
+            if (event.version() < sentVersion) {
+                return; // a newer state already went out
+            }
+            emitter.send(SseEmitter.event().name(event.name()).data(event.data(), MediaType.APPLICATION_JSON));
+            sentVersion = event.version();
+        }
+    }
+
+    AnalysisJob(String productId, String productName) {
+        this.productId = productId;
+        this.productName = productName;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    long started() {
+        long waitedNanos;
+        Event event;
+        List<Subscriber> targets;
+        synchronized (this) {
+            state = State.RUNNING;
+            waitedNanos = System.nanoTime() - submittedNanos;
+            queuedMillis = TimeUnit.NANOSECONDS.toMillis(waitedNanos);
+            event = new Event(++version, "stage", snapshotLocked(false));
+            targets = List.copyOf(subscribers);
+        }
+        broadcast(targets, event);
+        return waitedNanos;
+    }
+
+    void enter(Stage next) {
+        Event event;
+        List<Subscriber> targets;
+        synchronized (this) {
+            closeStage(System.nanoTime());
+            stage = next;
+            stageStartedNanos = System.nanoTime();
+            event = new Event(++version, "stage", snapshotLocked(false));
+            targets = List.copyOf(subscribers);
+        }
+        broadcast(targets, event);
+    }
+
+    void finish(Outcome result) {
+        Event event;
+        List<Subscriber> targets;
+        synchronized (this) {
+            finishedNanos = System.nanoTime();
+            closeStage(finishedNanos);
+            outcome = result;
+            state = result.successful() ? State.SUCCEEDED : State.FAILED;
+            finishedAt = LocalDateTime.now();
+            event = new Event(++version, "result", snapshotLocked(true));
+            targets = List.copyOf(subscribers);
+            subscribers.clear();
+        }
+        broadcast(targets, event);
+        targets.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void closeStage(long now) {
+        if (stage != null && !stageMillis.containsKey(stage)) {
+            stageMillis.put(stage, TimeUnit.NANOSECONDS.toMillis(now - stageStartedNanos));
+        }
+    }
+
+    public synchronized boolean isFinished() {
+        return outcome != null;
+    }
+
+    // Nanos since the job finished, or -1 while it has not
+    synchronized long finishedAgoNanos() {
+        return outcome == null ? -1 : System.nanoTime() - finishedNanos;
+    }
+
+    /**
+     * Sends the current state right away; a finished job also sends its result and completes
+     */
+    public void subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        Event current;
+        Event result = null;
+        synchronized (this) {
+            current = new Event(version, "stage", snapshotLocked(false));
+            if (outcome != null) {
+                result = new Event(version, "result", snapshotLocked(true));
+            } else {
+                subscribers.add(subscriber);
+                emitter.onCompletion(() -> unsubscribe(emitter));
+                emitter.onTimeout(() -> unsubscribe(emitter));
+                emitter.onError(error -> unsubscribe(emitter));
+            }
+        }
+
+        try {
+            subscriber.send(current);
+            if (result != null) {
+                subscriber.send(result);
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private synchronized void unsubscribe(SseEmitter emitter) {
+        subscribers.removeIf(subscriber -> subscriber.emitter == emitter);
+    }
+
+    // Called without the job's monitor held
+    private void broadcast(List<Subscriber> targets, Event event) {
+        for (Subscriber subscriber : targets) {
+            try {
+                subscriber.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the job itself carries on
+                log.debug("Dropping subscriber of analysis job {}: {}", id, e.getMessage());
+                unsubscribe(subscriber.emitter);
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        return snapshotLocked(true);
+    }
+
+    private Map<String, Object> snapshotLocked(boolean withResult) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("jobId", id);
+        snapshot.put("productId", productId);
+        snapshot.put("state", state.name());
+        snapshot.put("stage", stage != null ? stage.name() : null);
+        snapshot.put("submittedAt", submittedAt.toString());
+        snapshot.put("queuedMs", state == State.QUEUED
+                ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedNanos)
+                : queuedMillis);
+        Map<String, Long> timings = new LinkedHashMap<>();
+        stageMillis.forEach((s, ms) -> timings.put(s.name(), ms));
+        snapshot.put("stageTimingsMs", timings);
+        if (outcome != null) {
+            snapshot.put("finishedAt", finishedAt.toString());
+            snapshot.put("totalMs", TimeUnit.NANOSECONDS.toMillis(finishedNanos - submittedNanos));
+            snapshot.put("httpStatus", outcome.status().value());
+            if (withResult) {
+                snapshot.put("result", outcome.body());
+            }
+        }
+        return snapshot;
+    }
+}
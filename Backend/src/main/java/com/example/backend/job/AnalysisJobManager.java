@@ -0,0 +1,138 @@
+package com.example.backend.job;
+
+import com.example.backend.entity.User;
+import com.example.backend.service.ProductAnalysisService;
+import com.example.backend.service.ProductAnalysisService.Outcome;
+import com.example.backend.util.LatencyRecorder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs analyses as jobs on a bounded worker pool so the submitting request returns at once.
+ *
+ * workers analyses run concurrently and up to queue-capacity wait; beyond that submit
+ * fails fast with {@link RejectedExecutionException}. Finished jobs stay readable for
+ * retention-minutes, then are evicted.
+ */
+@Slf4j
+@Component
+public class AnalysisJobManager {
+
+    private final ProductAnalysisService productAnalysisService;
+    private final int workers;
+    private final int queueCapacity;
+    private final long retentionNanos;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyRecorder queueWait = new LatencyRecorder();
+    private final LatencyRecorder runTime = new LatencyRecorder();
+
+    public AnalysisJobManager(
+            ProductAnalysisService productAnalysisService,
+            @Value("${product.analysis.jobs.workers:4}") int workers,
+            @Value("${product.analysis.jobs.queue-capacity:100}") int queueCapacity,
+            @Value("${product.analysis.jobs.retention-minutes:15}") long retentionMinutes) {
+        this.productAnalysisService = productAnalysisService;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.retentionNanos = TimeUnit.MINUTES.toNanos(retentionMinutes);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("analysis-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues an analysis of the product
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public AnalysisJob submit(String productId, String productName, Supplier<User> userResolver) {
+        AnalysisJob job = new AnalysisJob(productId, productName);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, userResolver));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            rejected.increment();
+            throw e;
+        }
+        submitted.increment();
+        log.info("Queued analysis job {} for product {} (queue depth {})", job.getId(), productId, queueDepth());
+        return job;
+    }
+
+    private void run(AnalysisJob job, Supplier<User> userResolver) {
+        queueWait.record(job.started());
+        long startedAt = System.nanoTime();
+        Outcome outcome;
+        try {
+            outcome = productAnalysisService.analyze(job.getProductId(), job.getProductName(), userResolver, job::enter);
+        } catch (RuntimeException e) {
+            // analyze reports its own failures as outcomes; this only guards the worker
+            log.error("Analysis job {} failed: {}", job.getId(), e.getMessage(), e);
+            outcome = new Outcome(HttpStatus.INTERNAL_SERVER_ERROR, Map.of(
+                    "error", "Analysis failed",
+                    "message", e.getMessage() != null ? e.getMessage() : "An unexpected error occurred"));
+        }
+        runTime.recordSince(startedAt);
+        (outcome.successful() ? succeeded : failed).increment();
+        job.finish(outcome);
+    }
+
+    public Optional<AnalysisJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Scheduled(fixedDelayString = "${product.analysis.jobs.eviction-interval-ms:60000}")
+    public void evictFinished() {
+        jobs.values().removeIf(job -> job.finishedAgoNanos() > retentionNanos);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workers", workers);
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", queueDepth());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("retained", jobs.size());
+        stats.put("submitted", submitted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("succeeded", succeeded.sum());
+        stats.put("failed", failed.sum());
+        stats.put("queueWait", queueWait.stats());
+        stats.put("runTime", runTime.stats());
+        stats.put("stages", productAnalysisService.getStageStats());
+        return stats;
+    }
+}
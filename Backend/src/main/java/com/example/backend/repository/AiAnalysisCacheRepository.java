@@ -0,0 +1,13 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.AiAnalysisCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AiAnalysisCacheRepository extends JpaRepository<AiAnalysisCache, Long> {
+
+    Optional<AiAnalysisCache> findByInputHashAndPromptVersion(String inputHash, String promptVersion);
+}
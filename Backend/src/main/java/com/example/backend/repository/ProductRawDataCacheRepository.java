@@ -4,9 +4,13 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.ProductRawDataCache;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,11 +25,52 @@ public interface ProductRawDataCacheRepository extends JpaRepository<ProductRawD
             LocalDateTime now
     );
 
+    /**
+     * Expiry of a cache row without loading its payload
+     */
+    interface ExpiryView {
+        String getExternalProductId();
+
+        LocalDateTime getExpiryAt();
+    }
+
     Optional<ProductRawDataCache> findByExternalProductId(String externalProductId);
     /**
      * Get all cache entries for debugging / admin panel
      */
     List<ProductRawDataCache> findByExternalProductIdOrderByCachedAtDesc(String externalProductId);
+
+    /**
+     * Delete at most {@code limit} rows expired before {@code now}, oldest first.
+     * Uses the expiry_at index; callers loop until fewer than {@code limit} rows are removed.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM product_raw_data_cache
+            WHERE id IN (
+                SELECT id FROM product_raw_data_cache
+                WHERE expiry_at < :now
+                ORDER BY expiry_at
+                LIMIT :limit
+            )
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Rows among the given external product IDs that expire before the horizon (payload not loaded)
+     */
+    List<ExpiryView> findByExternalProductIdInAndExpiryAtBefore(Collection<String> externalProductIds,
+                                                                LocalDateTime horizon);
+
+    /**
+     * Content hash of a cache row without loading its payload
+     */
+    interface ContentHashView {
+        String getContentHash();
+    }
+
+    Optional<ContentHashView> findContentHashByExternalProductIdAndExpiryAtAfter(String externalProductId,
+                                                                                LocalDateTime time);
 }
 
 
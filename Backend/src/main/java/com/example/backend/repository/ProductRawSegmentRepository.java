@@ -0,0 +1,46 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.ProductRawSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductRawSegmentRepository extends JpaRepository<ProductRawSegment, Long> {
+
+    Optional<ProductRawSegment> findByExternalProductIdAndSegment(String externalProductId,
+                                                                  ProductRawSegment.Segment segment);
+
+    /**
+     * Segments among the given external product IDs that expire before the horizon (payload not loaded)
+     */
+    List<ProductRawDataCacheRepository.ExpiryView> findByExternalProductIdInAndSegmentAndExpiryAtBefore(
+            Collection<String> externalProductIds, ProductRawSegment.Segment segment, LocalDateTime horizon);
+
+    /**
+     * Same contract as {@link ProductRawDataCacheRepository#deleteExpiredBatch}. An expired PRICE
+     * row is kept while its stable row is still valid: reads serve it as the last known price
+     * until the refresher renews it.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM product_raw_segment
+            WHERE id IN (
+                SELECT s.id FROM product_raw_segment s
+                WHERE s.expiry_at < :now
+                  AND NOT (s.segment = 'PRICE' AND EXISTS (
+                      SELECT 1 FROM product_raw_data_cache c
+                      WHERE c.external_product_id = s.external_product_id AND c.expiry_at >= :now))
+                ORDER BY s.expiry_at
+                LIMIT :limit
+            )
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -4,9 +4,13 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findByProductId(String productId);
+
+    List<Product> findByProductIdIn(Collection<String> productIds);
 }
 
@@ -2,8 +2,12 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.SearchHistory;
 import com.example.backend.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface SearchHistoryRepository extends JpaRepository<SearchHistory, Long> {
@@ -12,5 +16,26 @@ public interface SearchHistoryRepository extends JpaRepository<SearchHistory, Lo
     int countByExternalProductId(String externalProductId);
 
     List<SearchHistory> findByExternalProductIdOrderBySearchedAtDesc(String externalProductId);
+
+    /**
+     * Search volume of one product
+     */
+    interface ProductSearchCount {
+        String getExternalProductId();
+
+        long getSearches();
+    }
+
+    /**
+     * Products ranked by number of searches since the given time, most searched first
+     */
+    @Query("""
+            SELECT s.externalProductId AS externalProductId, COUNT(s) AS searches
+            FROM SearchHistory s
+            WHERE s.searchedAt >= :since AND s.externalProductId IS NOT NULL
+            GROUP BY s.externalProductId
+            ORDER BY COUNT(s) DESC
+            """)
+    List<ProductSearchCount> findMostSearchedSince(@Param("since") LocalDateTime since, Pageable page);
 }
 
@@ -0,0 +1,39 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.User;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The full analyze pipeline behind POST /api/products/analyze and the analysis jobs:
+ * cached-analysis lookup, details fetch, AI call, product persistence, key-feature
+ * extraction, analysis persistence and the search-history write.
+ */
+public interface ProductAnalysisService {
+
+    // Pipeline stages, in execution order
+    enum Stage {
+        LOOKUP, FETCH, AI, PERSIST_PRODUCT, KEY_FEATURES, PERSIST_ANALYSIS, SEARCH_HISTORY
+    }
+
+    // HTTP status and response body of one analysis
+    record Outcome(HttpStatus status, Map<String, Object> body) {
+
+        public static Outcome ok(Map<String, Object> body) {
+            return new Outcome(HttpStatus.OK, body);
+        }
+
+        public boolean successful() {
+            return status.is2xxSuccessful();
+        }
+    }
+
+    // Runs the pipeline on the calling thread; stageListener is told as each stage starts
+    Outcome analyze(String productId, String productName, Supplier<User> userResolver, Consumer<Stage> stageListener);
+
+    // Per-stage latency over recent analyses
+    Map<String, Object> getStageStats();
+}
@@ -15,5 +15,6 @@ public interface ProductRawDataCacheService {
 
     boolean hasValidCache(String externalProductId);
 
-    void deleteExpiredCache();
+    // Set-based batched delete of expired rows; returns the number removed
+    int deleteExpiredCache();
 }
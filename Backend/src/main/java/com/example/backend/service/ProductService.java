@@ -2,9 +2,12 @@ package com.example.backend.service;
 
 
 import com.example.backend.DTO.cache.RawCacheDTO;
+import com.example.backend.client.RequestPriority;
 import com.example.backend.entity.Product;
 
 import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 public interface ProductService {
 
@@ -15,6 +18,8 @@ public interface ProductService {
 
     boolean existsByProductId(String productId);
 
+    List<Product> findByProductIds(Collection<String> productIds);
+
 
     // -------------------------------
     // Raw JSON Cache Handling
@@ -25,6 +30,9 @@ public interface ProductService {
 
     String getRawCache(String productId);
 
+    // Same cached payload decoded straight to a Map (no JSON text in between)
+    Map<String, Object> getRawCacheData(String productId);
+
     // -------------------------------
     // AI -> Structured Product Processing
     // -------------------------------
@@ -38,11 +46,50 @@ public interface ProductService {
     List<String> searchAsins(String query);
 
     Map<String, Object> fetchProductDetails(String asin);
+
+    // Same as above, drawing on the given RapidAPI quota lane
+    Map<String, Object> fetchProductDetails(String asin, RequestPriority priority);
+
+    // Set to true on details that are not a fresh upstream answer: a stale last-good body served
+    // by the client, or the expired raw cache document served while the upstream is shed or down
+    String STALE_FIELD = "stale";
+
+    // Fresh upstream details, safe to cache: not an error, not mock data and not stale
+    static boolean isFreshDetails(Map<String, Object> details) {
+        return details != null
+                && !details.containsKey("error")
+                && !details.containsKey("mock_data")
+                && !Boolean.TRUE.equals(details.get(STALE_FIELD));
+    }
+
+    // In-flight request coalescing counters for upstream fetches
+    Map<String, Object> getCoalescingStats();
+
+    // Product updates written vs skipped because the content hash was unchanged
+    Map<String, Object> getProductWriteStats();
+
     List<Map<String, Object>> fetchProductReviews(String asin);
+
+    List<Map<String, Object>> fetchProductReviews(String asin, RequestPriority priority);
+
+    // Stops fetching further pages once cancelled returns true; a cancelled sample is not cached
+    List<Map<String, Object>> fetchProductReviews(String asin, RequestPriority priority, BooleanSupplier cancelled);
+
+    // Fetches review pages/star slices concurrently, storing each batch of new (de-duplicated)
+    // reviews and handing it to the sink as it arrives; returns the number of unique reviews ingested
+    int ingestProductReviews(String asin, RequestPriority priority, Consumer<List<Map<String, Object>>> sink);
+
+    int ingestProductReviews(String asin, RequestPriority priority, Consumer<List<Map<String, Object>>> sink,
+                             BooleanSupplier cancelled);
 //    Map<String, Object> fetchApifyPriceHistory(String asin);
 
     Product processAndSaveProduct(String asin , Map<String,Object> details);
 
+    // Saves details derived from the upstream document upstreamJson (e.g. the AI's structured output)
+    // with reviews fetched by the caller; only DB writes, in one short transaction
+    Product processAndSaveProduct(String asin, Map<String, Object> details, String upstreamJson,
+                                  List<Map<String, Object>> reviews);
+
 
 
 
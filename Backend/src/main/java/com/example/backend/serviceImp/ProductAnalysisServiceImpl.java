@@ -0,0 +1,550 @@
+package com.example.backend.serviceImp;
+
+import com.example.backend.DTO.cache.RawCacheDTO;
+import com.example.backend.client.RequestPriority;
+import com.example.backend.entity.AnalysisResult;
+import com.example.backend.entity.Product;
+import com.example.backend.entity.User;
+import com.example.backend.service.AnalysisService;
+import com.example.backend.service.ProductAnalysisService;
+import com.example.backend.service.ProductService;
+import com.example.backend.service.SearchHistoryService;
+import com.example.backend.util.LatencyRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductAnalysisServiceImpl implements ProductAnalysisService {
+
+    private final ProductService productService;
+    private final AnalysisService analysisService;
+    private final SearchHistoryService searchHistoryService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService outboundExecutor;
+
+    private final Map<Stage, LatencyRecorder> stageLatency = newStageLatency();
+
+    private static Map<Stage, LatencyRecorder> newStageLatency() {
+        Map<Stage, LatencyRecorder> latency = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            latency.put(stage, new LatencyRecorder());
+        }
+        return latency;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Outcome analyze(String productId, String productName, Supplier<User> userResolver, Consumer<Stage> stageListener) {
+        StageClock stages = new StageClock(stageListener);
+        AtomicBoolean reviewsCancelled = new AtomicBoolean(false);
+        try {
+            log.info("Analyzing product: {} ({})", productName, productId);
+
+            // 🔧 Independent lookups run concurrently: cached analysis, user, raw cache
+            stages.enter(Stage.LOOKUP);
+            log.info("🔍 Checking for existing analysis result for product: {}", productId);
+            CompletableFuture<Optional<AnalysisResult>> cachedAnalysisLookup = CompletableFuture.supplyAsync(
+                    () -> analysisService.getLatestAnalysisForProduct(productId), outboundExecutor);
+            CompletableFuture<User> userLookup = CompletableFuture.supplyAsync(userResolver, outboundExecutor);
+            CompletableFuture<String> rawCacheLookup = CompletableFuture.supplyAsync(
+                    () -> productService.getRawCache(productId), outboundExecutor);
+
+            // An analysis stays valid while the product content it was made from is unchanged
+            Optional<AnalysisResult> cachedAnalysis = join(cachedAnalysisLookup)
+                    .filter(this::matchesCurrentContent);
+            
+            if (cachedAnalysis.isPresent()) {
+                AnalysisResult existingAnalysis = cachedAnalysis.get();
+                log.info("✅ Found cached analysis! Analysis ID: {}, Created: {}", 
+                    existingAnalysis.getId(), existingAnalysis.getAnalyzedAt());
+                
+                // Build response from cached analysis
+                Map<String, Object> response = new HashMap<>();
+                response.put("id", existingAnalysis.getId().toString());
+                response.put("productId", productId);
+                response.put("message", "Using cached analysis result");
+                response.put("overallScore", existingAnalysis.getTotalScore());
+                response.put("verdict", existingAnalysis.getVerdict());
+                response.put("cached", true);
+                
+                // Build structured data object from cached analysis
+                Map<String, Object> structuredData = new HashMap<>();
+                structuredData.put("overall_score", existingAnalysis.getTotalScore() / 100.0);
+                structuredData.put("decision", existingAnalysis.getVerdict());
+                structuredData.put("reason", existingAnalysis.getSummary());
+                
+                // Parse pros and cons from JSON strings
+                try {
+                    if (existingAnalysis.getPros() != null && !existingAnalysis.getPros().isEmpty()) {
+                        structuredData.put("pros", objectMapper.readValue(existingAnalysis.getPros(), List.class));
+                    }
+                    if (existingAnalysis.getCons() != null && !existingAnalysis.getCons().isEmpty()) {
+                        structuredData.put("cons", objectMapper.readValue(existingAnalysis.getCons(), List.class));
+                    }
+                    if (existingAnalysis.getKeyFeatures() != null && !existingAnalysis.getKeyFeatures().isEmpty()) {
+                        structuredData.put("key_features", objectMapper.readValue(existingAnalysis.getKeyFeatures(), Map.class));
+                    }
+                } catch (Exception e) {
+                    log.warn("Failed to parse cached JSON fields: {}", e.getMessage());
+                }
+                
+                // Add product details
+                Product product = existingAnalysis.getProduct();
+                if (product != null) {
+                    structuredData.put("title", product.getProductName());
+                    structuredData.put("brand", product.getBrand());
+                    structuredData.put("price", product.getLastPrice());
+                    structuredData.put("imageUrl", product.getImageUrl());
+                    structuredData.put("productLink", product.getProductLink());
+                }
+                
+                response.put("data", structuredData);
+                
+                log.info("✅ Returning cached analysis result (saved time and resources)");
+                return Outcome.ok(response);
+            }
+            
+            log.info("⚠️ No cached analysis found. Proceeding with new analysis...");
+
+            // Upstream I/O only once we know a new analysis is needed: details (on raw cache miss)
+            // while the user is resolved, then reviews alongside the AI stage
+            CompletableFuture<Map<String, Object>> detailsFetch = rawCacheLookup.thenApplyAsync(
+                    cachedRaw -> cachedRaw != null ? null : productService.fetchProductDetails(productId),
+                    outboundExecutor);
+
+            User user = join(userLookup);
+            if (user == null) {
+                log.info("🔓 No user authentication - Analysis will be saved without user_id (anonymous)");
+            }
+
+            // 1️⃣ Get raw JSON from cache OR fetch if not available
+            stages.enter(Stage.FETCH);
+            String rawJson = join(rawCacheLookup);
+            
+            if (rawJson == null) {
+                log.info("No cached data for {}. Fetched from API", productId);
+                
+                Map<String, Object> freshDetails = join(detailsFetch);
+                
+                if (freshDetails.containsKey("error")) {
+                    return new Outcome(HttpStatus.INTERNAL_SERVER_ERROR,
+                            Map.of("error", "Failed to fetch product details: " + freshDetails.get("error")));
+                }
+                
+                rawJson = objectMapper.writeValueAsString(freshDetails);
+                // Save to cache for future use; mock or stale fallback details are only used for this analysis
+                if (ProductService.isFreshDetails(freshDetails)) {
+                    RawCacheDTO dto = new RawCacheDTO();
+                    dto.setProductId(productId);
+                    dto.setRawJson(rawJson);
+                    productService.saveRawCache(dto);
+                } else {
+                    log.warn("Not caching fallback details for {}", productId);
+                }
+            } else {
+                log.info("Using cached data for {}", productId);
+            }
+
+            // Started only for good details; any early return below cancels it between pages
+            CompletableFuture<List<Map<String, Object>>> reviewsFetch = CompletableFuture.supplyAsync(
+                    () -> productService.fetchProductReviews(productId, RequestPriority.INTERACTIVE,
+                            reviewsCancelled::get),
+                    outboundExecutor);
+
+            // 2️⃣ Send raw → AI Engine (or local processing if AI disabled)
+            stages.enter(Stage.AI);
+            Map<String, Object> structured =
+                    productService.sendRawToAiAndGetStructured(rawJson);
+            
+            if (structured == null || structured.isEmpty()) {
+                log.error("AI service returned null or empty structured data");
+                return new Outcome(HttpStatus.INTERNAL_SERVER_ERROR,
+                        Map.of("error", "Failed to process product data"));
+            }
+            
+            // AI bulkhead full: nothing is saved, the client may retry shortly
+            if ("AI_SERVICE_BUSY".equals(structured.get("error"))) {
+                return new Outcome(HttpStatus.SERVICE_UNAVAILABLE,
+                        Map.of(
+                            "error", "AI service busy",
+                            "message", structured.getOrDefault("message", "Try again shortly")
+                        ));
+            }
+
+            // Check if the structured data contains an error before proceeding
+            if (structured.containsKey("error") && structured.get("error").equals("PROCESSING_FAILED")) {
+                log.error("Processing failed: {}", structured.get("message"));
+                return new Outcome(HttpStatus.INTERNAL_SERVER_ERROR,
+                        Map.of(
+                            "error", "Processing failed",
+                            "message", structured.getOrDefault("message", "Unable to process product data")
+                        ));
+            }
+            
+            log.info("Structured data received: {}", structured.keySet());
+            
+            // Validate that the analyzed product matches the requested ASIN
+            Object rawObj = structured.get("raw");
+            if (rawObj instanceof Map) {
+                Map<String, Object> rawData = (Map<String, Object>) rawObj;
+                String actualAsin = (String) rawData.get("asin");
+                if (actualAsin != null && !actualAsin.equals(productId)) {
+                    log.warn("ASIN mismatch: requested={}, got={}", productId, actualAsin);
+                    return new Outcome(HttpStatus.INTERNAL_SERVER_ERROR,
+                            Map.of(
+                                "error", "Product mismatch detected",
+                                "message", "The analyzed product (" + actualAsin + ") does not match the requested product (" + productId + ")"
+                            ));
+                }
+            }
+
+            // 3️⃣ Save the structured product to database
+            stages.enter(Stage.PERSIST_PRODUCT);
+            log.info("Saving product with structured data. Title: {}, Brand: {}, Price: {}, ImageURL: {}", 
+                structured.get("title"), structured.get("brand"), structured.get("price"), structured.get("imageUrl"));
+            
+            Product savedProduct = productService.processAndSaveProduct(productId, structured, rawJson, join(reviewsFetch));
+            
+            if (savedProduct == null) {
+                log.error("Failed to save product");
+                return new Outcome(HttpStatus.INTERNAL_SERVER_ERROR,
+                        Map.of("error", "Failed to save product"));
+            }
+            
+            log.info("Product saved successfully. Name: {}, Brand: {}, Price: {}, ImageURL: {}", 
+                savedProduct.getProductName(), savedProduct.getBrand(), 
+                savedProduct.getLastPrice(), savedProduct.getImageUrl());
+
+            // 4️⃣ Create and save analysis result
+            stages.enter(Stage.KEY_FEATURES);
+            int totalScore = 75; // Default score
+            String verdict = "BUY";
+            String summary = "Product analysis completed";
+            String pros = "[]";
+            String cons = "[]";
+            
+            // Extract scores from AI response if available
+            if (structured.containsKey("overall_score")) {
+                Object scoreObj = structured.get("overall_score");
+                if (scoreObj instanceof Number) {
+                    double score = ((Number) scoreObj).doubleValue();
+                    totalScore = (int) (score * 100); // Convert 0-1 to 0-100
+                }
+            }
+            
+            if (structured.containsKey("decision")) {
+                String decision = structured.get("decision").toString();
+                verdict = decision.equals("BUY") ? "BUY" : "NOT_BUY";
+            }
+            
+            if (structured.containsKey("reason")) {
+                summary = structured.get("reason").toString();
+            }
+            
+            // 🔧 ENHANCED: Extract pros and cons from AI response with better fallback
+            try {
+                log.info("🔍 Checking for pros/cons in AI response. Available keys: {}", structured.keySet());
+                
+                if (structured.containsKey("pros")) {
+                    Object prosObj = structured.get("pros");
+                    log.info("✓ Found 'pros' field: {} (type: {})", prosObj, prosObj.getClass().getSimpleName());
+                    
+                    if (prosObj instanceof List && !((List<?>) prosObj).isEmpty()) {
+                        pros = objectMapper.writeValueAsString(prosObj);
+                        log.info("✓ Serialized pros: {}", pros);
+                    } else if (prosObj instanceof String && !((String) prosObj).isEmpty()) {
+                        pros = (String) prosObj;
+                        log.info("✓ Used string pros: {}", pros);
+                    } else {
+                        log.warn("⚠ Pros field is empty or unexpected type");
+                        pros = "[\"Good product features\"]"; // Default fallback
+                    }
+                } else {
+                    log.warn("⚠ No 'pros' field in AI response, using default");
+                    pros = "[\"Product features are satisfactory\"]";
+                }
+                
+                if (structured.containsKey("cons")) {
+                    Object consObj = structured.get("cons");
+                    log.info("✓ Found 'cons' field: {} (type: {})", consObj, consObj.getClass().getSimpleName());
+                    
+                    if (consObj instanceof List && !((List<?>) consObj).isEmpty()) {
+                        cons = objectMapper.writeValueAsString(consObj);
+                        log.info("✓ Serialized cons: {}", cons);
+                    } else if (consObj instanceof String && !((String) consObj).isEmpty()) {
+                        cons = (String) consObj;
+                        log.info("✓ Used string cons: {}", cons);
+                    } else {
+                        log.warn("⚠ Cons field is empty or unexpected type");
+                        cons = "[\"No major issues found\"]"; // Default fallback
+                    }
+                } else {
+                    log.warn("⚠ No 'cons' field in AI response, using default");
+                    cons = "[\"Limited information available\"]";
+                }
+            } catch (Exception e) {
+                log.error("❌ Failed to extract pros/cons: {}", e.getMessage(), e);
+                pros = "[\"Unable to extract pros\"]";
+                cons = "[\"Unable to extract cons\"]";
+            }
+            
+            // 🔧 ENHANCED: Extract key_features from AI response with comprehensive fallback
+            String keyFeatures = null;
+            try {
+                log.info("🔍 Checking for key_features in AI response. Available keys: {}", structured.keySet());
+                
+                if (structured.containsKey("key_features")) {
+                    Object kfObj = structured.get("key_features");
+                    log.info("✓ Found 'key_features' field: {} (type: {})", kfObj, kfObj.getClass().getSimpleName());
+                    
+                    if (kfObj instanceof Map && !((Map<?, ?>) kfObj).isEmpty()) {
+                        keyFeatures = objectMapper.writeValueAsString(kfObj);
+                        log.info("✓ Serialized key_features: {}", keyFeatures);
+                    } else if (kfObj instanceof String) {
+                        keyFeatures = (String) kfObj;
+                        log.info("✓ Used string key_features: {}", keyFeatures);
+                    }
+                } else if (structured.containsKey("keyFeatures")) {
+                    Object kfObj = structured.get("keyFeatures");
+                    log.info("✓ Found 'keyFeatures' field: {} (type: {})", kfObj, kfObj.getClass().getSimpleName());
+                    
+                    if (kfObj instanceof Map && !((Map<?, ?>) kfObj).isEmpty()) {
+                        keyFeatures = objectMapper.writeValueAsString(kfObj);
+                        log.info("✓ Serialized keyFeatures: {}", keyFeatures);
+                    }
+                }
+                
+                // Fallback: Extract from product specs if AI didn't provide
+                if (keyFeatures == null || keyFeatures.equals("null")) {
+                    log.info("⚠ No key_features from AI, extracting from product specs...");
+                    Map<String, Object> specs = savedProduct.getSpecification();
+                    
+                    if (specs != null && !specs.isEmpty()) {
+                        Map<String, String> extractedFeatures = new HashMap<>();
+                        
+                        // Try to extract from raw data if available
+                        Object specRawObj = specs.get("raw");
+                        Map<String, Object> rawData = (specRawObj instanceof Map) ? (Map<String, Object>) specRawObj : specs;
+                        
+                        // Common product specifications
+                        String[] specKeys = {"RAM", "Storage", "Battery", "Display", "Screen Size", 
+                                           "Processor", "CPU", "Camera", "OS", "Operating System",
+                                           "Weight", "Color", "Warranty", "Brand"};
+                        
+                        for (String key : specKeys) {
+                            if (rawData.containsKey(key) && rawData.get(key) != null) {
+                                extractedFeatures.put(key, rawData.get(key).toString());
+                            }
+                            // Try lowercase
+                            String lowerKey = key.toLowerCase();
+                            if (rawData.containsKey(lowerKey) && rawData.get(lowerKey) != null) {
+                                extractedFeatures.put(key, rawData.get(lowerKey).toString());
+                            }
+                        }
+                        
+                        // Add brand and price as key features
+                        if (savedProduct.getBrand() != null) {
+                            extractedFeatures.put("Brand", savedProduct.getBrand());
+                        }
+                        if (savedProduct.getLastPrice() != null) {
+                            extractedFeatures.put("Price", "₹" + savedProduct.getLastPrice());
+                        }
+                        
+                        if (!extractedFeatures.isEmpty()) {
+                            keyFeatures = objectMapper.writeValueAsString(extractedFeatures);
+                            log.info("✓ Created key_features from specs: {}", keyFeatures);
+                        } else {
+                            // Last resort: create minimal features
+                            Map<String, String> minimalFeatures = new HashMap<>();
+                            minimalFeatures.put("Product", savedProduct.getProductName());
+                            minimalFeatures.put("Brand", savedProduct.getBrand() != null ? savedProduct.getBrand() : "N/A");
+                            if (savedProduct.getLastPrice() != null) {
+                                minimalFeatures.put("Price", "₹" + savedProduct.getLastPrice());
+                            }
+                            keyFeatures = objectMapper.writeValueAsString(minimalFeatures);
+                            log.info("⚠ Created minimal key_features: {}", keyFeatures);
+                        }
+                    } else {
+                        log.warn("⚠ No specs available, creating basic key_features");
+                        Map<String, String> basicFeatures = new HashMap<>();
+                        basicFeatures.put("Product", savedProduct.getProductName());
+                        basicFeatures.put("Brand", savedProduct.getBrand() != null ? savedProduct.getBrand() : "N/A");
+                        keyFeatures = objectMapper.writeValueAsString(basicFeatures);
+                    }
+                } else {
+                    log.info("✓ Key features successfully extracted from AI response");
+                }
+            } catch (Exception e) {
+                log.error("❌ Failed to extract key_features: {}", e.getMessage(), e);
+                // Final fallback
+                try {
+                    Map<String, String> errorFallback = new HashMap<>();
+                    errorFallback.put("Product", savedProduct.getProductName());
+                    errorFallback.put("Status", "Features extraction failed");
+                    keyFeatures = objectMapper.writeValueAsString(errorFallback);
+                } catch (Exception ex) {
+                    keyFeatures = "{\"error\":\"Unable to extract features\"}";
+                }
+            }
+            
+            // 🔧 Create and save analysis result with comprehensive logging
+            AnalysisResult analysisResult = new AnalysisResult();
+            analysisResult.setProduct(savedProduct);
+            analysisResult.setUser(user); // Can be null for anonymous users
+            analysisResult.setTotalScore(totalScore);
+            analysisResult.setOverallScore(totalScore);
+            analysisResult.setVerdict(verdict);
+            analysisResult.setSummary(summary);
+            analysisResult.setPros(pros);
+            analysisResult.setCons(cons);
+            analysisResult.setKeyFeatures(keyFeatures);
+            analysisResult.setContentHash(savedProduct.getContentHash());
+            
+            // 📊 Log what we're about to save
+            log.info("═══════════════════════════════════════════════════════");
+            log.info("📝 ANALYSIS RESULT TO BE SAVED:");
+            log.info("  Product ID: {}", savedProduct.getId());
+            log.info("  Product Name: {}", savedProduct.getProductName());
+            log.info("  User ID: {}", user != null ? user.getId() : "NULL (anonymous)");
+            log.info("  User Email: {}", user != null ? user.getEmail() : "N/A");
+            log.info("  Total Score: {}", totalScore);
+            log.info("  Verdict: {}", verdict);
+            log.info("  Summary Length: {} chars", summary != null ? summary.length() : 0);
+            log.info("  Pros: {}", pros != null && pros.length() > 50 ? pros.substring(0, 50) + "..." : pros);
+            log.info("  Cons: {}", cons != null && cons.length() > 50 ? cons.substring(0, 50) + "..." : cons);
+            log.info("  Key Features: {}", keyFeatures != null && keyFeatures.length() > 100 ? keyFeatures.substring(0, 100) + "..." : keyFeatures);
+            log.info("═══════════════════════════════════════════════════════");
+            
+            // Save to database
+            stages.enter(Stage.PERSIST_ANALYSIS);
+            analysisResult = analysisService.saveAnalysisResult(analysisResult);
+            
+            // 📊 Log what was actually saved
+            log.info("═══════════════════════════════════════════════════════");
+            log.info("✅ ANALYSIS RESULT SAVED SUCCESSFULLY:");
+            log.info("  Analysis ID: {}", analysisResult.getId());
+            log.info("  Product ID (in DB): {}", analysisResult.getProduct() != null ? analysisResult.getProduct().getId() : "NULL");
+            log.info("  User ID (in DB): {}", analysisResult.getUser() != null ? analysisResult.getUser().getId() : "NULL");
+            log.info("  Key Features (in DB): {}", analysisResult.getKeyFeatures() != null ? "SET" : "NULL");
+            log.info("  Pros (in DB): {}", analysisResult.getPros() != null ? "SET" : "NULL");
+            log.info("  Cons (in DB): {}", analysisResult.getCons() != null ? "SET" : "NULL");
+            log.info("═══════════════════════════════════════════════════════");
+
+            // 🔧 FIX 3: Save search history for this analysis
+            stages.enter(Stage.SEARCH_HISTORY);
+            try {
+                if (user != null) {
+                    searchHistoryService.saveSearch(user, productName != null ? productName : savedProduct.getProductName(), productId);
+                    log.info("Search history saved for user: {} analyzing product: {}", user.getEmail(), productId);
+                } else {
+                    log.info("Skipping search history for anonymous user");
+                }
+            } catch (Exception e) {
+                log.error("Failed to save search history: {}", e.getMessage());
+                // Don't fail the whole request if search history fails
+            }
+
+            // 5️⃣ Return analysis result with analysis ID
+            Map<String, Object> response = new HashMap<>();
+            response.put("id", analysisResult.getId().toString());
+            response.put("productId", savedProduct.getProductId());
+            response.put("message", "Analysis completed successfully");
+            response.put("overallScore", totalScore);
+            response.put("verdict", verdict);
+            response.put("data", structured);
+            
+            return Outcome.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request: {}", e.getMessage());
+            return new Outcome(HttpStatus.BAD_REQUEST,
+                    Map.of(
+                        "error", "Invalid request",
+                        "message", e.getMessage()
+                    ));
+        } catch (Exception e) {
+            log.error("Error analyzing product: {}", e.getMessage(), e);
+            return new Outcome(HttpStatus.INTERNAL_SERVER_ERROR,
+                    Map.of(
+                        "error", "Analysis failed",
+                        "message", e.getMessage() != null ? e.getMessage() : "An unexpected error occurred",
+                        "type", e.getClass().getSimpleName()
+                    ));
+        } finally {
+            // No-op once the reviews were consumed
+            reviewsCancelled.set(true);
+            stages.finish();
+        }
+    }
+
+    // Analyses from before content hashing, or of products without a hash, stay valid
+    private boolean matchesCurrentContent(AnalysisResult analysis) {
+        Product product = analysis.getProduct();
+        if (analysis.getContentHash() == null || product == null || product.getContentHash() == null) {
+            return true;
+        }
+        boolean current = analysis.getContentHash().equals(product.getContentHash());
+        if (!current) {
+            log.info("Product {} changed since analysis {}, re-analyzing", product.getProductId(), analysis.getId());
+        }
+        return current;
+    }
+    // Unwraps the CompletionException of a failed lookup so the original error is reported
+    private static <T> T join(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    @Override
+    public Map<String, Object> getStageStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            stats.put(stage.name().toLowerCase(Locale.ROOT), stageLatency.get(stage).stats());
+        }
+        return stats;
+    }
+
+    // Times the stage in progress and reports each new one to the listener
+    private final class StageClock {
+
+        private final Consumer<Stage> listener;
+        private Stage current;
+        private long startedAt;
+
+        StageClock(Consumer<Stage> listener) {
+            this.listener = listener;
+        }
+
+        void enter(Stage stage) {
+            finish();
+            current = stage;
+            startedAt = System.nanoTime();
+            listener.accept(stage);
+        }
+
+        void finish() {
+            if (current != null) {
+                stageLatency.get(current).recordSince(startedAt);
+                current = null;
+            }
+        }
+    }
+}
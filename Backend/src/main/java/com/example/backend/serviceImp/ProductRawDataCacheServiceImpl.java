@@ -1,16 +1,22 @@
 package com.example.backend.serviceImp;
 
+import com.example.backend.cache.RawCacheAccessTracker;
+import com.example.backend.cache.RawCacheSweeper;
+import com.example.backend.cache.RawSegmentStore;
+import com.example.backend.cache.RawDataL1Cache;
 import com.example.backend.entity.Product;
 import com.example.backend.entity.ProductRawDataCache;
+import com.example.backend.entity.ProductRawSegment;
 import com.example.backend.repository.ProductRawDataCacheRepository;
 import com.example.backend.service.ProductRawDataCacheService;
+import com.example.backend.util.RawSegments;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -21,56 +27,83 @@ public class ProductRawDataCacheServiceImpl implements ProductRawDataCacheServic
 
     private final ProductRawDataCacheRepository cacheRepository;
     private final ObjectMapper objectMapper;
+    private final RawDataL1Cache rawDataL1Cache;
+    private final RawCacheSweeper rawCacheSweeper;
+    private final RawCacheAccessTracker rawCacheAccessTracker;
+    private final RawSegmentStore rawSegmentStore;
 
     @Override
     public ProductRawDataCache saveRawCache(Product product, String rawJson) {
+        Map<String, Object> document;
         try {
-            // Convert JSON string → Map<String, Object>
-            Map<String, Object> jsonMap = objectMapper.readValue(rawJson, Map.class);
-
-            ProductRawDataCache cache = new ProductRawDataCache();
-            cache.setExternalProductId(product.getProductId());
-            cache.setProduct(product);
-            cache.setRawJson(jsonMap);  // <-- fixed ✔
-            cache.setCachedAt(LocalDateTime.now());
-            cache.setExpiryAt(LocalDateTime.now().plusDays(1));
-
-            return cacheRepository.save(cache);
-
+            document = objectMapper.readValue(rawJson, new TypeReference<Map<String, Object>>() {});
         } catch (Exception e) {
             throw new RuntimeException("Failed to parse raw JSON into Map", e);
         }
+        // Upsert links the row to the product by its ASIN
+        return save(product.getProductId(), document);
     }
 
 
     @Override
     public ProductRawDataCache saveRawCache(String externalProductId, String rawJson) {
-        Map<String, Object> jsonMap;
-
+        Map<String, Object> document;
         try {
-            jsonMap = objectMapper.readValue(rawJson, Map.class);
+            document = objectMapper.readValue(rawJson, new TypeReference<Map<String, Object>>() {});
         } catch (Exception e) {
             // Fallback storage
-            jsonMap = Map.of("rawString", rawJson);
+            document = Map.of("rawString", String.valueOf(rawJson));
         }
+        return save(externalProductId, document);
+    }
+
+    // Stores the document in segments (see RawSegmentStore) and describes it as one cache row
+    private ProductRawDataCache save(String externalProductId, Map<String, Object> document) {
+        RawSegmentStore.DetailsWrite written = rawSegmentStore.writeDetails(externalProductId, document);
 
         ProductRawDataCache cache = new ProductRawDataCache();
+        cache.setId(written.stable() != null ? written.stable().id() : null);
         cache.setExternalProductId(externalProductId);
-        cache.setRawJson(jsonMap);
-        cache.setCachedAt(LocalDateTime.now());
-        cache.setExpiryAt(LocalDateTime.now().plusDays(1));
-
-        return cacheRepository.save(cache);
+        cache.setRawJson(document);
+        cache.setCachedAt(written.price().cachedAt());
+        cache.setExpiryAt(written.price().expiryAt());
+        return cache;
     }
 
 
     @Override
     public Optional<ProductRawDataCache> getLatestValidCache(String externalProductId) {
-        return cacheRepository
+        rawCacheAccessTracker.recordAccess(externalProductId);
+
+        Optional<ProductRawDataCache> stable = latestValidStable(externalProductId);
+        if (stable.isEmpty()) {
+            return Optional.empty();
+        }
+        // Valid only together with a fresh price, same as ProductService.getRawCache
+        return rawSegmentStore.find(externalProductId, ProductRawSegment.Segment.PRICE)
+                .map(price -> {
+                    ProductRawDataCache cache = stable.get();
+                    cache.setRawJson(RawSegments.merge(cache.getRawJson(), price.toMap()));
+                    return cache;
+                });
+    }
+
+    private Optional<ProductRawDataCache> latestValidStable(String externalProductId) {
+        Optional<RawDataL1Cache.Entry> l1Hit = rawDataL1Cache.get(externalProductId);
+        if (l1Hit.isPresent()) {
+            return Optional.of(l1Hit.get().toEntity());
+        }
+
+        Optional<ProductRawDataCache> cache = cacheRepository
                 .findFirstByExternalProductIdAndExpiryAtAfterOrderByCachedAtDesc(
                         externalProductId,
                         LocalDateTime.now()
                 );
+        // Hand out the decoded snapshot, so binary-stored rows expose rawJson too
+        return cache.map(row -> {
+            RawDataL1Cache.Entry entry = rawDataL1Cache.put(row);
+            return entry != null ? entry.toEntity() : row;
+        });
     }
 
     @Override
@@ -79,11 +112,7 @@ public class ProductRawDataCacheServiceImpl implements ProductRawDataCacheServic
     }
 
     @Override
-    public void deleteExpiredCache() {
-        LocalDateTime now = LocalDateTime.now();
-        List<ProductRawDataCache> all = cacheRepository.findAll();
-        all.stream()
-                .filter(c -> c.getExpiryAt() != null && c.getExpiryAt().isBefore(now))
-                .forEach(cacheRepository::delete);
+    public int deleteExpiredCache() {
+        return rawCacheSweeper.sweep();
     }
 }
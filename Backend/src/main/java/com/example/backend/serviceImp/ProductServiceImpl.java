@@ -2,33 +2,65 @@
 package com.example.backend.serviceImp;
 
 import com.example.backend.DTO.cache.RawCacheDTO;
+import com.example.backend.cache.AiResultCache;
+import com.example.backend.cache.NegativeResultCache;
+import com.example.backend.cache.RawCacheAccessTracker;
+import com.example.backend.cache.RawCacheStorage;
+import com.example.backend.cache.RawCacheWriter;
+import com.example.backend.cache.RawSegmentStore;
+import com.example.backend.cache.ReviewStore;
+import com.example.backend.cache.RawDataL1Cache;
+import com.example.backend.cache.SearchResultCache;
+import com.example.backend.client.AiPayloadProjector;
+import com.example.backend.client.AiServiceBusyException;
+import com.example.backend.client.AiServiceClient;
+import com.example.backend.client.CircuitOpenException;
+import com.example.backend.client.ProductDetailsParser;
+import com.example.backend.client.QuotaExceededException;
+import com.example.backend.client.RapidApiClient;
+import com.example.backend.client.RapidApiException;
+import com.example.backend.client.RapidApiResponse;
+import com.example.backend.client.RequestPriority;
 import com.example.backend.entity.Product;
 import com.example.backend.entity.ProductRawDataCache;
+import com.example.backend.entity.ProductRawSegment;
 import com.example.backend.repository.ProductRawDataCacheRepository;
 import com.example.backend.repository.ProductRepository;
 import com.example.backend.service.PriceHistoryService;
 import com.example.backend.service.ProductService;
+import com.example.backend.util.BrandMatcher;
+import com.example.backend.util.ContentHash;
+import com.example.backend.util.NumericExtractor;
+import com.example.backend.util.RawJson;
+import com.example.backend.util.RawPayload;
+import com.example.backend.util.RawSegments;
+import com.example.backend.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
 
 
 @Service
@@ -36,35 +68,54 @@ import org.springframework.web.client.RestTemplate;
 @Slf4j
 public class ProductServiceImpl implements ProductService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-
-
+    private final AiServiceClient aiServiceClient;
+    private final AiPayloadProjector aiPayloadProjector;
     private final PriceHistoryService priceHistoryService;
-    @Value("${rapidkey}")
-    private String rapidApiKey;
-
-    @Value("${rapidhost}")
-    private String rapidApiHost;
+    private final RapidApiClient rapidApiClient;
+    private final SearchResultCache searchResultCache;
 
     @Value("${apifykey}")
     private String apifyApiKey;
 
-
-    @Value("${rapidurl}")
-    private String rapidApiBaseUrl;
-
     @Value("${ai.enabled:false}")
     private boolean aiEnabled;
 
-    @Value("${aiserviceurl}")
-    private String aiServiceUrl;
-
 
 
 
     private final ProductRepository productRepository;
     private final ObjectMapper objectMapper;
     private final ProductRawDataCacheRepository productRawDataCacheRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService outboundExecutor;
+    private final BrandMatcher brandMatcher;
+    private final RawDataL1Cache rawDataL1Cache;
+    private final RawCacheStorage rawCacheStorage;
+    private final RawCacheAccessTracker rawCacheAccessTracker;
+    private final RawCacheWriter rawCacheWriter;
+    private final RawSegmentStore rawSegmentStore;
+    private final ReviewStore reviewStore;
+    private final NegativeResultCache negativeResultCache;
+    private final AiResultCache aiResultCache;
+
+    // Review ingestion: pages per star-rating slice, unique-review target, concurrent slices
+    @Value("${rapidapi.reviews.pages:1}")
+    private int reviewPages;
+
+    @Value("${rapidapi.reviews.star-ratings:ALL}")
+    private List<String> reviewStarSlices;
+
+    @Value("${rapidapi.reviews.target-sample:100}")
+    private int reviewTargetSample;
+
+    @Value("${rapidapi.reviews.max-parallel:2}")
+    private int reviewMaxParallel;
+
+    // Concurrent fetchProductDetails calls for the same ASIN share one upstream request (see DetailsLoad)
+    private final SingleFlight<String, DetailsLoad> detailsFlights = new SingleFlight<>();
+
+    private final LongAdder productWrites = new LongAdder();
+    private final LongAdder productWritesSkipped = new LongAdder();
 
     @Override
     public Optional<Product> findByProductId(String productId) {
@@ -72,6 +123,14 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findByProductId(productId);
     }
 
+    @Override
+    public List<Product> findByProductIds(Collection<String> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return List.of();
+        }
+        return productRepository.findByProductIdIn(productIds);
+    }
+
     @Override
     public boolean existsByProductId(String productId) {
         if (productId == null || productId.isBlank()) {
@@ -83,86 +142,86 @@ public class ProductServiceImpl implements ProductService {
 
 
     @Override
-    @Transactional
     public void saveRawCache(RawCacheDTO dto) {
 
         log.info("💾 Saving raw cache for productId: {}", dto.getProductId());
 
-        // 1️⃣ Convert JSON STRING → Map
-        Map<String, Object> rawMap;
+        // Atomic upserts (see RawCacheWriter); the price segment is always rewritten,
+        // the stable document only when it is about to expire (see RawSegmentStore)
+        RawSegmentStore.DetailsWrite written;
         try {
-            rawMap = objectMapper.readValue(dto.getRawJson(), new TypeReference<Map<String, Object>>() {});
-        } catch (Exception e) {
+            Map<String, Object> document =
+                    objectMapper.readValue(dto.getRawJson(), new TypeReference<Map<String, Object>>() {});
+            written = rawSegmentStore.writeDetails(dto.getProductId(), document);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
             log.error("Failed to parse raw JSON for productId {}", dto.getProductId(), e);
             throw new RuntimeException("Invalid raw JSON format");
-        }
-
-        // 2️⃣ Find existing cache by external_product_id - CRITICAL to prevent duplicates
-        Optional<ProductRawDataCache> existingOpt =
-                productRawDataCacheRepository.findByExternalProductId(dto.getProductId());
-
-        ProductRawDataCache cache;
-        
-        if (existingOpt.isPresent()) {
-            // UPDATE existing cache - this prevents duplicate records
-            cache = existingOpt.get();
-            log.info("✓ Found existing cache entry (Cache ID: {}, Product ID: {}). UPDATING existing record...", 
-                    cache.getId(), dto.getProductId());
-        } else {
-            // CREATE new cache entry ONLY if none exists
-            cache = new ProductRawDataCache();
-            cache.setExternalProductId(dto.getProductId());
-            log.info("✓ Creating NEW cache entry for product: {}", dto.getProductId());
-        }
-
-        // 3️⃣ Set/Update fields - Reviews are stored in rawJson as part of the complete product data
-        cache.setRawJson(rawMap); // ✔ Stores ALL data including reviews as JSONB
-        cache.setCachedAt(LocalDateTime.now());
-        cache.setExpiryAt(LocalDateTime.now().plusHours(12)); // Set your cache expiry
-        
-        // 🔧 Link cache to product if it exists in database
-        Optional<Product> productOpt = productRepository.findByProductId(dto.getProductId());
-        if (productOpt.isPresent()) {
-            cache.setProduct(productOpt.get());
-            log.info("✓ Linked cache to product (Product DB ID: {})", productOpt.get().getId());
-        } else {
-            cache.setProduct(null);
-            log.info("⚠ Product not yet in DB. Cache saved without product_ref_id.");
-        }
-
-        // 4️⃣ Save/Update - Transaction ensures atomicity
-        try {
-            cache = productRawDataCacheRepository.save(cache);
-            log.info("✅ Cache saved successfully - ONE RECORD per product (Cache ID: {}, External Product ID: {}, Expires: {})",
-                    cache.getId(), dto.getProductId(), cache.getExpiryAt());
-        } catch (org.springframework.dao.DataIntegrityViolationException e) {
-            // Handle unique constraint violation - should not happen with our check above
-            log.error("❌ DUPLICATE KEY ERROR for productId {}. This indicates a race condition.", dto.getProductId());
-            // Retry by fetching again
-            existingOpt = productRawDataCacheRepository.findByExternalProductId(dto.getProductId());
-            if (existingOpt.isPresent()) {
-                cache = existingOpt.get();
-                cache.setRawJson(rawMap);
-                cache.setCachedAt(LocalDateTime.now());
-                cache.setExpiryAt(LocalDateTime.now().plusHours(12));
-                cache = productRawDataCacheRepository.save(cache);
-                log.info("✅ Recovered from race condition - updated existing cache entry");
-            } else {
-                throw new RuntimeException("Failed to resolve duplicate key error", e);
-            }
         } catch (Exception e) {
             log.error("❌ Failed to save cache for productId {}: {}", dto.getProductId(), e.getMessage());
             throw new RuntimeException("Failed to save cache: " + e.getMessage(), e);
         }
+
+        log.info("✅ Cache saved for {} (price expires: {}, stable document {})", dto.getProductId(),
+                written.price().expiryAt(), written.stableWritten() ? "rewritten" : "kept");
     }
 
 
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public String getRawCache(String productId) {
+        Map<String, Object> document = getRawCacheData(productId);
+        if (document == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(document);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize raw cache for {}", productId, e);
+            return null;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRawCacheData(String productId) {
+        RawPayload stable = findValidRawPayload(productId);
+        if (stable == null) {
+            return null;
+        }
+        Optional<RawPayload> price = rawSegmentStore.find(productId, ProductRawSegment.Segment.PRICE);
+        if (price.isPresent()) {
+            return RawSegments.merge(stable.toMap(), price.get().toMap());
+        }
+        // Expired price: serve the still valid stable part with the last known price and let the
+        // refresher renew it, instead of refetching the whole document on every view
+        Optional<Map<String, Object>> lastPrice =
+                rawSegmentStore.findLastKnown(productId, ProductRawSegment.Segment.PRICE);
+        if (lastPrice.isEmpty()) {
+            log.info("No price segment for {}", productId);
+            return null;
+        }
+        log.info("Price segment expired for {}, serving last known price", productId);
+        rawCacheAccessTracker.markPriceStale(productId);
+        return RawSegments.merge(stable.toMap(), lastPrice.get());
+    }
+
+    // Valid raw cache payload (L1, then DB), still encoded; null → will trigger RapidAPI fetch
+    private RawPayload findValidRawPayload(String productId) {
 
         log.info("Fetching raw cache for productId: {}", productId);
+        rawCacheAccessTracker.recordAccess(productId); // drives refresh-ahead of hot entries
+
+        // 0️⃣ In-process L1 first
+        Optional<RawDataL1Cache.Entry> l1Hit = rawDataL1Cache.get(productId);
+        if (l1Hit.isPresent()) {
+            return l1Hit.get().payload();
+        }
+        // Written but not yet flushed by write-behind
+        Optional<RawPayload> pending = rawCacheWriter.pending(productId);
+        if (pending.isPresent()) {
+            return pending.get();
+        }
 
         // 1️⃣ Find raw cache entry in DB
         Optional<ProductRawDataCache> cacheOpt =
@@ -170,24 +229,26 @@ public class ProductServiceImpl implements ProductService {
 
         if (cacheOpt.isEmpty()) {
             log.info("No raw cache found for {}", productId);
-            return null; // → will trigger RapidAPI fetch
+            return null;
         }
 
         ProductRawDataCache cache = cacheOpt.get();
 
-        // 2️⃣ Check if expired
+        // 2️⃣ Expired rows are a miss; RawCacheSweeper deletes them in the background
         if (cache.getExpiryAt().isBefore(LocalDateTime.now())) {
-            log.info("Cache expired for {}. Deleting entry...", productId);
-            productRawDataCacheRepository.delete(cache);
-            return null; // → will trigger RapidAPI fetch again
+            log.info("Cache expired for {}", productId);
+            return null;
         }
 
-        // 3️⃣ Convert Map → JSON string
+        // 3️⃣ Keep the payload in L1; consumers decode only what they need
+        RawDataL1Cache.Entry entry = rawDataL1Cache.put(cache);
+        if (entry != null) {
+            return entry.payload();
+        }
         try {
-            return objectMapper.writeValueAsString(cache.getRawJson());
-            // ✔ Correct: writeValueAsString(Map)
+            return rawCacheStorage.payload(cache);
         } catch (Exception e) {
-            log.error("Failed to convert raw JSON map to string for {}", productId, e);
+            log.error("Failed to read raw cache payload for {}", productId, e);
             return null;
         }
     }
@@ -195,43 +256,38 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public List<String> searchAsins(String query) {
+        try {
+            return searchResultCache.get(query, this::requestAsins);
+        } catch (Exception e) {
+            log.error("Error searching ASINs for query '{}': {}", query, e.getMessage(), e);
+            log.warn("RapidAPI unavailable. Returning mock ASINs for demo purposes.");
+            return generateMockAsins(query);
+        }
+    }
 
-        String url = rapidApiBaseUrl + "/search"
-                + "?query=" + query.replace(" ", "%20")
-                + "&page=1&country=IN";
+    // Upstream /search call behind the query cache; failures throw so they are never cached
+    private SearchResultCache.Loaded requestAsins(String query, RequestPriority priority) {
 
-       
-        // String url = rapidApiBaseUrl + "/search"
-        //         + "?search=" + query.replace(" ", "%20")
-        //         + "&page=1&country=IN";
+        String params = "query=" + URLEncoder.encode(query, StandardCharsets.UTF_8)
+                + "&page=1&country=IN";
 
-        log.info("🔍 Searching products with query: '{}' at URL: {}", query, url);
-        log.info("Using RapidAPI key: {}...{}", rapidApiKey.substring(0, 10), rapidApiKey.substring(rapidApiKey.length() - 5));
+        log.info("🔍 Searching products with query: '{}' ({})", query, params);
 
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("x-rapidapi-key", rapidApiKey)
-                    .header("x-rapidapi-host", rapidApiHost)
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response =
-                    HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            RapidApiResponse response =
+                    rapidApiClient.get(RapidApiClient.Endpoint.SEARCH, params, priority);
 
             log.info("✓ Search API response status: {}", response.statusCode());
-            log.info("Search API response body (first 800 chars): {}", 
-                response.body().length() > 800 ? response.body().substring(0, 800) : response.body());
+            log.info("Search API response body (first 800 chars): {}", response.preview(800));
 
             if (response.statusCode() != 200) {
-                log.error("Search API returned status code: {}, body: {}", response.statusCode(), response.body());
+                log.error("Search API returned status code: {}, body: {}", response.statusCode(), response.preview(2000));
                 if (response.statusCode() == 429) {
                     log.error("RATE LIMIT EXCEEDED (429): You are making too many requests. Please wait before trying again.");
                 } else if (response.statusCode() == 403) {
                     log.error("API SUBSCRIPTION ISSUE (403): Please check your RapidAPI subscription and API key.");
                 }
-                log.warn("RapidAPI unavailable (status {}). Returning mock ASINs for demo purposes.", response.statusCode());
-                return generateMockAsins(query);
+                throw new RapidApiException(response.statusCode(), "Search API returned status " + response.statusCode());
             }
 
             Map<String, Object> json = objectMapper.readValue(response.body(), Map.class);
@@ -239,13 +295,13 @@ public class ProductServiceImpl implements ProductService {
             Map<String, Object> data = (Map<String, Object>) json.get("data");
             if (data == null) {
                 log.warn("No 'data' field in search response");
-                return List.of();
+                return new SearchResultCache.Loaded(List.of(), response.stale());
             }
 
             List<Map<String, Object>> products = (List<Map<String, Object>>) data.get("products");
             if (products == null || products.isEmpty()) {
                 log.warn("No products found in search response");
-                return List.of();
+                return new SearchResultCache.Loaded(List.of(), response.stale());
             }
 
             List<String> asins = new ArrayList<>();
@@ -259,13 +315,17 @@ public class ProductServiceImpl implements ProductService {
                 }
             }
 
-            log.info("Found {} products for query '{}': {}", asins.size(), query, asins);
-            return asins;
+            log.info("Found {} products for query '{}': {}{}", asins.size(), query, asins,
+                    response.stale() ? " (stale)" : "");
+            return new SearchResultCache.Loaded(asins, response.stale());
 
+        } catch (RapidApiException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RapidApiException("Search interrupted", e);
         } catch (Exception e) {
-            log.error("Error searching ASINs for query '{}': {}", query, e.getMessage(), e);
-            log.warn("Exception occurred. Returning mock ASINs for demo purposes.");
-            return generateMockAsins(query);
+            throw new RapidApiException("Search request failed: " + e.getMessage(), e);
         }
     }
 
@@ -286,75 +346,209 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Map<String, Object> fetchProductDetails(String asin) {
+        return fetchProductDetails(asin, RequestPriority.INTERACTIVE);
+    }
+
+    @Override
+    public Map<String, Object> fetchProductDetails(String asin, RequestPriority priority) {
+        return fetchProductDetails(asin, priority, true);
+    }
+
+    private Map<String, Object> fetchProductDetails(String asin, RequestPriority priority, boolean mayRetry) {
+        // Recently unknown or failing ASIN: answer from the negative cache, no upstream call
+        Optional<NegativeResultCache.Outcome> negative = negativeResultCache.get(asin);
+        if (negative.isPresent()) {
+            log.info("Negative cache hit ({}) for ASIN {}", negative.get(), asin);
+            return negative.get() == NegativeResultCache.Outcome.NOT_FOUND
+                    ? productNotFound(asin)
+                    : upstreamFailedFallback(asin);
+        }
+
+        boolean[] leader = {false};
+        DetailsLoad load = detailsFlights.execute(asin, () -> {
+            leader[0] = true;
+            return loadProductDetails(asin, priority);
+        }, () -> {
+            // Cancelled while waiting for another caller's fetch (e.g. a search past its deadline)
+            log.warn("Interrupted waiting for the in-flight fetch of ASIN: {}", asin);
+            return DetailsLoad.fallback(upstreamFailedFallback(asin));
+        });
+        if (leader[0]) {
+            return load.details();
+        }
+        // The leader was shed, interrupted or fell back at its own priority: try again at ours
+        // (through the negative cache, so a recorded upstream failure is not retried)
+        if (!load.upstreamAnswer() && mayRetry && !Thread.currentThread().isInterrupted()) {
+            log.info("Joined fetch for ASIN {} fell back; retrying at {} priority", asin, priority);
+            return fetchProductDetails(asin, priority, false);
+        }
+        // Callers that joined someone else's fetch get their own copy of the shared result
+        return deepCopy(load.details());
+    }
+
+    /**
+     * Result of one details load. Only an answer from the upstream (details, not found,
+     * no data) is shared with joined callers; a fallback depends on the leader's priority
+     * and interrupt state.
+     */
+    private record DetailsLoad(Map<String, Object> details, boolean upstreamAnswer) {
+
+        static DetailsLoad answer(Map<String, Object> details) {
+            return new DetailsLoad(details, true);
+        }
+
+        static DetailsLoad fallback(Map<String, Object> details) {
+            return new DetailsLoad(details, false);
+        }
+    }
+
+    // Maps and lists are copied at every level; leaf values (strings, numbers, RawJson) are immutable
+    @SuppressWarnings("unchecked")
+    private static <T> T deepCopy(T value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>(map.size());
+            map.forEach((k, v) -> copy.put(k, deepCopy(v)));
+            return (T) copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(v -> copy.add(deepCopy(v)));
+            return (T) copy;
+        }
+        return value;
+    }
+
+    @Override
+    public Map<String, Object> getCoalescingStats() {
+        return Map.of("productDetails", detailsFlights.stats());
+    }
+
+    @Override
+    public Map<String, Object> getProductWriteStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("written", productWrites.sum());
+        stats.put("skippedUnchanged", productWritesSkipped.sum());
+        return stats;
+    }
+
+    private DetailsLoad loadProductDetails(String asin, RequestPriority priority) {
         try {
-            String url = rapidApiBaseUrl
-                    + "/product-details"
-                    + "?asin=" + asin
+            String params = "asin=" + URLEncoder.encode(asin, StandardCharsets.UTF_8)
                     + "&country=IN";
 
-            // String url = rapidApiBaseUrl
-            //                 + "/details"
-            //                 + "?asin=" + asin
-            //                 + "&country=IN";
-
+            RapidApiResponse response =
+                    rapidApiClient.get(RapidApiClient.Endpoint.PRODUCT_DETAILS, params, priority);
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("x-rapidapi-key", rapidApiKey)
-                    .header("x-rapidapi-host", rapidApiHost)
-                    .header("User-Agent", "Mozilla/5.0")
-                    .GET()
-                    .build();
+            log.info("✓ Product details API response status for ASIN {}: {} ({} bytes{})",
+                asin, response.statusCode(), response.body().length, response.stale() ? ", stale" : "");
 
-            HttpResponse<String> response =
-                    HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 404) {
+                log.warn("ASIN {} not found upstream", asin);
+                negativeResultCache.record(asin, NegativeResultCache.Outcome.NOT_FOUND);
+                return DetailsLoad.answer(productNotFound(asin));
+            }
 
-            log.info("✓ Product details API response status for ASIN {}: {}", asin, response.statusCode());
-            log.info("Response body (first 500 chars): {}", 
-                response.body().length() > 500 ? response.body().substring(0, 500) : response.body());
-            
             if (response.statusCode() != 200) {
                 log.error("Failed to fetch details for ASIN {}. Status: {}, Body: {}", 
-                    asin, response.statusCode(), response.body());
+                    asin, response.statusCode(), response.preview(2000));
                 if (response.statusCode() == 429) {
                     log.error("RATE LIMIT EXCEEDED (429): Too many requests to RapidAPI.");
                 } else if (response.statusCode() == 403) {
                     log.error("API SUBSCRIPTION ISSUE (403): Check RapidAPI subscription.");
+                } else if (response.statusCode() >= 500) {
+                    // 429/403 concern the whole account (quota governor, circuit breaker), not this ASIN
+                    negativeResultCache.record(asin, NegativeResultCache.Outcome.UPSTREAM_FAILED);
                 }
                 log.warn("RapidAPI unavailable. Returning mock product data for ASIN: {}", asin);
-                return generateMockProductDetails(asin);
+                return DetailsLoad.fallback(generateMockProductDetails(asin));
             }
 
-            // Parse JSON
-            Map<String, Object> json = objectMapper.readValue(response.body(), Map.class);
-
-            Map<String, Object> data = (Map<String, Object>) json.get("data");
-            if (data == null) {
-                return Map.of("error", "No data", "raw", json);
+            // Single streaming pass: pick out the fields we need, keep "data" as compact bytes
+            ProductDetailsParser.Result data =
+                    ProductDetailsParser.parse(objectMapper.getFactory(), response.body());
+            if (data.data() == null) {
+                if (response.stale()) {
+                    return DetailsLoad.fallback(upstreamFailedFallback(asin));
+                }
+                negativeResultCache.record(asin, NegativeResultCache.Outcome.NOT_FOUND);
+                return DetailsLoad.answer(Map.of("error", "No data", "raw", new RawJson(response.body())));
+            }
+            // A stale last-good body says nothing about the upstream now
+            if (!response.stale()) {
+                negativeResultCache.clear(asin);
             }
 
             // Extract required information
             Map<String, Object> product = new LinkedHashMap<>();
 
+            Object title = data.field("product_title", "");
             product.put("asin", asin);
-            product.put("title", data.getOrDefault("product_title", ""));
-            product.put("price", extractPrice(data.get("product_price")));
-            product.put("imageUrl", data.getOrDefault("product_photo", ""));
-            product.put("productUrl", data.getOrDefault("product_url", ""));
-            product.put("brand", extractBrand(data.getOrDefault("product_title", "").toString()));
-            product.put("rating", extractRating(data.get("product_star_rating")));
-            product.put("reviewCount", extractReviewCount(data.get("product_num_ratings")));
-            product.put("raw", data); // save full specifications
+            product.put("title", title);
+            product.put("price", extractPrice(data.field("product_price")));
+            product.put("imageUrl", data.field("product_photo", ""));
+            product.put("productUrl", data.field("product_url", ""));
+            product.put("brand", extractBrand(title != null ? title.toString() : null));
+            product.put("rating", extractRating(data.field("product_star_rating")));
+            product.put("reviewCount", extractReviewCount(data.field("product_num_ratings")));
+            product.put("raw", data.data()); // save full specifications
 
             log.info("✓ Successfully extracted product: title='{}', brand='{}', price={}", 
                 product.get("title"), product.get("brand"), product.get("price"));
 
-            return product;
-
+            if (response.stale()) {
+                product.put(STALE_FIELD, true);
+                return DetailsLoad.fallback(product);
+            }
+            return DetailsLoad.answer(product);
+
+        } catch (CircuitOpenException e) {
+            // Fail fast: the upstream is known to be down, use whatever we stored last
+            log.warn("{}. Falling back for ASIN: {}", e.getMessage(), asin);
+            return DetailsLoad.fallback(upstreamFailedFallback(asin));
+        } catch (QuotaExceededException e) {
+            // Shed locally by the quota governor: nothing is known about this ASIN, so no negative entry
+            log.warn("{}. Falling back for ASIN: {}", e.getMessage(), asin);
+            return DetailsLoad.fallback(upstreamFailedFallback(asin));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted fetching details for ASIN: {}", asin);
+            return DetailsLoad.fallback(upstreamFailedFallback(asin));
         } catch (Exception e) {
             log.error("Error fetching product details for ASIN {}: {}", asin, e.getMessage());
             log.warn("Exception occurred. Returning mock product data for ASIN: {}", asin);
-            return generateMockProductDetails(asin);
+            negativeResultCache.record(asin, NegativeResultCache.Outcome.UPSTREAM_FAILED);
+            return DetailsLoad.fallback(generateMockProductDetails(asin));
+        }
+    }
+
+    private Map<String, Object> productNotFound(String asin) {
+        return Map.of("error", "Product not found", "asin", asin);
+    }
+
+    // Last cached details (marked stale) when we have them, mock data otherwise
+    private Map<String, Object> upstreamFailedFallback(String asin) {
+        Map<String, Object> cached = lastCachedProductDetails(asin);
+        if (cached != null) {
+            log.warn("Returning last cached details for ASIN: {}", asin);
+            cached.put(STALE_FIELD, true);
+            return cached;
+        }
+        log.warn("Returning mock product data for ASIN: {}", asin);
+        return generateMockProductDetails(asin);
+    }
+
+    // Raw cache document for the ASIN (with its last known price) regardless of expiry, or null
+    private Map<String, Object> lastCachedProductDetails(String asin) {
+        try {
+            return productRawDataCacheRepository.findByExternalProductId(asin)
+                    .map(rawCacheStorage::read)
+                    .map(stable -> rawSegmentStore.findLastKnown(asin, ProductRawSegment.Segment.PRICE)
+                            .map(price -> RawSegments.merge(stable, price))
+                            .orElseGet(() -> new LinkedHashMap<>(stable)))
+                    .orElse(null);
+        } catch (Exception e) {
+            log.warn("Failed to read last cached details for ASIN {}: {}", asin, e.getMessage());
+            return null;
         }
     }
 
@@ -388,21 +582,8 @@ public class ProductServiceImpl implements ProductService {
 //    Helper to fetchProductDetails
 //-------------------------------------------------------
     private String extractBrand(String title) {
-        if (title == null) return "Unknown Brand";
-
-        title = title.toLowerCase();
-
-        if (title.contains("iphone") || title.contains("apple")) return "Apple";
-        if (title.contains("samsung")) return "Samsung";
-        if (title.contains("oneplus")) return "OnePlus";
-        if (title.contains("vivo")) return "Vivo";
-        if (title.contains("oppo")) return "Oppo";
-        if (title.contains("xiaomi") || title.contains("redmi")) return "Xiaomi";
-        if (title.contains("asus")) return "Asus";
-        if (title.contains("realme")) return "Realme";
-        if (title.contains("motorola") || title.contains("moto")) return "Motorola";
-
-        return "Unknown Brand";
+        String brand = brandMatcher.match(title);
+        return brand != null ? brand : "Unknown Brand";
     }
 
     private Double extractPrice(Object priceObj) {
@@ -413,52 +594,43 @@ public class ProductServiceImpl implements ProductService {
             return ((Number) priceObj).doubleValue();
         }
         
-        String priceStr = priceObj.toString().trim();
-        // Remove currency symbols and extra text
-        priceStr = priceStr.replaceAll("[^0-9.,]", "");
-        // Remove commas
-        priceStr = priceStr.replace(",", "");
-        
-        try {
-            return Double.parseDouble(priceStr);
-        } catch (NumberFormatException e) {
+        // "₹1,29,999.00", "$12.99 - $19.99" -> first (lowest) price
+        double price = NumericExtractor.parsePrice(priceObj.toString());
+        if (Double.isNaN(price)) {
             log.warn("Failed to parse price: {}", priceObj);
             return 0.0;
         }
+        return price;
     }
 
     private Double extractRating(Object ratingObj) {
         if (ratingObj == null) return 0.0;
         
-        try {
-            if (ratingObj instanceof Number) {
-                return ((Number) ratingObj).doubleValue();
-            }
-            String ratingStr = ratingObj.toString().trim();
-            // Extract first number (e.g., "4.5 out of 5" -> 4.5)
-            ratingStr = ratingStr.replaceAll("[^0-9.]", "");
-            return Double.parseDouble(ratingStr);
-        } catch (Exception e) {
+        if (ratingObj instanceof Number) {
+            return ((Number) ratingObj).doubleValue();
+        }
+        // Extract first number (e.g., "4.5 out of 5" -> 4.5)
+        double rating = NumericExtractor.parseRating(ratingObj.toString());
+        if (Double.isNaN(rating)) {
             log.warn("Failed to parse rating: {}", ratingObj);
             return 0.0;
         }
+        return rating;
     }
 
     private Integer extractReviewCount(Object reviewObj) {
         if (reviewObj == null) return 0;
         
-        try {
-            if (reviewObj instanceof Number) {
-                return ((Number) reviewObj).intValue();
-            }
-            String reviewStr = reviewObj.toString().trim();
-            // Remove commas and non-numeric characters
-            reviewStr = reviewStr.replaceAll("[^0-9]", "");
-            return Integer.parseInt(reviewStr);
-        } catch (Exception e) {
+        if (reviewObj instanceof Number) {
+            return ((Number) reviewObj).intValue();
+        }
+        // "12,345 ratings", "1.2K ratings"
+        long count = NumericExtractor.parseCount(reviewObj.toString());
+        if (count < 0) {
             log.warn("Failed to parse review count: {}", reviewObj);
             return 0;
         }
+        return (int) Math.min(count, Integer.MAX_VALUE);
     }
 
 
@@ -466,43 +638,170 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public List<Map<String, Object>> fetchProductReviews(String asin) {
+        return fetchProductReviews(asin, RequestPriority.INTERACTIVE);
+    }
+
+    @Override
+    public List<Map<String, Object>> fetchProductReviews(String asin, RequestPriority priority) {
+        return fetchProductReviews(asin, priority, () -> false);
+    }
+
+    @Override
+    public List<Map<String, Object>> fetchProductReviews(String asin, RequestPriority priority,
+                                                         BooleanSupplier cancelled) {
+        // The product specification embeds the sample, so it is collected; target-sample bounds it
+        List<Map<String, Object>> reviews = new ArrayList<>();
+        ingestProductReviews(asin, priority, reviews::addAll, cancelled);
+        return reviews;
+    }
+
+    @Override
+    public int ingestProductReviews(String asin, RequestPriority priority,
+                                    Consumer<List<Map<String, Object>>> sink) {
+        return ingestProductReviews(asin, priority, sink, () -> false);
+    }
+
+    @Override
+    public int ingestProductReviews(String asin, RequestPriority priority,
+                                    Consumer<List<Map<String, Object>>> sink, BooleanSupplier cancelled) {
+
+        // Reviews change slowly; a cached sample is served as one batch
+        Optional<List<Map<String, Object>>> cached = cachedReviews(asin);
+        if (cached.isPresent()) {
+            sink.accept(cached.get());
+            return cached.get().size();
+        }
+
+        List<String> slices = reviewStarSlices.stream()
+                .map(String::trim)
+                .filter(slice -> !slice.isEmpty())
+                .distinct()
+                .toList();
+
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicBoolean targetReached = new AtomicBoolean(false);
+        AtomicBoolean pageFailed = new AtomicBoolean(false);
+        Semaphore permits = new Semaphore(Math.max(1, reviewMaxParallel));
+
+        // One task per star-rating slice; pages within a slice are read in order
+        List<CompletableFuture<Void>> tasks = slices.stream()
+                .map(slice -> CompletableFuture.runAsync(() -> {
+                    if (cancelled.getAsBoolean()) {
+                        return;
+                    }
+                    try {
+                        permits.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    try {
+                        for (int page = 1; page <= reviewPages && !targetReached.get(); page++) {
+                            if (cancelled.getAsBoolean()) {
+                                break;
+                            }
+                            List<Map<String, Object>> pageReviews = fetchReviewPage(asin, slice, page, priority);
+                            if (pageReviews == null) {
+                                pageFailed.set(true);
+                                break;
+                            }
+                            if (pageReviews.isEmpty()) {
+                                break; // no more pages in this slice
+                            }
+
+                            List<Map<String, Object>> fresh = new ArrayList<>();
+                            for (Map<String, Object> review : pageReviews) {
+                                if (!seen.add(ReviewStore.reviewKey(review))) {
+                                    continue;
+                                }
+                                int count = accepted.incrementAndGet();
+                                if (reviewTargetSample > 0 && count > reviewTargetSample) {
+                                    targetReached.set(true);
+                                    break;
+                                }
+                                fresh.add(review);
+                            }
+
+                            if (!fresh.isEmpty()) {
+                                // Stored as it arrives; beyond this page only the review keys stay in memory
+                                try {
+                                    reviewStore.append(asin, fresh);
+                                } catch (Exception e) {
+                                    log.warn("Failed to store reviews of ASIN {} ({} page {}): {}",
+                                            asin, slice, page, e.getMessage());
+                                    pageFailed.set(true);
+                                }
+                                synchronized (sink) {
+                                    sink.accept(fresh);
+                                }
+                            }
+                            if (reviewTargetSample > 0 && accepted.get() >= reviewTargetSample) {
+                                targetReached.set(true);
+                            }
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                }, outboundExecutor))
+                .toList();
+
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+
+        int total = reviewTargetSample > 0 ? Math.min(accepted.get(), reviewTargetSample) : accepted.get();
+        log.info("Ingested {} unique reviews for ASIN {} ({} slices x up to {} pages)",
+                total, asin, slices.size(), reviewPages);
+
+        // The REVIEWS segment marks a complete sample as servable from the review store
+        if (total > 0 && !pageFailed.get() && !cancelled.getAsBoolean()) {
+            try {
+                rawSegmentStore.write(asin, ProductRawSegment.Segment.REVIEWS, Map.of("count", total));
+            } catch (Exception e) {
+                log.warn("Failed to mark reviews of ASIN {} as cached: {}", asin, e.getMessage());
+            }
+        }
+        return total;
+    }
+
+    private Optional<List<Map<String, Object>>> cachedReviews(String asin) {
+        try {
+            Optional<RawPayload> marker = rawSegmentStore.find(asin, ProductRawSegment.Segment.REVIEWS);
+            if (marker.isEmpty()) {
+                return Optional.empty();
+            }
+            // Segments written before the review store held the sample themselves
+            if (marker.get().field("reviews") instanceof List<?> reviews) {
+                return Optional.of((List<Map<String, Object>>) reviews);
+            }
+            List<Map<String, Object>> stored = reviewStore.find(asin,
+                    reviewTargetSample > 0 ? reviewTargetSample : Integer.MAX_VALUE);
+            return stored.isEmpty() ? Optional.empty() : Optional.of(stored);
+        } catch (Exception e) {
+            log.warn("Failed to read cached reviews for ASIN {}: {}", asin, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Reviews of one page (empty past the last page), or null if the page could not be fetched
+    private List<Map<String, Object>> fetchReviewPage(String asin, String starRating, int page,
+                                                      RequestPriority priority) {
         try {
-            String url = rapidApiBaseUrl
-                    + "/product-reviews"
-                    + "?asin=" + asin
+            String params = "asin=" + URLEncoder.encode(asin, StandardCharsets.UTF_8)
                     + "&country=IN"
-                    + "&page=1"
+                    + "&page=" + page
                     + "&sort_by=TOP_REVIEWS"
-                    + "&star_rating=ALL"
+                    + "&star_rating=" + starRating
                     + "&verified_purchases_only=false"
                     + "&images_or_videos_only=false"
                     + "&current_format_only=false";
 
-            
-        // String url = rapidApiBaseUrl + "/amazon/products/reviews"
-        // + "?asin=" + asin;
-        // // + "&country=in"
-        // // + "&page=1"
-        // // + "&sort_by=TOP_REVIEWS"
-        // // + "&star_rating=ALL"
-        // // + "&verified_purchases_only=false"
-        // // + "&images_or_videos_only=false"
-        // // + "&current_format_only=false";
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("x-rapidapi-key", rapidApiKey)
-                    .header("x-rapidapi-host", rapidApiHost)
-                    .header("User-Agent", "Mozilla/5.0")
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response =
-                    HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            RapidApiResponse response =
+                    rapidApiClient.get(RapidApiClient.Endpoint.PRODUCT_REVIEWS, params, priority);
 
             if (response.statusCode() != 200) {
-                log.error("Failed to fetch reviews for ASIN {}: Status {}", asin, response.statusCode());
-                return List.of();
+                log.error("Failed to fetch reviews for ASIN {} ({} page {}): Status {}",
+                        asin, starRating, page, response.statusCode());
+                return null;
             }
 
             Map<String, Object> json = objectMapper.readValue(response.body(), Map.class);
@@ -516,8 +815,8 @@ public class ProductServiceImpl implements ProductService {
             return reviews;
 
         } catch (Exception e) {
-            log.error("Error fetching reviews for ASIN {}: {}", asin, e.getMessage());
-            return List.of();
+            log.error("Error fetching reviews for ASIN {} ({} page {}): {}", asin, starRating, page, e.getMessage());
+            return null;
         }
     }
 
@@ -568,13 +867,49 @@ public class ProductServiceImpl implements ProductService {
 
 
     @Override
-    @Transactional
     public Product processAndSaveProduct(String asin, Map<String, Object> details) {
 
         if (details == null || details.isEmpty()) {
             throw new RuntimeException("No product details found for ASIN: " + asin);
         }
 
+        // Upstream call happens before the transaction opens, so it never holds a DB connection
+        List<Map<String, Object>> reviews = fetchProductReviews(asin);
+        // details is the upstream document itself here
+        String contentHash = upstreamContentHash(details, reviews);
+        return transactionTemplate.execute(status -> saveProduct(asin, details, reviews, contentHash));
+    }
+
+    @Override
+    public Product processAndSaveProduct(String asin, Map<String, Object> details, String upstreamJson,
+                                         List<Map<String, Object>> reviews) {
+
+        if (details == null || details.isEmpty()) {
+            throw new RuntimeException("No product details found for ASIN: " + asin);
+        }
+
+        String contentHash = upstreamContentHash(new RawJson(upstreamJson.getBytes(StandardCharsets.UTF_8)), reviews);
+        // Writes only: one short transaction, no network I/O inside
+        return transactionTemplate.execute(status -> saveProduct(asin, details, reviews, contentHash));
+    }
+
+    /**
+     * Hash of what the upstream returned for a product (details document and reviews), the same
+     * whichever path saves it, so it changes only when the upstream content does. Reviews are
+     * hashed in review-key order, as concurrently fetched slices arrive in any order.
+     */
+    private String upstreamContentHash(Object upstreamDocument, List<Map<String, Object>> reviews) {
+        List<Map<String, Object>> sortedReviews = reviews != null ? new ArrayList<>(reviews) : new ArrayList<>();
+        sortedReviews.sort(Comparator.comparing(ReviewStore::reviewKey));
+        Map<String, Object> upstream = new LinkedHashMap<>();
+        upstream.put("document", upstreamDocument);
+        upstream.put("reviews", sortedReviews);
+        return ContentHash.of(upstream);
+    }
+
+    private Product saveProduct(String asin, Map<String, Object> details,
+                                List<Map<String, Object>> reviews, String contentHash) {
+
         // -------------------------
         // Extract basic fields
         // -------------------------
@@ -611,9 +946,8 @@ public class ProductServiceImpl implements ProductService {
         Map<String, Object> specs = new LinkedHashMap<>(details);
 
         // -------------------------
-        // Fetch Reviews & Merge
+        // Merge Reviews
         // -------------------------
-        List<Map<String, Object>> reviews = fetchProductReviews(asin);
         specs.put("reviews", reviews);
         specs.put("total_reviews", reviews.size());
 
@@ -623,22 +957,33 @@ public class ProductServiceImpl implements ProductService {
 //        Map<String, Object> priceHistory = fetchApifyPriceHistory(asin);
 //        specs.put("price_history", priceHistory);
 
+        // contentHash covers the upstream content everything here is derived from,
+        // so an equal hash means there is nothing to update
         // -------------------------
         // Check if Product Exists
         // -------------------------
         Optional<Product> existingOpt = productRepository.findByProductId(asin);
         Product product;
 
-        if (existingOpt.isPresent()) {
+        if (existingOpt.isPresent() && contentHash.equals(existingOpt.get().getContentHash())) {
+
+            // Same payload as last time: no product update, no price history entry
+            productWritesSkipped.increment();
+            log.info("Product {} unchanged (hash {}), skipping update", asin, contentHash.substring(0, 12));
+            return existingOpt.get();
+
+        } else if (existingOpt.isPresent()) {
 
             // Update existing product
             product = existingOpt.get();
+            productWrites.increment();
 
             product.setProductName(title);
             product.setBrand(brand);
             product.setImageUrl(imageUrl);
             product.setProductLink(productUrl);
             product.setSpecification(specs);
+            product.setContentHash(contentHash);
 
             Double oldPrice = product.getLastPrice();
             product.setLastPrice(price);
@@ -676,6 +1021,8 @@ public class ProductServiceImpl implements ProductService {
             product.setProductLink(productUrl);
             product.setLastPrice(price);
             product.setSpecification(specs);
+            product.setContentHash(contentHash);
+            productWrites.increment();
 
             // Save product BEFORE saving price history
             product = productRepository.save(product);
@@ -715,13 +1062,8 @@ public class ProductServiceImpl implements ProductService {
 //---------------------------------------------
 
     private Double parsePrice(String priceStr) {
-        if (priceStr == null) return null;
-
-        try {
-            return Double.valueOf(priceStr.replaceAll("[^0-9.]", ""));
-        } catch (Exception e) {
-            return null;
-        }
+        double price = NumericExtractor.parsePrice(priceStr);
+        return Double.isNaN(price) ? null : price;
     }
 
 
@@ -795,36 +1137,43 @@ public class ProductServiceImpl implements ProductService {
         // AI ENABLED → PYTHON SERVICE CALL
         // --------------------------------
         try {
-            log.info("Sending data to AI service at: {}", aiServiceUrl);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+            // Only the fields the prompt uses are sent (versioned compact projection)
+            AiPayloadProjector.Payload payload = aiPayloadProjector.prepare(rawJson);
 
-            HttpEntity<String> requestEntity = new HttpEntity<>(rawJson, headers);
+            // Same payload + same prompt version → same answer: reuse the stored one
+            String inputHash = aiResultCache.keyOf(payload.json());
+            Map<String, Object> aiResult = inputHash != null ? aiResultCache.find(inputHash).orElse(null) : null;
 
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    aiServiceUrl,
-                    requestEntity,
-                    String.class
-            );
+            if (aiResult != null) {
+                log.info("AI result cache hit for payload {}. Skipping AI service call", inputHash);
+            } else {
+                log.info("Sending data to AI service at: {}", aiServiceClient.getServiceUrl());
+
+                long sentAt = System.nanoTime();
+                ResponseEntity<String> response = aiServiceClient.post(payload.json());
+                aiPayloadProjector.recordLatency(payload, System.nanoTime() - sentAt);
+
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    log.error("AI service failed. Status: {}", response.getStatusCode());
+                    return Map.of(
+                            "error", "AI_SERVICE_ERROR",
+                            "status", response.getStatusCode().value()
+                    );
+                }
 
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                log.error("AI service failed. Status: {}", response.getStatusCode());
-                return Map.of(
-                        "error", "AI_SERVICE_ERROR",
-                        "status", response.getStatusCode().value()
-                );
-            }
+                String body = response.getBody();
+                if (body == null || body.isBlank()) {
+                    return Map.of(
+                            "error", "AI_EMPTY_RESPONSE"
+                    );
+                }
 
-            String body = response.getBody();
-            if (body == null || body.isBlank()) {
-                return Map.of(
-                        "error", "AI_EMPTY_RESPONSE"
-                );
+                log.info("AI service response received successfully");
+                aiResult = objectMapper.readValue(body, Map.class);
+                if (inputHash != null && !aiResult.containsKey("error")) {
+                    aiResultCache.store(inputHash, aiResult);
+                }
             }
-
-            log.info("AI service response received successfully");
-            Map<String, Object> aiResult = objectMapper.readValue(body, Map.class);
             
             // Merge original product data with AI result to ensure all fields are present
             Map<String, Object> rawMap = objectMapper.readValue(rawJson, Map.class);
@@ -868,6 +1217,13 @@ public class ProductServiceImpl implements ProductService {
             log.info("Merged AI result with original product data. Image URL: {}", aiResult.get("imageUrl"));
             return aiResult;
 
+        } catch (AiServiceBusyException e) {
+            // Overloaded, not broken: tell the caller to retry instead of saving a local fallback
+            log.warn("{}", e.getMessage());
+            return Map.of(
+                    "error", "AI_SERVICE_BUSY",
+                    "message", e.getMessage()
+            );
         } catch (Exception e) {
             log.error("AI service call failed: {}", e.getMessage(), e);
             
@@ -0,0 +1,247 @@
+package com.example.backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact AI input document built from a raw product document.
+ *
+ * Keeps only what the AI service's prompt reads (title, brand, rating, reviews, ratings,
+ * features) plus the price, specifications, description and review summary it sees as
+ * additional product data; the rest of the RapidAPI "raw" subtree (photos, variations,
+ * links...) is dropped. Long texts are cut to the configured lengths and the reviews are
+ * reduced to a representative sample: every star rating that occurs keeps at least one
+ * review, the remaining slots go to ratings in proportion to how often they occur, and
+ * within a rating longer reviews are preferred. "ratings" still lists the star rating of
+ * every review so the average the prompt computes is unaffected.
+ *
+ * The document carries {@link #VERSION}; change it whenever the projection changes so
+ * that AI results cached for the old shape are not reused.
+ */
+public final class AiPayloadProjection {
+
+    public static final String VERSION = "ai-input-v1";
+
+    private static final String ELLIPSIS = "…";
+
+    /**
+     * @param maxReviews     reviews kept
+     * @param maxReviewChars characters kept per review text
+     * @param maxTextChars   characters kept per other text (title, description, feature, spec value)
+     * @param maxListItems   feature bullets kept
+     * @param maxSpecs       specification entries kept
+     */
+    public record Limits(int maxReviews, int maxReviewChars, int maxTextChars, int maxListItems, int maxSpecs) {
+    }
+
+    private AiPayloadProjection() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> project(Map<String, Object> document, Limits limits) {
+        Map<String, Object> raw = document.get("raw") instanceof Map<?, ?> nested
+                ? (Map<String, Object>) nested
+                : Map.of();
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("payload_version", VERSION);
+        putIfPresent(out, "asin", first(document, raw, "asin"));
+        putIfPresent(out, "title", truncate(first(document, raw, "title", "product_title"), limits.maxTextChars()));
+        putIfPresent(out, "brand", first(document, raw, "brand"));
+        putIfPresent(out, "price", first(document, raw, "price", "product_price"));
+        putIfPresent(out, "original_price", first(document, raw, "original_price", "product_original_price"));
+        putIfPresent(out, "rating", first(document, raw, "rating", "product_star_rating"));
+        putIfPresent(out, "reviewCount", first(document, raw, "reviewCount", "product_num_ratings"));
+
+        List<String> features = texts(first(document, raw, "features", "about_product"),
+                limits.maxListItems(), limits.maxTextChars());
+        if (!features.isEmpty()) {
+            out.put("features", features);
+        }
+
+        Map<String, Object> specifications = new LinkedHashMap<>();
+        addSpecifications(specifications, raw.get("product_information"), limits);
+        addSpecifications(specifications, raw.get("product_details"), limits);
+        if (!specifications.isEmpty()) {
+            out.put("specifications", specifications);
+        }
+
+        putIfPresent(out, "description",
+                truncate(first(document, raw, "description", "product_description"), limits.maxTextChars()));
+        putIfPresent(out, "customers_say", truncate(first(document, raw, "customers_say"), limits.maxTextChars()));
+
+        List<Map<String, Object>> reviews = reviews(first(document, raw, "reviews", "top_reviews"));
+        if (!reviews.isEmpty()) {
+            List<Double> ratings = new ArrayList<>();
+            for (Map<String, Object> review : reviews) {
+                double stars = stars(review);
+                if (!Double.isNaN(stars)) {
+                    ratings.add(stars);
+                }
+            }
+            out.put("reviews", sample(reviews, limits));
+            out.put("ratings", ratings);
+        }
+        return out;
+    }
+
+    // First present, non-blank value among the keys, looked up in the document, then in raw
+    private static Object first(Map<String, Object> document, Map<String, Object> raw, String... keys) {
+        for (Map<String, Object> source : List.of(document, raw)) {
+            for (String key : keys) {
+                Object value = source.get(key);
+                if (value != null && !(value instanceof String s && s.isBlank())) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void putIfPresent(Map<String, Object> out, String key, Object value) {
+        if (value != null) {
+            out.put(key, value);
+        }
+    }
+
+    // maxChars of 0 keeps the whole text
+    static Object truncate(Object value, int maxChars) {
+        if (!(value instanceof String text) || maxChars <= 0 || text.length() <= maxChars) {
+            return value;
+        }
+        // Do not split a surrogate pair
+        int end = Character.isHighSurrogate(text.charAt(maxChars - 1)) ? maxChars - 1 : maxChars;
+        return text.substring(0, end).stripTrailing() + ELLIPSIS;
+    }
+
+    private static List<String> texts(Object value, int maxItems, int maxChars) {
+        List<String> texts = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object item : list) {
+                if (texts.size() == maxItems) {
+                    break;
+                }
+                if (item != null && !item.toString().isBlank()) {
+                    texts.add((String) truncate(item.toString(), maxChars));
+                }
+            }
+        }
+        return texts;
+    }
+
+    private static void addSpecifications(Map<String, Object> specifications, Object source, Limits limits) {
+        if (!(source instanceof Map<?, ?> map)) {
+            return;
+        }
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (specifications.size() == limits.maxSpecs()) {
+                return;
+            }
+            Object value = entry.getValue();
+            if (value == null || value instanceof Map || value instanceof List) {
+                continue;
+            }
+            specifications.putIfAbsent(String.valueOf(entry.getKey()), truncate(value.toString(), limits.maxTextChars()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> reviews(Object value) {
+        List<Map<String, Object>> reviews = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object item : list) {
+                if (item instanceof Map<?, ?> review) {
+                    reviews.add((Map<String, Object>) review);
+                } else if (item instanceof String text && !text.isBlank()) {
+                    reviews.add(Map.of("review_comment", text));
+                }
+            }
+        }
+        return reviews;
+    }
+
+    private static double stars(Map<String, Object> review) {
+        Object rating = review.get("review_star_rating");
+        if (rating instanceof Number number) {
+            return number.doubleValue();
+        }
+        return rating != null ? NumericExtractor.parseRating(rating.toString()) : Double.NaN;
+    }
+
+    private static String text(Map<String, Object> review) {
+        Object text = review.get("review_comment");
+        if (text == null) {
+            text = review.get("review_text");
+        }
+        return text != null ? text.toString() : "";
+    }
+
+    /**
+     * Representative sample of at most maxReviews, trimmed to the fields the prompt uses
+     */
+    static List<Map<String, Object>> sample(List<Map<String, Object>> reviews, Limits limits) {
+        // Star rating (0 when unknown) → reviews, longest text first
+        TreeMap<Integer, List<Map<String, Object>>> byStars = new TreeMap<>(Comparator.reverseOrder());
+        for (Map<String, Object> review : reviews) {
+            double stars = stars(review);
+            int bucket = Double.isNaN(stars) ? 0 : (int) Math.round(stars);
+            byStars.computeIfAbsent(bucket, key -> new ArrayList<>()).add(review);
+        }
+        byStars.values().forEach(bucket -> bucket.sort(
+                Comparator.comparingInt((Map<String, Object> review) -> text(review).length()).reversed()));
+
+        Map<Integer, Integer> taken = allocate(byStars, Math.min(limits.maxReviews(), reviews.size()));
+
+        List<Map<String, Object>> sample = new ArrayList<>();
+        byStars.forEach((stars, bucket) -> {
+            for (Map<String, Object> review : bucket.subList(0, taken.getOrDefault(stars, 0))) {
+                sample.add(trim(review, limits));
+            }
+        });
+        return sample;
+    }
+
+    // One slot per rating (most common first), then the highest-averages method by bucket size
+    private static Map<Integer, Integer> allocate(TreeMap<Integer, List<Map<String, Object>>> byStars, int slots) {
+        Map<Integer, Integer> taken = new LinkedHashMap<>();
+        List<Integer> bySize = new ArrayList<>(byStars.keySet());
+        bySize.sort(Comparator.comparingInt((Integer stars) -> byStars.get(stars).size()).reversed());
+
+        for (Integer stars : bySize) {
+            if (slots == 0) {
+                return taken;
+            }
+            taken.put(stars, 1);
+            slots--;
+        }
+        while (slots > 0) {
+            Integer best = null;
+            double bestQuotient = -1;
+            for (Integer stars : bySize) {
+                int size = byStars.get(stars).size();
+                int count = taken.get(stars);
+                double quotient = (double) size / (count + 1);
+                if (count < size && quotient > bestQuotient) {
+                    best = stars;
+                    bestQuotient = quotient;
+                }
+            }
+            taken.merge(best, 1, Integer::sum);
+            slots--;
+        }
+        return taken;
+    }
+
+    private static Map<String, Object> trim(Map<String, Object> review, Limits limits) {
+        Map<String, Object> trimmed = new LinkedHashMap<>();
+        putIfPresent(trimmed, "review_star_rating", review.get("review_star_rating"));
+        putIfPresent(trimmed, "review_title", truncate(review.get("review_title"), limits.maxTextChars()));
+        trimmed.put("review_comment", truncate(text(review), limits.maxReviewChars()));
+        putIfPresent(trimmed, "is_verified_purchase", review.get("is_verified_purchase"));
+        return trimmed;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.backend.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Brand recognition over product titles, backed by an Aho-Corasick automaton.
+ *
+ * Every alias of every brand is compiled into one automaton, so a title is scanned
+ * once regardless of dictionary size. ASCII characters, i.e. nearly every title, step
+ * through a precomputed transition table (failure links already folded in); other
+ * characters follow the goto/failure functions. Matching is case-insensitive, only accepts
+ * aliases that start and end on a word boundary (no letter directly before or after),
+ * and allocates nothing. When several aliases match, the leftmost one wins, and the
+ * longest among those starting at the same position.
+ *
+ * Dictionary format, one brand per line:
+ * <pre>
+ * # comment
+ * Apple: iphone, ipad, macbook
+ * Samsung
+ * </pre>
+ * The canonical name is always an alias of itself.
+ */
+public final class BrandMatcher {
+
+    private static final int NONE = -1;
+    private static final int ASCII = 128;
+
+    private final String[] brands;
+
+    // Goto function: state -> sorted labels and their target states
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+
+    // Full transition for ASCII input: asciiNext[state * ASCII + c]
+    private final int[] asciiNext;
+
+    // Alias ending exactly at a state (brand index, alias length), and the nearest
+    // state on the failure chain that has one
+    private final int[] outBrand;
+    private final int[] outLength;
+    private final int[] outLink;
+
+    private final int maxAliasLength;
+
+    private BrandMatcher(String[] brands, char[][] labels, int[][] targets, int[] fail, int[] asciiNext,
+                         int[] outBrand, int[] outLength, int[] outLink, int maxAliasLength) {
+        this.brands = brands;
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.asciiNext = asciiNext;
+        this.outBrand = outBrand;
+        this.outLength = outLength;
+        this.outLink = outLink;
+        this.maxAliasLength = maxAliasLength;
+    }
+
+    /**
+     * @param aliasesByBrand canonical brand name → aliases (the name itself is added automatically)
+     */
+    public static BrandMatcher of(Map<String, List<String>> aliasesByBrand) {
+        List<String> brandNames = new ArrayList<>();
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<int[]> terminal = new ArrayList<>(); // {brand, length} or null
+        trie.add(new TreeMap<>());
+        terminal.add(null);
+        int maxLength = 0;
+
+        for (Map.Entry<String, List<String>> entry : aliasesByBrand.entrySet()) {
+            int brand = brandNames.size();
+            brandNames.add(entry.getKey());
+
+            List<String> aliases = new ArrayList<>(entry.getValue());
+            aliases.add(entry.getKey());
+            for (String alias : aliases) {
+                String normalized = alias.trim().toLowerCase(Locale.ROOT);
+                if (normalized.isEmpty()) {
+                    continue;
+                }
+                int state = 0;
+                for (int i = 0; i < normalized.length(); i++) {
+                    char c = normalized.charAt(i);
+                    Integer next = trie.get(state).get(c);
+                    if (next == null) {
+                        next = trie.size();
+                        trie.add(new TreeMap<>());
+                        terminal.add(null);
+                        trie.get(state).put(c, next);
+                    }
+                    state = next;
+                }
+                // First brand to claim an alias keeps it
+                if (terminal.get(state) == null) {
+                    terminal.set(state, new int[]{brand, normalized.length()});
+                }
+                maxLength = Math.max(maxLength, normalized.length());
+            }
+        }
+
+        int size = trie.size();
+        char[][] labels = new char[size][];
+        int[][] targets = new int[size][];
+        for (int s = 0; s < size; s++) {
+            TreeMap<Character, Integer> edges = trie.get(s);
+            labels[s] = new char[edges.size()];
+            targets[s] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                labels[s][i] = edge.getKey();
+                targets[s][i] = edge.getValue();
+                i++;
+            }
+        }
+
+        int[] outBrand = new int[size];
+        int[] outLength = new int[size];
+        for (int s = 0; s < size; s++) {
+            int[] t = terminal.get(s);
+            outBrand[s] = t != null ? t[0] : NONE;
+            outLength[s] = t != null ? t[1] : 0;
+        }
+
+        // Breadth-first construction of failure and output links
+        int[] fail = new int[size];
+        int[] outLink = new int[size];
+        Arrays.fill(outLink, NONE);
+        Deque<Integer> queue = new ArrayDeque<>();
+        int[] breadthFirst = new int[size];
+        int visited = 0;
+        for (int child : targets[0]) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            breadthFirst[visited++] = s;
+            for (int i = 0; i < labels[s].length; i++) {
+                char c = labels[s][i];
+                int child = targets[s][i];
+
+                int f = fail[s];
+                int next;
+                while ((next = step(labels, targets, f, c)) == NONE && f != 0) {
+                    f = fail[f];
+                }
+                fail[child] = next == NONE || next == child ? 0 : next;
+                outLink[child] = outBrand[fail[child]] != NONE ? fail[child] : outLink[fail[child]];
+                queue.add(child);
+            }
+        }
+
+        // Dense ASCII transitions; a state's failure target is shallower, so already filled in
+        int[] asciiNext = new int[size * ASCII];
+        for (char c = 0; c < ASCII; c++) {
+            int next = step(labels, targets, 0, c);
+            asciiNext[c] = next == NONE ? 0 : next;
+        }
+        for (int n = 0; n < visited; n++) {
+            int s = breadthFirst[n];
+            for (char c = 0; c < ASCII; c++) {
+                int next = step(labels, targets, s, c);
+                asciiNext[s * ASCII + c] = next != NONE ? next : asciiNext[fail[s] * ASCII + c];
+            }
+        }
+
+        return new BrandMatcher(brandNames.toArray(new String[0]), labels, targets, fail, asciiNext,
+                outBrand, outLength, outLink, maxLength);
+    }
+
+    public static BrandMatcher load(InputStream dictionary) throws IOException {
+        Map<String, List<String>> aliasesByBrand = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(dictionary, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                String brand = (colon < 0 ? line : line.substring(0, colon)).trim();
+                List<String> aliases = aliasesByBrand.computeIfAbsent(brand, b -> new ArrayList<>());
+                if (colon >= 0) {
+                    for (String alias : line.substring(colon + 1).split(",")) {
+                        if (!alias.isBlank()) {
+                            aliases.add(alias.trim());
+                        }
+                    }
+                }
+            }
+        }
+        return of(aliasesByBrand);
+    }
+
+    private static int step(char[][] labels, int[][] targets, int state, char c) {
+        int i = Arrays.binarySearch(labels[state], c);
+        return i >= 0 ? targets[state][i] : NONE;
+    }
+
+    /**
+     * @return canonical brand of the best alias found in the text, or null if none
+     */
+    public String match(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+
+        int length = text.length();
+        int state = 0;
+        int bestStart = Integer.MAX_VALUE;
+        int bestLength = 0;
+        int bestBrand = NONE;
+
+        for (int i = 0; i < length; i++) {
+            // Nothing ending later can start before the best match found so far
+            if (bestBrand != NONE && i - maxAliasLength >= bestStart) {
+                break;
+            }
+
+            char c = text.charAt(i);
+            if (c < ASCII) {
+                state = asciiNext[state * ASCII + (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c)];
+            } else {
+                c = Character.toLowerCase(c);
+                int next;
+                while ((next = step(labels, targets, state, c)) == NONE && state != 0) {
+                    state = fail[state];
+                }
+                state = next == NONE ? 0 : next;
+            }
+
+            // Most positions end no alias at all
+            if (outBrand[state] == NONE && outLink[state] == NONE) {
+                continue;
+            }
+            boolean endsOnBoundary = i + 1 == length || !isLetter(text.charAt(i + 1));
+            if (!endsOnBoundary) {
+                continue;
+            }
+
+            for (int out = outBrand[state] != NONE ? state : outLink[state]; out != NONE; out = outLink[out]) {
+                int start = i - outLength[out] + 1;
+                boolean startsOnBoundary = start == 0 || !isLetter(text.charAt(start - 1));
+                if (!startsOnBoundary) {
+                    continue;
+                }
+                if (start < bestStart || (start == bestStart && outLength[out] > bestLength)) {
+                    bestStart = start;
+                    bestLength = outLength[out];
+                    bestBrand = outBrand[out];
+                }
+            }
+        }
+
+        return bestBrand == NONE ? null : brands[bestBrand];
+    }
+
+    private static boolean isLetter(char c) {
+        if (c < ASCII) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+        return Character.isLetter(c);
+    }
+
+    public int brandCount() {
+        return brands.length;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.backend.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * SHA-256 over a canonical JSON form of a document, as 64 hex characters.
+ *
+ * Canonical form: object keys sorted, no whitespace, numbers as plain decimals without
+ * trailing zeros (so 1099, 1099.0 and 1.099E3 hash alike). Two documents that only differ
+ * in key order or number formatting get the same hash, whichever way they were stored
+ * (Map, JSON text, {@link RawJson}, {@link RawPayload}).
+ */
+public final class ContentHash {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+    private static final JsonFactory JSON = MAPPER.getFactory();
+
+    private ContentHash() {
+    }
+
+    /**
+     * Hash of any value the application ObjectMapper can serialize
+     */
+    public static String of(Object value) {
+        try {
+            // Round trip through bytes so raw values (RawJson) are parsed like everything else
+            return hash(MAPPER.readTree(MAPPER.writeValueAsBytes(value)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to hash content", e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not well-formed JSON
+     */
+    public static String ofJson(String json) {
+        JsonNode tree;
+        try {
+            tree = MAPPER.readTree(json);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getMessage(), e);
+        }
+        return hash(tree);
+    }
+
+    private static String hash(JsonNode tree) {
+        MessageDigest digest = sha256();
+        try (JsonGenerator generator = JSON.createGenerator(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            writeCanonical(generator, tree);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to hash content", e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void writeCanonical(JsonGenerator generator, JsonNode node) throws IOException {
+        if (node.isObject()) {
+            List<String> names = new ArrayList<>(node.size());
+            for (Iterator<String> it = node.fieldNames(); it.hasNext(); ) {
+                names.add(it.next());
+            }
+            Collections.sort(names);
+            generator.writeStartObject();
+            for (String name : names) {
+                generator.writeFieldName(name);
+                writeCanonical(generator, node.get(name));
+            }
+            generator.writeEndObject();
+        } else if (node.isArray()) {
+            generator.writeStartArray();
+            for (JsonNode element : node) {
+                writeCanonical(generator, element);
+            }
+            generator.writeEndArray();
+        } else if (node.isNumber()) {
+            generator.writeNumber(node.decimalValue().stripTrailingZeros().toPlainString());
+        } else {
+            generator.writeTree(node);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
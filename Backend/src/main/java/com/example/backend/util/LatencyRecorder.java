@@ -0,0 +1,83 @@
+package com.example.backend.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency samples over a sliding window of the most recent recordings.
+ *
+ * Keeps the last {@code window} durations in a ring buffer; {@link #stats()} reports the
+ * total count and, over the window, average, p50/p95/p99 (nearest rank) and max in ms.
+ */
+public class LatencyRecorder {
+
+    private static final int DEFAULT_WINDOW = 1024;
+
+    private final long[] samples;
+    private long count;
+    private long totalNanos;
+
+    public LatencyRecorder() {
+        this(DEFAULT_WINDOW);
+    }
+
+    public LatencyRecorder(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        this.samples = new long[window];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[(int) (count % samples.length)] = Math.max(0, nanos);
+        count++;
+        totalNanos += Math.max(0, nanos);
+    }
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} reading
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public Map<String, Object> stats() {
+        long[] window;
+        long total;
+        long recorded;
+        synchronized (this) {
+            window = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+            total = totalNanos;
+            recorded = count;
+        }
+        Arrays.sort(window);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", recorded);
+        stats.put("avgMs", recorded == 0 ? 0.0 : millis(total / recorded));
+        stats.put("p50Ms", millis(percentile(window, 0.50)));
+        stats.put("p95Ms", millis(percentile(window, 0.95)));
+        stats.put("p99Ms", millis(percentile(window, 0.99)));
+        stats.put("maxMs", millis(window.length == 0 ? 0 : window[window.length - 1]));
+        return stats;
+    }
+
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        // 0.1 ms resolution
+        return TimeUnit.NANOSECONDS.toMicros(nanos) / 100 / 10.0;
+    }
+}
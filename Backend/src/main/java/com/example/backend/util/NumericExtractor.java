@@ -0,0 +1,239 @@
+package com.example.backend.util;
+
+/**
+ * Pulls prices, ratings and review counts out of the display strings RapidAPI returns
+ * ("₹1,29,999.00", "$12.99 - $19.99", "1.299,00 €", "4.5 out of 5 stars", "1.2K ratings").
+ *
+ * Each method reads the first number in the text in a single pass over the chars,
+ * with no regex and no intermediate strings. Grouping separators may be ',' '.',
+ * apostrophe or (narrow) no-break space, in Western (1,299,999) or Indian
+ * (12,99,999) groups. For a range the first, lower bound is returned.
+ *
+ * Decimal separator rules, for '.' and ',':
+ * <ul>
+ *   <li>both present: the last one is the decimal separator ("1.299,50", "1,299.50")</li>
+ *   <li>one kind, several times: grouping ("1,29,999")</li>
+ *   <li>one kind, once: decimal, unless exactly three digits follow ("4,5" vs "1,299")</li>
+ * </ul>
+ */
+public final class NumericExtractor {
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+            1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+
+    // More significant digits than this cannot be held exactly in a long
+    private static final int MAX_DIGITS = 18;
+
+    private NumericExtractor() {
+    }
+
+    /**
+     * @return the first price in the text, or NaN if there is none
+     */
+    public static double parsePrice(CharSequence text) {
+        if (text == null) {
+            return Double.NaN;
+        }
+        int start = firstDigit(text, 0);
+        if (start < 0) {
+            return Double.NaN;
+        }
+        int end = numberEnd(text, start);
+        return value(text, start, end, decimalSeparator(text, start, end));
+    }
+
+    /**
+     * Rating is a plain decimal: "4.5 out of 5 stars" is 4.5, "4,5 von 5 Sternen" is 4.5.
+     *
+     * @return the first number in the text, or NaN if there is none
+     */
+    public static double parseRating(CharSequence text) {
+        if (text == null) {
+            return Double.NaN;
+        }
+        int start = firstDigit(text, 0);
+        if (start < 0) {
+            return Double.NaN;
+        }
+        int length = text.length();
+        int end = start;
+        while (end < length && isDigit(text.charAt(end))) {
+            end++;
+        }
+        int decimal = -1;
+        if (end + 1 < length && isDecimalCandidate(text.charAt(end)) && isDigit(text.charAt(end + 1))) {
+            decimal = end;
+            end += 2;
+            while (end < length && isDigit(text.charAt(end))) {
+                end++;
+            }
+        }
+        return value(text, start, end, decimal);
+    }
+
+    /**
+     * Counts may be grouped ("12,345", "1,23,456") or abbreviated with a multiplier
+     * suffix: K, M, B, L / lakh, Cr / crore ("1.2K ratings" is 1200).
+     *
+     * @return the first count in the text, or -1 if there is none
+     */
+    public static long parseCount(CharSequence text) {
+        if (text == null) {
+            return -1;
+        }
+        int start = firstDigit(text, 0);
+        if (start < 0) {
+            return -1;
+        }
+        int end = numberEnd(text, start);
+        double value = value(text, start, end, decimalSeparator(text, start, end));
+        return Math.round(value * multiplier(text, end));
+    }
+
+    private static int firstDigit(CharSequence text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (isDigit(text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // End (exclusive) of the digit run starting at start, including inner separators
+    private static int numberEnd(CharSequence text, int start) {
+        int length = text.length();
+        int i = start;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                i++;
+            } else if (isDecimalCandidate(c) && i + 1 < length && isDigit(text.charAt(i + 1))) {
+                i++;
+            } else if (isGroupingOnly(c) && digitRun(text, i + 1) == 3) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // Position of the decimal separator within [start, end), or -1 for an integer
+    private static int decimalSeparator(CharSequence text, int start, int end) {
+        int count = 0;
+        int last = -1;
+        char first = 0;
+        boolean mixed = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (isDecimalCandidate(c)) {
+                if (count == 0) {
+                    first = c;
+                } else if (c != first) {
+                    mixed = true;
+                }
+                count++;
+                last = i;
+            }
+        }
+        if (count == 0) {
+            return -1;
+        }
+        if (mixed) {
+            return last;
+        }
+        if (count > 1) {
+            return -1;
+        }
+        return digitRun(text, last + 1) == 3 ? -1 : last;
+    }
+
+    private static double value(CharSequence text, int start, int end, int decimal) {
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        int dropped = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                continue;
+            }
+            boolean fraction = decimal >= 0 && i > decimal;
+            if (digits < MAX_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fraction) {
+                    scale++;
+                }
+            } else if (!fraction) {
+                // Integer digits past the precision still count towards the magnitude
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            return mantissa * Math.pow(10, dropped);
+        }
+        return scale == 0 ? mantissa : mantissa / POW10[scale];
+    }
+
+    private static double multiplier(CharSequence text, int end) {
+        int length = text.length();
+        int i = end;
+        while (i < length && isGroupingOnly(text.charAt(i))) {
+            i++;
+        }
+        if (i >= length) {
+            return 1;
+        }
+        switch (Character.toLowerCase(text.charAt(i))) {
+            case 'k':
+                return suffix(text, i, "k") ? 1e3 : 1;
+            case 'm':
+                return suffix(text, i, "m") ? 1e6 : 1;
+            case 'b':
+                return suffix(text, i, "b") ? 1e9 : 1;
+            case 'l':
+                return suffix(text, i, "lakh") || suffix(text, i, "lac") || suffix(text, i, "l") ? 1e5 : 1;
+            case 'c':
+                return suffix(text, i, "crore") || suffix(text, i, "cr") ? 1e7 : 1;
+            default:
+                return 1;
+        }
+    }
+
+    // Whether the word starting at from is exactly the given lower-case suffix
+    private static boolean suffix(CharSequence text, int from, String word) {
+        int end = from + word.length();
+        if (end > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(text.charAt(from + i)) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return end == text.length() || !Character.isLetter(text.charAt(end));
+    }
+
+    private static int digitRun(CharSequence text, int from) {
+        int i = from;
+        while (i < text.length() && isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i - from;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDecimalCandidate(char c) {
+        return c == '.' || c == ',';
+    }
+
+    private static boolean isGroupingOnly(char c) {
+        return c == '\'' || c == ' ' || c == '\u00A0' || c == '\u202F';
+    }
+}
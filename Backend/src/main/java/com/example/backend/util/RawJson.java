@@ -0,0 +1,41 @@
+package com.example.backend.util;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An already-serialized JSON value kept as compact UTF-8 bytes.
+ *
+ * Used instead of a nested Map for large upstream subtrees that are only passed
+ * through (cached, forwarded to the AI service). It serializes back verbatim with
+ * both the Jackson 2 and Jackson 3 mappers, so it can sit inside any payload map.
+ */
+public final class RawJson {
+
+    private final byte[] utf8;
+
+    public RawJson(byte[] utf8) {
+        this.utf8 = utf8;
+    }
+
+    public byte[] bytes() {
+        return utf8;
+    }
+
+    public int size() {
+        return utf8.length;
+    }
+
+    @JsonValue
+    @JsonRawValue
+    public String json() {
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return json();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.backend.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A raw product payload kept as LZ4-compressed Smile (binary JSON).
+ *
+ * Layout: 1 format byte, 4-byte big-endian length of the Smile document, LZ4 block.
+ * The bytes can be stored or cached as they are; nothing is decoded until a caller
+ * asks for the whole document ({@link #toMap()}, {@link #toJson()}) or for a single
+ * top-level field ({@link #field(String)}), which is read by streaming without
+ * building the rest of the document.
+ */
+public final class RawPayload {
+
+    private static final byte FORMAT_SMILE_LZ4 = 1;
+    private static final int HEADER_SIZE = 5;
+
+    // Shared property names are on by default; shared string values barely help after LZ4
+    private static final SmileFactory SMILE = new SmileFactory();
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(SMILE);
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private final byte[] bytes;
+
+    private RawPayload(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Wraps bytes previously produced by {@link #bytes()}
+     */
+    public static RawPayload wrap(byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_SIZE || bytes[0] != FORMAT_SMILE_LZ4) {
+            throw new IllegalArgumentException("Not a raw payload");
+        }
+        return new RawPayload(bytes);
+    }
+
+    public static RawPayload fromMap(Map<String, Object> document) {
+        try {
+            return compress(SMILE_MAPPER.writeValueAsBytes(document));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode raw payload", e);
+        }
+    }
+
+    /**
+     * Transcodes a JSON object token by token, without building a Map
+     *
+     * @throws IllegalArgumentException if the text is not a well-formed JSON object
+     */
+    public static RawPayload fromJson(String json) {
+        ByteArrayOutputStream smile = new ByteArrayOutputStream(json.length() / 2);
+        try (JsonParser parser = JSON.createParser(json);
+             JsonGenerator generator = SMILE.createGenerator(smile)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Raw payload must be a JSON object");
+            }
+            generator.copyCurrentStructure(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed raw JSON: " + e.getMessage(), e);
+        }
+        return compress(smile.toByteArray());
+    }
+
+    private static RawPayload compress(byte[] smile) {
+        int maxLength = COMPRESSOR.maxCompressedLength(smile.length);
+        byte[] out = new byte[HEADER_SIZE + maxLength];
+        out[0] = FORMAT_SMILE_LZ4;
+        ByteBuffer.wrap(out, 1, 4).putInt(smile.length);
+        int compressed = COMPRESSOR.compress(smile, 0, smile.length, out, HEADER_SIZE, maxLength);
+        return new RawPayload(Arrays.copyOf(out, HEADER_SIZE + compressed));
+    }
+
+    private byte[] smile() {
+        int length = ByteBuffer.wrap(bytes, 1, 4).getInt();
+        byte[] smile = new byte[length];
+        DECOMPRESSOR.decompress(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE, smile, 0, length);
+        return smile;
+    }
+
+    /**
+     * Stored form; callers must not modify the array
+     */
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+
+    public Map<String, Object> toMap() {
+        try {
+            return SMILE_MAPPER.readValue(smile(), new TypeReference<Map<String, Object>>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode raw payload", e);
+        }
+    }
+
+    /**
+     * Transcodes straight to JSON text, without building a Map
+     */
+    public String toJson() {
+        return new String(toJsonBytes(), StandardCharsets.UTF_8);
+    }
+
+    public byte[] toJsonBytes() {
+        byte[] smile = smile();
+        ByteArrayOutputStream json = new ByteArrayOutputStream(smile.length * 2);
+        try (JsonParser parser = SMILE.createParser(smile);
+             JsonGenerator generator = JSON.createGenerator(json)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode raw payload", e);
+        }
+        return json.toByteArray();
+    }
+
+    /**
+     * Value of one top-level field (Map, List, String, Number, Boolean), or null if absent.
+     * Sibling fields are skipped rather than decoded.
+     */
+    public Object field(String name) {
+        try (JsonParser parser = SMILE.createParser(smile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String current = parser.currentName();
+                parser.nextToken();
+                if (name.equals(current)) {
+                    return SMILE_MAPPER.readValue(parser, Object.class);
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode raw payload", e);
+        }
+    }
+}
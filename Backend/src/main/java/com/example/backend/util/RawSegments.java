@@ -0,0 +1,92 @@
+package com.example.backend.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits a product details document into its volatile part (price, availability, offers)
+ * and its stable part (title, photos, specifications, ratings), and merges them back.
+ *
+ * Volatile fields are recognised at the top level and inside the nested "raw" object
+ * (the upstream data). The volatile part keeps the same shape, e.g.
+ * {"price": 999.0, "raw": {"product_price": "₹999"}}, so merging is a plain overlay.
+ */
+public final class RawSegments {
+
+    public static final String RAW_FIELD = "raw";
+
+    /**
+     * Fields that change on a price/stock cycle rather than a catalogue cycle
+     */
+    public static final Set<String> VOLATILE_FIELDS = Set.of(
+            "price",
+            "product_price",
+            "product_original_price",
+            "product_minimum_offer_price",
+            "product_price_max",
+            "currency",
+            "product_availability",
+            "product_num_offers",
+            "is_prime",
+            "is_best_seller",
+            "is_amazon_choice",
+            "climate_pledge_friendly",
+            "sales_volume",
+            "delivery",
+            "coupon_text",
+            "deal_badge"
+    );
+
+    public record Split(Map<String, Object> stable, Map<String, Object> volatileFields) {
+    }
+
+    private RawSegments() {
+    }
+
+    public static Split split(Map<String, Object> document) {
+        Map<String, Object> stable = new LinkedHashMap<>();
+        Map<String, Object> volatileFields = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Object> field : document.entrySet()) {
+            String name = field.getKey();
+            if (VOLATILE_FIELDS.contains(name)) {
+                volatileFields.put(name, field.getValue());
+            } else if (RAW_FIELD.equals(name) && field.getValue() instanceof Map<?, ?> raw) {
+                Map<String, Object> stableRaw = new LinkedHashMap<>();
+                Map<String, Object> volatileRaw = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> rawField : raw.entrySet()) {
+                    String rawName = String.valueOf(rawField.getKey());
+                    (VOLATILE_FIELDS.contains(rawName) ? volatileRaw : stableRaw).put(rawName, rawField.getValue());
+                }
+                stable.put(name, stableRaw);
+                if (!volatileRaw.isEmpty()) {
+                    volatileFields.put(name, volatileRaw);
+                }
+            } else {
+                stable.put(name, field.getValue());
+            }
+        }
+        return new Split(stable, volatileFields);
+    }
+
+    /**
+     * Stable document with the volatile fields laid over it; neither argument is modified
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> merge(Map<String, Object> stable, Map<String, Object> volatileFields) {
+        Map<String, Object> merged = new LinkedHashMap<>(stable);
+        for (Map.Entry<String, Object> field : volatileFields.entrySet()) {
+            if (RAW_FIELD.equals(field.getKey()) && field.getValue() instanceof Map<?, ?> volatileRaw) {
+                Map<String, Object> raw = merged.get(RAW_FIELD) instanceof Map<?, ?> stableRaw
+                        ? new LinkedHashMap<>((Map<String, Object>) stableRaw)
+                        : new LinkedHashMap<>();
+                raw.putAll((Map<String, Object>) volatileRaw);
+                merged.put(RAW_FIELD, raw);
+            } else {
+                merged.put(field.getKey(), field.getValue());
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.backend.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keyed in-flight registry: concurrent callers asking for the same key share one
+ * execution of the loader instead of each running it.
+ *
+ * The first caller (the leader) runs the loader on its own thread; callers that arrive
+ * while it is running wait for the same future. The key is released as soon as the
+ * leader finishes, so nothing is cached beyond the lifetime of the call.
+ *
+ * Joined callers wait interruptibly: an interrupted caller stops waiting, keeps its
+ * interrupt flag and gets its own fallback value, while the leader carries on.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder interruptedJoins = new LongAdder();
+
+    /**
+     * @param interruptedJoin value for a joined caller interrupted while waiting for the leader
+     */
+    public V execute(K key, Supplier<V> loader, Supplier<V> interruptedJoin) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interruptedJoins.increment();
+                return interruptedJoin.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        executions.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executions", executions.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("interruptedJoins", interruptedJoins.sum());
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.backend.cache;
+
+import com.example.backend.entity.AiAnalysisCache;
+import com.example.backend.repository.AiAnalysisCacheRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AiResultCacheTest {
+
+    private final AiAnalysisCacheRepository repository = mock(AiAnalysisCacheRepository.class);
+
+    @Test
+    void keyIgnoresKeyOrderAndFormatting() {
+        AiResultCache cache = new AiResultCache(repository, true, "v1");
+
+        assertEquals(cache.keyOf("{\"title\":\"x\",\"price\":999.0}"), cache.keyOf("{ \"price\": 999, \"title\": \"x\" }"));
+        assertNull(cache.keyOf("{not json"));
+        assertNull(new AiResultCache(repository, false, "v1").keyOf("{}"));
+    }
+
+    @Test
+    void looksUpByHashAndPromptVersion() {
+        AiAnalysisCache row = new AiAnalysisCache();
+        row.setResult(Map.of("decision", "BUY"));
+        when(repository.findByInputHashAndPromptVersion("abc", "v2")).thenReturn(Optional.of(row));
+        AiResultCache cache = new AiResultCache(repository, true, "v2");
+
+        assertEquals("BUY", cache.find("abc").orElseThrow().get("decision"));
+        assertTrue(cache.find("def").isEmpty());
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void concurrentStoreOfTheSameInputIsNotAFailure() {
+        when(repository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        AiResultCache cache = new AiResultCache(repository, true, "v1");
+
+        cache.store("abc", Map.of("decision", "BUY"));
+
+        assertEquals(0L, cache.stats().get("failures"));
+        assertEquals(0L, cache.stats().get("stores"));
+    }
+}
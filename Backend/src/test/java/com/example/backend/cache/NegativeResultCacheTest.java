@@ -0,0 +1,59 @@
+package com.example.backend.cache;
+
+import com.example.backend.cache.NegativeResultCache.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NegativeResultCacheTest {
+
+    @Test
+    void repeatLookupsAreAnsweredAndCountedPerOutcome() {
+        NegativeResultCache cache = new NegativeResultCache(100, 1800, 60);
+
+        cache.record("B0MISSING1", Outcome.NOT_FOUND);
+        cache.record("B0FAILING1", Outcome.UPSTREAM_FAILED);
+
+        assertEquals(Optional.of(Outcome.NOT_FOUND), cache.get("B0MISSING1"));
+        assertEquals(Optional.of(Outcome.NOT_FOUND), cache.get("B0MISSING1"));
+        assertEquals(Optional.of(Outcome.UPSTREAM_FAILED), cache.get("B0FAILING1"));
+        assertTrue(cache.get("B0UNKNOWN1").isEmpty());
+
+        assertEquals(2L, outcomeStats(cache, "not_found").get("hits"));
+        assertEquals(1L, outcomeStats(cache, "upstream_failed").get("hits"));
+        assertEquals(60L, outcomeStats(cache, "upstream_failed").get("ttlSeconds"));
+    }
+
+    @Test
+    void zeroTtlDisablesAnOutcome() {
+        NegativeResultCache cache = new NegativeResultCache(100, 1800, 0);
+
+        cache.record("B0FAILING1", Outcome.UPSTREAM_FAILED);
+
+        assertTrue(cache.get("B0FAILING1").isEmpty());
+        assertEquals(0L, outcomeStats(cache, "upstream_failed").get("recorded"));
+    }
+
+    @Test
+    void successClearsAndSizeIsBounded() {
+        NegativeResultCache cache = new NegativeResultCache(2, 1800, 60);
+
+        cache.record("B1", Outcome.NOT_FOUND);
+        cache.record("B2", Outcome.NOT_FOUND);
+        cache.record("B3", Outcome.NOT_FOUND);
+        assertTrue(cache.get("B1").isEmpty());
+        assertEquals(2, cache.stats().get("size"));
+
+        cache.clear("B3");
+        assertTrue(cache.get("B3").isEmpty());
+        assertEquals(1L, cache.stats().get("cleared"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> outcomeStats(NegativeResultCache cache, String outcome) {
+        return (Map<String, Object>) cache.stats().get(outcome);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.backend.cache;
+
+import com.example.backend.util.ContentHash;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the writer's ON CONFLICT upserts against a real Postgres; skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RawCacheWriterPostgresTest {
+
+    private static final int THREADS = 16;
+    private static final int WRITES_PER_THREAD = 50;
+    private static final int ASINS = 5;
+
+    @Container
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    private static JdbcTemplate jdbc;
+
+    private final RawCacheStorage storage = new RawCacheStorage("json");
+
+    @BeforeAll
+    static void createSchema() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        jdbc.execute("""
+                CREATE TABLE product (
+                    id BIGSERIAL PRIMARY KEY,
+                    product_id VARCHAR(255) UNIQUE
+                )""");
+        jdbc.execute("""
+                CREATE TABLE product_raw_data_cache (
+                    id BIGSERIAL PRIMARY KEY,
+                    raw_json JSON,
+                    raw_payload BYTEA,
+                    content_hash VARCHAR(64),
+                    cached_at TIMESTAMP NOT NULL,
+                    expiry_at TIMESTAMP NOT NULL,
+                    external_product_id VARCHAR(255) NOT NULL,
+                    product_ref_id BIGINT REFERENCES product (id),
+                    CONSTRAINT uk_external_product_id UNIQUE (external_product_id)
+                )""");
+    }
+
+    @BeforeEach
+    void clearTables() {
+        jdbc.execute("TRUNCATE product_raw_data_cache, product");
+    }
+
+    @Test
+    void concurrentDirectWritesLeaveOneRowPerAsin() throws Exception {
+        RawCacheWriter writer = new RawCacheWriter(jdbc, storage, new RawDataL1Cache(storage, 1 << 20), false, 200);
+
+        runConcurrently(writer, false);
+
+        assertOneConsistentRowPerAsin();
+        assertEquals((long) THREADS * WRITES_PER_THREAD, writer.stats().get("writes"));
+    }
+
+    @Test
+    void concurrentWriteBehindWithInterleavedFlushesLeavesOneRowPerAsin() throws Exception {
+        RawCacheWriter writer = new RawCacheWriter(jdbc, storage, new RawDataL1Cache(storage, 1 << 20), true, 3);
+
+        runConcurrently(writer, true);
+        writer.flush();
+
+        assertOneConsistentRowPerAsin();
+        assertEquals(0, writer.stats().get("pending"));
+        assertEquals(0L, writer.stats().get("flushFailures"));
+    }
+
+    @Test
+    void upsertReplacesContentKeepsTheRowAndLinksTheProductOnceItExists() {
+        RawCacheWriter writer = new RawCacheWriter(jdbc, storage, new RawDataL1Cache(storage, 1 << 20), false, 200);
+        String first = "{\"title\":\"old\"}";
+        String second = "{\"title\":\"new\"}";
+
+        Long id = writer.write("B0PG000001", first, ContentHash.ofJson(first), Duration.ofHours(1)).id();
+        assertNull(jdbc.queryForObject(
+                "SELECT product_ref_id FROM product_raw_data_cache WHERE id = ?", Long.class, id));
+
+        Long productId = jdbc.queryForObject(
+                "INSERT INTO product (product_id) VALUES ('B0PG000001') RETURNING id", Long.class);
+        assertEquals(id, writer.write("B0PG000001", second, ContentHash.ofJson(second), Duration.ofHours(1)).id());
+
+        Map<String, Object> row = jdbc.queryForMap(
+                "SELECT raw_json::text AS json, content_hash, product_ref_id FROM product_raw_data_cache");
+        assertEquals(ContentHash.ofJson(second), ContentHash.ofJson((String) row.get("json")));
+        assertEquals(ContentHash.ofJson(second), row.get("content_hash"));
+        assertEquals(productId, row.get("product_ref_id"));
+    }
+
+    private void runConcurrently(RawCacheWriter writer, boolean flushWhileWriting) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                    String json = "{\"thread\":" + thread + ",\"seq\":" + i + "}";
+                    writer.write("B0PG00000" + (i % ASINS), json, ContentHash.ofJson(json), Duration.ofHours(1));
+                    if (flushWhileWriting && i % 10 == 0) {
+                        writer.flush();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+    }
+
+    private void assertOneConsistentRowPerAsin() {
+        assertEquals(ASINS, jdbc.queryForObject("SELECT COUNT(*) FROM product_raw_data_cache", Integer.class));
+        assertEquals(ASINS, jdbc.queryForObject(
+                "SELECT COUNT(DISTINCT external_product_id) FROM product_raw_data_cache", Integer.class));
+        // The stored hash always belongs to the stored document, whichever writer won
+        for (Map<String, Object> row : jdbc.queryForList(
+                "SELECT raw_json::text AS json, content_hash FROM product_raw_data_cache")) {
+            assertEquals(ContentHash.ofJson((String) row.get("json")), row.get("content_hash"));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.backend.cache;
+
+import com.example.backend.util.ContentHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RawCacheWriterTest {
+
+    private static final int THREADS = 16;
+    private static final int WRITES_PER_THREAD = 50;
+    private static final int ASINS = 5;
+
+    private final RawCacheStorage storage = new RawCacheStorage("json");
+    private final RawDataL1Cache l1 = new RawDataL1Cache(storage, 1 << 20);
+
+    @Test
+    void directModeIsOneUpsertPerWrite() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(42L);
+        RawCacheWriter writer = new RawCacheWriter(jdbc, storage, l1, false, 200);
+
+        RawDataL1Cache.Entry entry = writer.write("B000000001", "{\"title\":\"x\"}", null, Duration.ofHours(1));
+
+        assertEquals(42L, entry.id());
+        assertEquals("x", l1.get("B000000001").orElseThrow().payload().field("title"));
+        verify(jdbc, times(1)).queryForObject(contains("ON CONFLICT (external_product_id)"), eq(Long.class), any(Object[].class));
+        verifyNoMoreInteractions(jdbc);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unchangedContentOnlyRenewsTheExpiry() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(7L);
+        when(jdbc.query(anyString(), any(ResultSetExtractor.class), any(Object[].class))).thenReturn(7L);
+        RawCacheWriter writer = new RawCacheWriter(jdbc, storage, l1, false, 200);
+        String json = "{\"title\":\"same\"}";
+
+        writer.write("B000000002", json, ContentHash.ofJson(json), Duration.ofHours(1));
+        RawDataL1Cache.Entry renewed = writer.write("B000000002", json, ContentHash.ofJson(json), Duration.ofHours(2));
+
+        verify(jdbc, times(1)).queryForObject(contains("INSERT"), eq(Long.class), any(Object[].class));
+        verify(jdbc, times(1)).query(startsWith("UPDATE"), any(ResultSetExtractor.class), any(Object[].class));
+        assertEquals(1L, writer.stats().get("unchanged"));
+        assertEquals(renewed.expiryAt(), l1.get("B000000002").orElseThrow().expiryAt());
+    }
+
+    @Test
+    void rejectsMalformedJsonBeforeTouchingTheDatabase() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        RawCacheWriter writer = new RawCacheWriter(jdbc, storage, l1, false, 200);
+
+        assertThrows(IllegalArgumentException.class, () -> writer.write("B1", "{not json", null, Duration.ofHours(1)));
+        assertThrows(IllegalArgumentException.class, () -> writer.write("B1", "[1,2]", null, Duration.ofHours(1)));
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void writeBehindCoalescesConcurrentWritesIntoOneUpsertPerAsin() throws Exception {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        List<List<Object[]>> batches = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            batches.add(List.copyOf(invocation.getArgument(1)));
+            return null;
+        }).when(jdbc).batchUpdate(anyString(), anyList());
+        // max-batch above the number of ASINs, so nothing flushes while the writers run
+        RawCacheWriter writer = new RawCacheWriter(jdbc, storage, l1, true, 200);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                    String asin = "B00000000" + (i % ASINS);
+                    String json = "{\"thread\":" + thread + ",\"seq\":" + i + "}";
+                    writer.write(asin, json, ContentHash.ofJson(json), Duration.ofHours(1));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        verifyNoInteractions(jdbc);
+        assertEquals(ASINS, writer.stats().get("pending"));
+
+        assertEquals(ASINS, writer.flush());
+
+        int writes = THREADS * WRITES_PER_THREAD;
+        assertEquals(1, batches.size());
+        Set<Object> upserted = new HashSet<>();
+        for (Object[] row : batches.get(0)) {
+            assertTrue(upserted.add(row[0]), "duplicate ASIN in one batch: " + row[0]);
+        }
+        assertEquals(ASINS, upserted.size());
+        verify(jdbc, never()).queryForObject(anyString(), eq(Long.class), any(Object[].class));
+
+        assertEquals(0, writer.stats().get("pending"));
+        assertEquals((long) writes, writer.stats().get("writes"));
+        assertEquals((long) writes - ASINS, writer.stats().get("coalesced"));
+        assertEquals((long) ASINS, writer.stats().get("upsertStatements"));
+    }
+
+    @Test
+    void pendingWriteIsReadableUntilFlushedAndRequeuedOnFailure() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.batchUpdate(anyString(), anyList()))
+                .thenThrow(new org.springframework.dao.QueryTimeoutException("down"))
+                .thenReturn(new int[]{1});
+        RawCacheWriter writer = new RawCacheWriter(jdbc, storage, l1, true, 200);
+
+        writer.write("B1", "{\"v\":1}", null, Duration.ofHours(1));
+        assertEquals(1, writer.pending("B1").orElseThrow().field("v"));
+
+        assertEquals(0, writer.flush());
+        assertTrue(writer.pending("B1").isPresent());
+        assertEquals(1L, writer.stats().get("flushFailures"));
+
+        assertEquals(1, writer.flush());
+        assertTrue(writer.pending("B1").isEmpty());
+    }
+}
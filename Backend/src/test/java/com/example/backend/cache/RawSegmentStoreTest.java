@@ -0,0 +1,79 @@
+package com.example.backend.cache;
+
+import com.example.backend.repository.ProductRawDataCacheRepository;
+import com.example.backend.repository.ProductRawSegmentRepository;
+import com.example.backend.util.ContentHash;
+import com.example.backend.util.RawSegments;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RawSegmentStoreTest {
+
+    private static final String ASIN = "B0STABLE01";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ProductRawDataCacheRepository cacheRepository = mock(ProductRawDataCacheRepository.class);
+    private final RawCacheWriter rawCacheWriter = mock(RawCacheWriter.class);
+    private final RawCacheStorage rawCacheStorage = mock(RawCacheStorage.class);
+    private final RawDataL1Cache rawDataL1Cache = mock(RawDataL1Cache.class);
+    private RawSegmentStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(rawCacheStorage.encode(anyString())).thenAnswer(invocation ->
+                new RawCacheStorage.Encoded(invocation.getArgument(0), null));
+        when(rawDataL1Cache.get(anyString())).thenReturn(Optional.empty());
+        store = new RawSegmentStore(jdbcTemplate, mock(ProductRawSegmentRepository.class), cacheRepository,
+                rawCacheWriter, rawCacheStorage, rawDataL1Cache, new ObjectMapper(), 168, 60, 72);
+    }
+
+    @Test
+    void unchangedStableContentOnlyRewritesThePrice() {
+        Map<String, Object> document = Map.of("title", "Phone", "price", 999.0);
+        cachedStable(ContentHash.of(RawSegments.split(document).stable()), LocalDateTime.now().plusDays(5));
+
+        RawSegmentStore.DetailsWrite write = store.writeDetails(ASIN, document);
+
+        assertFalse(write.stableWritten());
+        verifyNoInteractions(rawCacheWriter);
+    }
+
+    @Test
+    void changedStableContentIsRewrittenBeforeItExpires() {
+        cachedStable(ContentHash.of(Map.of("title", "Demo Product - " + ASIN)), LocalDateTime.now().plusDays(5));
+        Map<String, Object> document = Map.of("title", "Phone", "price", 999.0);
+        String stableHash = ContentHash.of(RawSegments.split(document).stable());
+
+        RawSegmentStore.DetailsWrite write = store.writeDetails(ASIN, document);
+
+        assertTrue(write.stableWritten());
+        verify(rawCacheWriter).write(eq(ASIN), anyString(), eq(stableHash), eq(Duration.ofHours(168)));
+    }
+
+    @Test
+    void changedStableContentKnownOnlyToTheDatabaseIsRewritten() {
+        when(cacheRepository.findContentHashByExternalProductIdAndExpiryAtAfter(eq(ASIN), any()))
+                .thenReturn(Optional.of(() -> ContentHash.of(Map.of("title", "Old title"))));
+
+        RawSegmentStore.DetailsWrite write = store.writeDetails(ASIN, Map.of("title", "New title", "price", 999.0));
+
+        assertTrue(write.stableWritten());
+        verify(rawCacheWriter).write(eq(ASIN), anyString(), anyString(), any());
+    }
+
+    private void cachedStable(String contentHash, LocalDateTime expiryAt) {
+        when(rawDataL1Cache.get(ASIN)).thenReturn(Optional.of(
+                new RawDataL1Cache.Entry(1L, ASIN, null, contentHash, LocalDateTime.now(), expiryAt)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.backend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the review upserts against a real Postgres; skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReviewStorePostgresTest {
+
+    @Container
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void createSchema() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        jdbc.execute("""
+                CREATE TABLE product_review (
+                    id BIGSERIAL PRIMARY KEY,
+                    external_product_id VARCHAR(255) NOT NULL,
+                    review_key VARCHAR(64) NOT NULL,
+                    raw_json JSON NOT NULL,
+                    fetched_at TIMESTAMP NOT NULL,
+                    expiry_at TIMESTAMP NOT NULL,
+                    CONSTRAINT uk_product_review_product_key UNIQUE (external_product_id, review_key)
+                )""");
+    }
+
+    @Test
+    void pagesAreUpsertedByReviewKeyAndReadBackInArrivalOrder() {
+        ReviewStore store = new ReviewStore(jdbc, new ObjectMapper(), 72);
+
+        store.append("B0RV000001", List.of(
+                Map.of("review_id", "R1", "review_comment", "first"),
+                Map.of("review_author", "ann", "review_title", "ok", "review_comment", "no id")));
+        // The second page repeats R1 with an edited text
+        store.append("B0RV000001", List.of(
+                Map.of("review_id", "R1", "review_comment", "edited"),
+                Map.of("review_id", "R2", "review_comment", "second")));
+        store.append("B0RV000002", List.of(Map.of("review_id", "R1", "review_comment", "other product")));
+
+        List<Map<String, Object>> reviews = store.find("B0RV000001", 10);
+        assertEquals(List.of("edited", "no id", "second"),
+                reviews.stream().map(review -> review.get("review_comment")).toList());
+        assertEquals(2, store.find("B0RV000001", 2).size());
+        assertEquals(5L, store.stats().get("reviewsWritten"));
+
+        assertEquals(0, store.deleteExpiredBatch(LocalDateTime.now(), 100));
+        assertEquals(4, store.deleteExpiredBatch(LocalDateTime.now().plusHours(73), 100));
+        assertTrue(store.find("B0RV000001", 10).isEmpty());
+    }
+}
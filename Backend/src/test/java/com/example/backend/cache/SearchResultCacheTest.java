@@ -0,0 +1,52 @@
+package com.example.backend.cache;
+
+import com.example.backend.client.RequestPriority;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SearchResultCacheTest {
+
+    // Runs background refreshes on the calling thread
+    private final ExecutorService inline = mock(ExecutorService.class);
+    private final SearchResultCache cache = new SearchResultCache(inline, 100, 300, 3600);
+    private final List<RequestPriority> loads = new ArrayList<>();
+
+    SearchResultCacheTest() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(inline).execute(any());
+    }
+
+    @Test
+    void freshLoadIsServedFromTheCache() {
+        assertEquals(List.of("B1"), cache.get("phone", (query, priority) -> load(priority, false)));
+        assertEquals(List.of("B1"), cache.get("phone", (query, priority) -> load(priority, false)));
+
+        assertEquals(List.of(RequestPriority.SEARCH), loads);
+    }
+
+    @Test
+    void staleLoadIsServedButRevalidatedOnTheNextLookup() {
+        assertEquals(List.of("B1"), cache.get("phone", (query, priority) -> load(priority, true)));
+        assertEquals(List.of("B1"), cache.get("phone", (query, priority) -> load(priority, false)));
+        // The background refresh stored a fresh entry
+        assertEquals(List.of("B1"), cache.get("phone", (query, priority) -> load(priority, false)));
+
+        assertEquals(List.of(RequestPriority.SEARCH, RequestPriority.BACKGROUND), loads);
+        assertEquals(1L, cache.stats().get("staleLoads"));
+        assertEquals(1L, cache.stats().get("staleHits"));
+    }
+
+    private SearchResultCache.Loaded load(RequestPriority priority, boolean stale) {
+        loads.add(priority);
+        return new SearchResultCache.Loaded(List.of("B1"), stale);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.backend.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiServiceClientTest {
+
+    private final CountDownLatch requestArrived = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+    private String url;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/analyze", exchange -> {
+            requestArrived.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"decision\":\"BUY\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/analyze";
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void fullQueueFailsFastWhileTheSlotIsBusy() throws Exception {
+        AiServiceClient client = new AiServiceClient(url, 1000, 5000, 1, 0, 2000);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> client.post("{}").getBody());
+        assertTrue(requestArrived.await(5, TimeUnit.SECONDS));
+        assertEquals(1, client.stats().get("inFlight"));
+
+        long startedAt = System.nanoTime();
+        assertThrows(AiServiceBusyException.class, () -> client.post("{}"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < 1000, "rejection should not wait");
+        assertEquals(1L, client.stats().get("rejectedQueueFull"));
+
+        release.countDown();
+        assertEquals("{\"decision\":\"BUY\"}", first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, client.stats().get("inFlight"));
+        client.shutdown();
+    }
+
+    @Test
+    void queuedCallGivesUpAfterMaxWait() throws Exception {
+        AiServiceClient client = new AiServiceClient(url, 1000, 5000, 1, 1, 50);
+
+        CompletableFuture.runAsync(() -> client.post("{}"));
+        assertTrue(requestArrived.await(5, TimeUnit.SECONDS));
+
+        assertThrows(AiServiceBusyException.class, () -> client.post("{}"));
+        assertEquals(1L, client.stats().get("rejectedWaitTimeout"));
+        assertEquals(0, client.stats().get("waiting"));
+        client.shutdown();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.backend.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductDetailsParserTest {
+
+    private final JsonFactory factory = new JsonFactory();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void extractsTheScalarFieldsUnderData() throws Exception {
+        ProductDetailsParser.Result result = parse("""
+                {"status":"OK","request_id":"r-1","data":{"asin":"B0TEST0001",
+                 "product_title":"Apple iPhone 15","product_price":"₹69,900","product_photo":"https://img/1.jpg",
+                 "product_url":"https://amazon.in/dp/B0TEST0001","product_star_rating":4.6,
+                 "product_num_ratings":1234,"product_details":{"product_title":"nested, not extracted"}}}""");
+
+        assertEquals(Map.of(
+                "product_title", "Apple iPhone 15",
+                "product_price", "₹69,900",
+                "product_photo", "https://img/1.jpg",
+                "product_url", "https://amazon.in/dp/B0TEST0001",
+                "product_star_rating", 4.6,
+                "product_num_ratings", 1234), result.fields());
+        assertEquals("fallback", result.field("product_original_price", "fallback"));
+    }
+
+    @Test
+    void fieldsOutsideDataAndNonScalarValuesAreIgnored() throws Exception {
+        ProductDetailsParser.Result result = parse("""
+                {"product_title":"top level","data":{"product_photo":["a.jpg","b.jpg"],"product_url":null}}""");
+
+        assertNull(result.field("product_title"));
+        assertNull(result.field("product_photo"));
+        assertTrue(result.fields().containsKey("product_url"));
+        assertNull(result.field("product_url"));
+    }
+
+    @Test
+    void missingOrNullDataYieldsNoRawJson() throws Exception {
+        for (String body : new String[]{
+                "{\"status\":\"OK\"}",
+                "{\"status\":\"OK\",\"data\":null}",
+                "{\"status\":\"ERROR\",\"data\":[]}",
+                "[]"}) {
+            ProductDetailsParser.Result result = parse(body);
+
+            assertNull(result.data(), body);
+            assertTrue(result.fields().isEmpty(), body);
+        }
+    }
+
+    @Test
+    void copiesNestedEscapedAndUnicodeContentByteForByte() throws Exception {
+        String data = "{\"product_title\":\"Tata \\\"Sampann\\\" Dal\\\\Arhar\\n1kg\","
+                + "\"about\":[\"हिंदी विवरण\",\"café 😀\",{\"deep\":{\"deeper\":[1,1.50,-3e-7,12345678901234567890,true,false,null]}}],"
+                + "\"empty\":{},\"none\":[]}";
+
+        ProductDetailsParser.Result result = parse("{\"status\":\"OK\",\"data\":" + data + ",\"after\":1}");
+
+        assertArrayEquals(data.getBytes(StandardCharsets.UTF_8), result.data().bytes());
+        assertEquals("Tata \"Sampann\" Dal\\Arhar\n1kg", result.field("product_title"));
+    }
+
+    @Test
+    void unicodeEscapesDecodeToTheSameValues() throws Exception {
+        ProductDetailsParser.Result result = parse("{\"data\":{\"product_title\":\"caf\\u00e9 \\ud83d\\ude00\"}}");
+
+        assertEquals("café 😀", result.field("product_title"));
+        assertEquals(Map.of("product_title", "café 😀"), objectMapper.readValue(result.data().bytes(), Map.class));
+    }
+
+    private ProductDetailsParser.Result parse(String body) throws Exception {
+        return ProductDetailsParser.parse(factory, body.getBytes(StandardCharsets.UTF_8));
+    }
+}
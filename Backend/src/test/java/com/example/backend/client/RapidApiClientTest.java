@@ -0,0 +1,93 @@
+package com.example.backend.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RapidApiClientTest {
+
+    private final AtomicInteger status = new AtomicInteger(500);
+    private final RapidApiQuotaGovernor governor = mock(RapidApiQuotaGovernor.class);
+    private HttpServer server;
+    private RapidApiClient client;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/product-details", exchange -> {
+            byte[] body = "{\"data\":{}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.get(), body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        client = new RapidApiClient(governor);
+        ReflectionTestUtils.setField(client, "rapidApiKey", "key");
+        ReflectionTestUtils.setField(client, "rapidApiHost", "host");
+        ReflectionTestUtils.setField(client, "rapidApiBaseUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(client, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(client, "executorThreads", 2);
+        ReflectionTestUtils.setField(client, "searchTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(client, "detailsTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(client, "reviewsTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(client, "circuitFailureThreshold", 1);
+        ReflectionTestUtils.setField(client, "circuitOpenMs", 1L);
+        ReflectionTestUtils.setField(client, "circuitMaxOpenMs", 1L);
+        ReflectionTestUtils.setField(client, "lastGoodMaxEntries", 10);
+        client.init();
+    }
+
+    @AfterEach
+    void stop() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void malformedQueryDuringTheProbeReleasesIt() throws Exception {
+        openCircuit();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> client.get(RapidApiClient.Endpoint.PRODUCT_DETAILS, "asin=a b|c", RequestPriority.INTERACTIVE));
+
+        assertProbeStillAvailable();
+    }
+
+    @Test
+    void unexpectedGovernorErrorDuringTheProbeReleasesIt() throws Exception {
+        openCircuit();
+        doThrow(new IllegalStateException("boom")).doNothing().when(governor).acquire(any());
+
+        assertThrows(IllegalStateException.class,
+                () -> client.get(RapidApiClient.Endpoint.PRODUCT_DETAILS, "asin=B1", RequestPriority.INTERACTIVE));
+
+        assertProbeStillAvailable();
+    }
+
+    private void openCircuit() throws Exception {
+        RapidApiResponse failed = client.get(RapidApiClient.Endpoint.PRODUCT_DETAILS, "asin=B1", RequestPriority.INTERACTIVE);
+        assertEquals(500, failed.statusCode());
+        assertFalse(client.isAvailable(RapidApiClient.Endpoint.PRODUCT_DETAILS));
+        // Let the 1 ms open interval pass so the next call becomes the HALF_OPEN probe
+        Thread.sleep(20);
+    }
+
+    private void assertProbeStillAvailable() throws Exception {
+        status.set(200);
+        RapidApiResponse response = client.get(RapidApiClient.Endpoint.PRODUCT_DETAILS, "asin=B1", RequestPriority.INTERACTIVE);
+        assertEquals(200, response.statusCode());
+        assertFalse(response.stale());
+        assertTrue(client.isAvailable(RapidApiClient.Endpoint.PRODUCT_DETAILS));
+    }
+}
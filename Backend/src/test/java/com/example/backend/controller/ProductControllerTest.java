@@ -0,0 +1,126 @@
+package com.example.backend.controller;
+
+import com.example.backend.client.RequestPriority;
+import com.example.backend.entity.Product;
+import com.example.backend.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class ProductControllerTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final ExecutorService outboundExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        outboundExecutor.shutdownNow();
+    }
+
+    @Test
+    void lookupPastTheSearchDeadlineIsInterrupted() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(productService.searchAsins("slow")).thenReturn(List.of("B0SLOW0001"));
+        when(productService.findByProductIds(anyCollection())).thenReturn(List.of());
+        when(productService.fetchProductDetails("B0SLOW0001", RequestPriority.SEARCH)).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return Map.of();
+        });
+
+        ProductController controller = controller(50L);
+
+        ResponseEntity<List<Map<String, Object>>> response = controller.searchProducts("slow");
+
+        assertEquals("Product B0SLOW0001", response.getBody().getFirst().get("name"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "timed-out lookup kept running");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamSendsCardsInCompletionOrderThenPlaceholdersThenSummary() throws Exception {
+        CountDownLatch fastDone = new CountDownLatch(1);
+        when(productService.searchAsins("phones")).thenReturn(List.of("B0SLOW0001", "B0FAST0001", "B0HANG0001", "B0KNOWN001"));
+        Product known = new Product();
+        known.setProductId("B0KNOWN001");
+        known.setProductName("Known phone");
+        when(productService.findByProductIds(anyCollection())).thenReturn(List.of(known));
+        when(productService.fetchProductDetails("B0FAST0001", RequestPriority.SEARCH)).thenAnswer(invocation -> {
+            fastDone.countDown();
+            return Map.of("title", "Fast phone");
+        });
+        when(productService.fetchProductDetails("B0SLOW0001", RequestPriority.SEARCH)).thenAnswer(invocation -> {
+            fastDone.await();
+            Thread.sleep(200);
+            return Map.of("title", "Slow phone");
+        });
+        when(productService.fetchProductDetails("B0HANG0001", RequestPriority.SEARCH)).thenAnswer(invocation -> {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            return Map.of();
+        });
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller(1_000L)).build();
+
+        MvcResult result = mockMvc.perform(get("/api/products/search/stream").param("query", "phones"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(TimeUnit.SECONDS.toMillis(5));
+
+        List<String> names = new ArrayList<>();
+        List<Map<String, Object>> data = new ArrayList<>();
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (String event : result.getResponse().getContentAsString().split("\n\n")) {
+            Map<String, String> lines = new HashMap<>();
+            for (String line : event.split("\n")) {
+                int colon = line.indexOf(':');
+                lines.put(line.substring(0, colon), line.substring(colon + 1));
+            }
+            names.add(lines.get("event"));
+            data.add(objectMapper.readValue(lines.get("data"), Map.class));
+        }
+
+        assertEquals(List.of("product", "product", "product", "product", "summary"), names);
+        // The DB hit is ready first, then upstream answers as they finish, then the placeholder
+        assertEquals(List.of("Known phone", "Fast phone", "Slow phone", "Product B0HANG0001"),
+                data.subList(0, 4).stream().map(card -> card.get("name")).toList());
+        assertEquals(List.of(3, 1, 0, 2), data.subList(0, 4).stream().map(card -> card.get("index")).toList());
+
+        Map<String, Object> summary = data.get(4);
+        assertEquals("phones", summary.get("query"));
+        assertEquals(4, summary.get("total"));
+        assertEquals(3, summary.get("resolved"));
+        assertEquals(0, summary.get("failed"));
+        assertEquals(List.of("B0HANG0001"), summary.get("timedOut"));
+    }
+
+    private ProductController controller(long searchDeadlineMs) {
+        ProductController controller = new ProductController(productService, null, null, null,
+                outboundExecutor, null, null, null, null);
+        ReflectionTestUtils.setField(controller, "searchMaxConcurrency", 5);
+        ReflectionTestUtils.setField(controller, "searchDeadlineMs", searchDeadlineMs);
+        return controller;
+    }
+}
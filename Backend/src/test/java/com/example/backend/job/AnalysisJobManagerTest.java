@@ -0,0 +1,81 @@
+package com.example.backend.job;
+
+import com.example.backend.service.ProductAnalysisService;
+import com.example.backend.service.ProductAnalysisService.Outcome;
+import com.example.backend.service.ProductAnalysisService.Stage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AnalysisJobManagerTest {
+
+    private final ProductAnalysisService pipeline = mock(ProductAnalysisService.class);
+    private AnalysisJobManager manager;
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void jobReportsStagesAndResult() throws Exception {
+        when(pipeline.analyze(eq("B0TEST0001"), any(), any(), any())).thenAnswer(invocation -> {
+            Consumer<Stage> stages = invocation.getArgument(3);
+            stages.accept(Stage.LOOKUP);
+            stages.accept(Stage.AI);
+            return Outcome.ok(Map.of("id", "1", "verdict", "BUY"));
+        });
+        manager = new AnalysisJobManager(pipeline, 1, 10, 15);
+
+        AnalysisJob job = manager.submit("B0TEST0001", "Test", () -> null);
+        awaitFinished(job);
+
+        Map<String, Object> snapshot = job.snapshot();
+        assertEquals("SUCCEEDED", snapshot.get("state"));
+        assertEquals("AI", snapshot.get("stage"));
+        assertEquals(200, snapshot.get("httpStatus"));
+        assertEquals("BUY", ((Map<String, Object>) snapshot.get("result")).get("verdict"));
+        assertTrue(((Map<String, Long>) snapshot.get("stageTimingsMs")).keySet().containsAll(List.of("LOOKUP", "AI")));
+        assertEquals(job, manager.find(job.getId()).orElseThrow());
+        assertEquals(1L, manager.stats().get("succeeded"));
+    }
+
+    @Test
+    void fullQueueRejectsFast() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(pipeline.analyze(any(), any(), any(), any())).thenAnswer(invocation -> {
+            release.await();
+            return Outcome.ok(Map.of());
+        });
+        manager = new AnalysisJobManager(pipeline, 1, 1, 15);
+
+        AnalysisJob running = manager.submit("B1", null, () -> null);
+        AnalysisJob queued = manager.submit("B2", null, () -> null);
+        assertThrows(RejectedExecutionException.class, () -> manager.submit("B3", null, () -> null));
+        assertEquals(1L, manager.stats().get("rejected"));
+
+        release.countDown();
+        awaitFinished(running);
+        awaitFinished(queued);
+        assertEquals(2L, manager.stats().get("succeeded"));
+    }
+
+    private static void awaitFinished(AnalysisJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.isFinished()) {
+            assertTrue(System.nanoTime() < deadline, "job did not finish");
+            Thread.sleep(10);
+        }
+    }
+}
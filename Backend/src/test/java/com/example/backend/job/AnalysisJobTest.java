@@ -0,0 +1,68 @@
+package com.example.backend.job;
+
+import com.example.backend.service.ProductAnalysisService.Outcome;
+import com.example.backend.service.ProductAnalysisService.Stage;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisJobTest {
+
+    @Test
+    void stalledSubscriberDoesNotHoldTheJob() throws Exception {
+        AnalysisJob job = new AnalysisJob("B0TEST0001", "Test");
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger sends = new AtomicInteger();
+        job.subscribe(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                // The initial snapshot goes through; the first transition stalls
+                if (sends.incrementAndGet() == 2) {
+                    sending.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+
+        Thread worker = Thread.ofVirtual().start(() -> {
+            job.started();
+            job.enter(Stage.LOOKUP);
+            job.finish(Outcome.ok(Map.of("verdict", "BUY")));
+        });
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        // Readers and late subscribers are not blocked behind the stalled send
+        AtomicInteger lateSends = new AtomicInteger();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertEquals("RUNNING", job.snapshot().get("state"));
+            job.subscribe(new SseEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) {
+                    lateSends.incrementAndGet();
+                }
+            });
+        });
+        assertEquals(1, lateSends.get());
+
+        release.countDown();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(worker.isAlive());
+        assertEquals("SUCCEEDED", job.snapshot().get("state"));
+        // Snapshot, LOOKUP and result for each; started() reached only the first subscriber
+        assertEquals(4, sends.get());
+        assertEquals(3, lateSends.get());
+    }
+}
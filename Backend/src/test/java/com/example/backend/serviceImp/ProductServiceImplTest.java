@@ -0,0 +1,203 @@
+package com.example.backend.serviceImp;
+
+import com.example.backend.cache.NegativeResultCache;
+import com.example.backend.cache.RawCacheStorage;
+import com.example.backend.cache.RawSegmentStore;
+import com.example.backend.client.CircuitOpenException;
+import com.example.backend.client.QuotaExceededException;
+import com.example.backend.client.RapidApiClient;
+import com.example.backend.client.RapidApiResponse;
+import com.example.backend.client.RequestPriority;
+import com.example.backend.entity.ProductRawDataCache;
+import com.example.backend.entity.ProductRawSegment;
+import com.example.backend.repository.ProductRawDataCacheRepository;
+import com.example.backend.service.ProductService;
+import com.example.backend.util.BrandMatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceImplTest {
+
+    private static final String DETAILS = """
+            {"status":"OK","data":{"product_title":"Apple iPhone 15","product_price":"₹69,900",
+             "product_star_rating":"4.6","product_num_ratings":"1,234","specs":{"colour":"Black"}}}""";
+
+    @Mock
+    private RapidApiClient rapidApiClient;
+    @Mock
+    private NegativeResultCache negativeResultCache;
+    @Mock
+    private ProductRawDataCacheRepository rawDataCacheRepository;
+    @Mock
+    private RawCacheStorage rawCacheStorage;
+    @Mock
+    private RawSegmentStore rawSegmentStore;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @Spy
+    private BrandMatcher brandMatcher = BrandMatcher.of(Map.of("Apple", List.of("iphone")));
+
+    // Collaborators without a mock above are passed as null; the details path does not use them
+    @InjectMocks
+    private ProductServiceImpl service;
+
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void joinerRetriesWhenTheLeaderIsShedAtItsLowerPriority() throws Exception {
+        CountDownLatch leaderInFlight = new CountDownLatch(1);
+        CountDownLatch releaseLeader = new CountDownLatch(1);
+        when(rapidApiClient.get(eq(RapidApiClient.Endpoint.PRODUCT_DETAILS), anyString(), eq(RequestPriority.SEARCH)))
+                .thenAnswer(invocation -> {
+                    leaderInFlight.countDown();
+                    releaseLeader.await();
+                    throw new QuotaExceededException("search budget spent");
+                });
+        when(rapidApiClient.get(eq(RapidApiClient.Endpoint.PRODUCT_DETAILS), anyString(), eq(RequestPriority.INTERACTIVE)))
+                .thenReturn(new RapidApiResponse(200, DETAILS.getBytes(StandardCharsets.UTF_8), false));
+
+        Future<Map<String, Object>> search =
+                callers.submit(() -> service.fetchProductDetails("B0SHED0001", RequestPriority.SEARCH));
+        assertTrue(leaderInFlight.await(5, TimeUnit.SECONDS));
+        Future<Map<String, Object>> interactive =
+                callers.submit(() -> service.fetchProductDetails("B0SHED0001", RequestPriority.INTERACTIVE));
+        awaitCoalesced(1);
+        releaseLeader.countDown();
+
+        assertEquals(true, search.get(5, TimeUnit.SECONDS).get("mock_data"));
+        Map<String, Object> details = interactive.get(5, TimeUnit.SECONDS);
+        assertEquals("Apple iPhone 15", details.get("title"));
+        assertNull(details.get("mock_data"));
+        verify(rapidApiClient).get(any(), anyString(), eq(RequestPriority.INTERACTIVE));
+    }
+
+    @Test
+    void joinersShareAnUpstreamAnswerAsIndependentCopies() throws Exception {
+        CountDownLatch leaderInFlight = new CountDownLatch(1);
+        CountDownLatch releaseLeader = new CountDownLatch(1);
+        when(rapidApiClient.get(any(), anyString(), any())).thenAnswer(invocation -> {
+            leaderInFlight.countDown();
+            releaseLeader.await();
+            return new RapidApiResponse(200, DETAILS.getBytes(StandardCharsets.UTF_8), false);
+        });
+        Future<Map<String, Object>> leader =
+                callers.submit(() -> service.fetchProductDetails("B0SHARED01", RequestPriority.INTERACTIVE));
+        assertTrue(leaderInFlight.await(5, TimeUnit.SECONDS));
+        Future<Map<String, Object>> joiner =
+                callers.submit(() -> service.fetchProductDetails("B0SHARED01", RequestPriority.INTERACTIVE));
+        awaitCoalesced(1);
+        releaseLeader.countDown();
+
+        Map<String, Object> leaderDetails = leader.get(5, TimeUnit.SECONDS);
+        Map<String, Object> joinerDetails = joiner.get(5, TimeUnit.SECONDS);
+        assertEquals(leaderDetails, joinerDetails);
+        leaderDetails.put("title", "changed by the leader");
+        assertEquals("Apple iPhone 15", joinerDetails.get("title"));
+        verify(rapidApiClient, times(1)).get(any(), anyString(), any());
+    }
+
+    @Test
+    void interruptedJoinerStopsWaitingAndFallsBack() throws Exception {
+        CountDownLatch leaderInFlight = new CountDownLatch(1);
+        CountDownLatch releaseLeader = new CountDownLatch(1);
+        when(rapidApiClient.get(any(), anyString(), any())).thenAnswer(invocation -> {
+            leaderInFlight.countDown();
+            releaseLeader.await();
+            return new RapidApiResponse(200, DETAILS.getBytes(StandardCharsets.UTF_8), false);
+        });
+        Future<Map<String, Object>> leader =
+                callers.submit(() -> service.fetchProductDetails("B0JOINED01", RequestPriority.INTERACTIVE));
+        assertTrue(leaderInFlight.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<Map<String, Object>> joinerDetails = new AtomicReference<>();
+        AtomicReference<Boolean> joinerInterrupted = new AtomicReference<>();
+        Thread joiner = Thread.ofVirtual().start(() -> {
+            joinerDetails.set(service.fetchProductDetails("B0JOINED01", RequestPriority.SEARCH));
+            joinerInterrupted.set(Thread.currentThread().isInterrupted());
+        });
+        awaitCoalesced(1);
+        joiner.interrupt();
+        joiner.join(TimeUnit.SECONDS.toMillis(5));
+
+        // The joiner returned while the leader is still blocked upstream
+        assertFalse(joiner.isAlive());
+        assertEquals(true, joinerDetails.get().get("mock_data"));
+        assertTrue(joinerInterrupted.get());
+        assertFalse(leader.isDone());
+
+        releaseLeader.countDown();
+        assertEquals("Apple iPhone 15", leader.get(5, TimeUnit.SECONDS).get("title"));
+        verify(rapidApiClient, times(1)).get(any(), anyString(), any());
+    }
+
+    @Test
+    void staleLastGoodBodyIsMarkedAndKeepsTheNegativeEntry() throws Exception {
+        when(rapidApiClient.get(any(), anyString(), any()))
+                .thenReturn(new RapidApiResponse(200, DETAILS.getBytes(StandardCharsets.UTF_8), true));
+
+        Map<String, Object> details = service.fetchProductDetails("B0STALE001", RequestPriority.BACKGROUND);
+
+        assertEquals("Apple iPhone 15", details.get("title"));
+        assertEquals(true, details.get(ProductService.STALE_FIELD));
+        assertFalse(ProductService.isFreshDetails(details));
+        verify(negativeResultCache, never()).clear(anyString());
+    }
+
+    @Test
+    void circuitOpenFallbackMarksTheExpiredCachedDocumentStale() throws Exception {
+        ProductRawDataCache row = new ProductRawDataCache();
+        when(rapidApiClient.get(any(), anyString(), any())).thenThrow(new CircuitOpenException("circuit open"));
+        when(rawDataCacheRepository.findByExternalProductId("B0CACHED01")).thenReturn(Optional.of(row));
+        when(rawCacheStorage.read(row)).thenReturn(new LinkedHashMap<>(Map.of("title", "Cached title")));
+        when(rawSegmentStore.findLastKnown("B0CACHED01", ProductRawSegment.Segment.PRICE))
+                .thenReturn(Optional.of(Map.of("price", 999.0)));
+
+        Map<String, Object> details = service.fetchProductDetails("B0CACHED01", RequestPriority.BACKGROUND);
+
+        assertEquals("Cached title", details.get("title"));
+        assertEquals(999.0, details.get("price"));
+        assertEquals(true, details.get(ProductService.STALE_FIELD));
+        assertFalse(ProductService.isFreshDetails(details));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Map<String, Object> stats = (Map<String, Object>) service.getCoalescingStats().get("productDetails");
+            if ((long) stats.get("coalesced") >= expected) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("no caller joined the in-flight fetch");
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiPayloadProjectionTest {
+
+    private static final AiPayloadProjection.Limits LIMITS = new AiPayloadProjection.Limits(5, 20, 30, 2, 3);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsPromptFieldsAndDropsTheRest() {
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("product_title", "Phone X");
+        raw.put("product_photos", List.of("a.jpg", "b.jpg", "c.jpg"));
+        raw.put("product_variations", Map.of("color", List.of("red", "blue")));
+        raw.put("about_product", List.of("Fast", "A very long bullet point that goes on and on", "Third"));
+        raw.put("product_information", Map.of("RAM", "8 GB"));
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("asin", "B0TEST0001");
+        document.put("brand", "Acme");
+        document.put("price", 999.0);
+        document.put("raw", raw);
+
+        Map<String, Object> projected = AiPayloadProjection.project(document, LIMITS);
+
+        assertEquals(AiPayloadProjection.VERSION, projected.get("payload_version"));
+        assertEquals("Phone X", projected.get("title"));
+        assertEquals("Acme", projected.get("brand"));
+        assertEquals(999.0, projected.get("price"));
+        assertEquals(Map.of("RAM", "8 GB"), projected.get("specifications"));
+        List<String> features = (List<String>) projected.get("features");
+        assertEquals(2, features.size());
+        assertTrue(features.get(1).endsWith("…") && features.get(1).length() <= 31);
+        assertFalse(projected.containsKey("raw"));
+        assertFalse(projected.toString().contains("a.jpg"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void samplesReviewsAcrossRatingsAndKeepsEveryRating() {
+        List<Map<String, Object>> reviews = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            reviews.add(review(5, "great ".repeat(i + 1)));
+        }
+        for (int i = 0; i < 6; i++) {
+            reviews.add(review(4, "good"));
+        }
+        reviews.add(review(1, "broke after a week"));
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("title", "Phone X");
+        document.put("reviews", reviews);
+
+        Map<String, Object> projected = AiPayloadProjection.project(document, LIMITS);
+
+        List<Map<String, Object>> sample = (List<Map<String, Object>>) projected.get("reviews");
+        assertEquals(5, sample.size());
+        List<Object> stars = sample.stream().map(r -> r.get("review_star_rating")).toList();
+        assertEquals(List.of(5, 5, 5, 4, 1), stars);
+        // Longest five-star review first, cut to max-review-chars
+        assertEquals("great great great gr…", sample.get(0).get("review_comment"));
+        assertEquals(27, ((List<Double>) projected.get("ratings")).size());
+    }
+
+    @Test
+    void truncateNeverSplitsASurrogatePair() {
+        String text = "abc😀def";
+        assertEquals("abc…", AiPayloadProjection.truncate(text, 4));
+        assertEquals(text, AiPayloadProjection.truncate(text, 0));
+    }
+
+    private static Map<String, Object> review(int stars, String comment) {
+        Map<String, Object> review = new LinkedHashMap<>();
+        review.put("review_star_rating", stars);
+        review.put("review_comment", comment);
+        review.put("review_author", "someone");
+        review.put("review_images", List.of("x.jpg"));
+        return review;
+    }
+}
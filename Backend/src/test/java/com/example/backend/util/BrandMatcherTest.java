@@ -0,0 +1,86 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BrandMatcherTest {
+
+    private static BrandMatcher matcher;
+
+    @BeforeAll
+    static void loadDictionary() throws Exception {
+        try (InputStream in = BrandMatcherTest.class.getResourceAsStream("/brands/brands.txt")) {
+            matcher = BrandMatcher.load(in);
+        }
+    }
+
+    @Test
+    void recognisesBrandsOfTheOldContainsChain() {
+        assertEquals("Apple", matcher.match("Apple iPhone 15 (128 GB) - Black"));
+        assertEquals("Apple", matcher.match("iPhone 13 mini"));
+        assertEquals("Samsung", matcher.match("Samsung Galaxy S24 Ultra 5G"));
+        assertEquals("OnePlus", matcher.match("OnePlus Nord CE4 Lite"));
+        assertEquals("Vivo", matcher.match("vivo T3x 5G"));
+        assertEquals("Oppo", matcher.match("OPPO A79 5G"));
+        assertEquals("Xiaomi", matcher.match("Redmi Note 13 Pro"));
+        assertEquals("Asus", matcher.match("ASUS ROG Phone 8"));
+        assertEquals("Realme", matcher.match("realme narzo 70x"));
+        assertEquals("Motorola", matcher.match("Moto G85 5G"));
+    }
+
+    @Test
+    void onlyMatchesWholeWords() {
+        // "oppo" inside "opposite", "moto" inside "motor"
+        assertNull(matcher.match("Opposite-side mounting bracket"));
+        assertNull(matcher.match("Brushless motor spare"));
+        // digits next to an alias still count as a boundary
+        assertEquals("OnePlus", matcher.match("OnePlus12R"));
+    }
+
+    @Test
+    void prefersLeftmostThenLongestMatch() {
+        assertEquals("Spigen", matcher.match("Spigen case compatible with iPhone 15"));
+        assertEquals("Tata Sampann", matcher.match("Tata Sampann Turmeric Powder"));
+        assertEquals("Western Digital", matcher.match("WD Elements 2TB"));
+    }
+
+    @Test
+    void overlappingAliasesResolveThroughFailureLinks() {
+        BrandMatcher small = BrandMatcher.of(Map.of(
+                "Blue Star Cool", List.of(),
+                "Star", List.of(),
+                "Cool Air", List.of()));
+        assertEquals("Blue Star Cool", small.match("blue star cool air cooler"));
+        // "blue star coo" dead-ends, the match for "star" is reached through its failure link
+        assertEquals("Star", small.match("blue star coop"));
+        assertEquals("Cool Air", small.match("a cool air fan"));
+    }
+
+    @Test
+    void mixesAsciiTableAndNonAsciiTransitions() {
+        BrandMatcher small = BrandMatcher.of(Map.of(
+                "Café Coffee Day", List.of("ccd"),
+                "Cafe", List.of()));
+        assertEquals("Café Coffee Day", small.match("CAFÉ COFFEE DAY filter coffee"));
+        // Without the accent only the ASCII alias matches
+        assertEquals("Cafe", small.match("Cafe coffee night"));
+        assertEquals("Café Coffee Day", small.match("Ünique CCD mug"));
+        assertNull(small.match("cafés"));
+    }
+
+    @Test
+    void handlesMissingInput() {
+        assertNull(matcher.match(null));
+        assertNull(matcher.match(""));
+        assertNull(matcher.match("Generic USB cable"));
+        assertTrue(matcher.brandCount() > 200);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentHashTest {
+
+    private static Map<String, Object> document() {
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("product_title", "Samsung Galaxy M14");
+        raw.put("product_photos", List.of("a.jpg", "b.jpg"));
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("title", "Samsung Galaxy M14");
+        document.put("price", 13499.0);
+        document.put("raw", raw);
+        return document;
+    }
+
+    @Test
+    void isSixtyFourHexCharacters() {
+        assertTrue(ContentHash.of(document()).matches("[0-9a-f]{64}"));
+    }
+
+    @Test
+    void ignoresKeyOrderAndNumberFormatting() {
+        String json = "{ \"raw\": {\"product_photos\": [\"a.jpg\",\"b.jpg\"], \"product_title\": \"Samsung Galaxy M14\"},"
+                + " \"price\": 13499, \"title\": \"Samsung Galaxy M14\" }";
+
+        assertEquals(ContentHash.of(document()), ContentHash.ofJson(json));
+        assertEquals(ContentHash.ofJson("{\"p\":1.0E3}"), ContentHash.ofJson("{\"p\":1000}"));
+    }
+
+    @Test
+    void rawJsonHashesLikeTheParsedValue() {
+        Map<String, Object> document = document();
+        Map<String, Object> withRawJson = new LinkedHashMap<>(document);
+        withRawJson.put("raw", new RawJson(
+                "{\"product_title\":\"Samsung Galaxy M14\",\"product_photos\":[\"a.jpg\",\"b.jpg\"]}"
+                        .getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(ContentHash.of(document), ContentHash.of(withRawJson));
+    }
+
+    @Test
+    void anyChangeChangesTheHash() {
+        Map<String, Object> changed = document();
+        changed.put("price", 12999.0);
+        assertNotEquals(ContentHash.of(document()), ContentHash.of(changed));
+
+        // Array order is content
+        assertNotEquals(ContentHash.ofJson("[1,2]"), ContentHash.ofJson("[2,1]"));
+    }
+
+    @Test
+    void rejectsMalformedJson() {
+        assertThrows(IllegalArgumentException.class, () -> ContentHash.ofJson("{\"a\":"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyRecorderTest {
+
+    @Test
+    void reportsNearestRankPercentilesInMillis() {
+        LatencyRecorder recorder = new LatencyRecorder(100);
+        for (int ms = 1; ms <= 100; ms++) {
+            recorder.record(TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+
+        Map<String, Object> stats = recorder.stats();
+        assertEquals(100L, stats.get("count"));
+        assertEquals(50.5, stats.get("avgMs"));
+        assertEquals(50.0, stats.get("p50Ms"));
+        assertEquals(95.0, stats.get("p95Ms"));
+        assertEquals(99.0, stats.get("p99Ms"));
+        assertEquals(100.0, stats.get("maxMs"));
+    }
+
+    @Test
+    void percentilesCoverOnlyTheWindowButCountCoversEverything() {
+        LatencyRecorder recorder = new LatencyRecorder(4);
+        recorder.record(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 4; i++) {
+            recorder.record(TimeUnit.MILLISECONDS.toNanos(2));
+        }
+
+        Map<String, Object> stats = recorder.stats();
+        assertEquals(5L, stats.get("count"));
+        assertEquals(2.0, stats.get("maxMs"));
+    }
+
+    @Test
+    void emptyRecorderReportsZeros() {
+        Map<String, Object> stats = new LatencyRecorder().stats();
+        assertEquals(0L, stats.get("count"));
+        assertEquals(0.0, stats.get("p99Ms"));
+        assertEquals(0.0, stats.get("maxMs"));
+    }
+}
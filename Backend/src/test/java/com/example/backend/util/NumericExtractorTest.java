@@ -0,0 +1,112 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NumericExtractorTest {
+
+    @Test
+    void parsesPriceFormats() {
+        assertEquals(1299.0, NumericExtractor.parsePrice("₹1,299"));
+        assertEquals(129999.0, NumericExtractor.parsePrice("₹1,29,999.00"));
+        assertEquals(12.99, NumericExtractor.parsePrice("$12.99"));
+        assertEquals(1299.5, NumericExtractor.parsePrice("1.299,50 €"));
+        assertEquals(1299.0, NumericExtractor.parsePrice("1 299 €"));
+        assertEquals(1299.0, NumericExtractor.parsePrice("CHF 1'299"));
+        assertEquals(499.0, NumericExtractor.parsePrice("Rs. 499"));
+        assertEquals(12.99, NumericExtractor.parsePrice("$12.99 - $19.99"));
+        assertEquals(499.0, NumericExtractor.parsePrice("₹499–₹999"));
+        assertEquals(4.5, NumericExtractor.parsePrice("4,5"));
+        assertTrue(Double.isNaN(NumericExtractor.parsePrice("Currently unavailable")));
+        assertTrue(Double.isNaN(NumericExtractor.parsePrice(null)));
+    }
+
+    @Test
+    void parsesRatingAsFirstNumber() {
+        // The old digits-and-dots regex turned this into 4.55
+        assertEquals(4.5, NumericExtractor.parseRating("4.5 out of 5 stars"));
+        assertEquals(4.5, NumericExtractor.parseRating("4,5 von 5 Sternen"));
+        assertEquals(4.0, NumericExtractor.parseRating("4 out of 5"));
+        assertEquals(3.9, NumericExtractor.parseRating("Rated 3.9"));
+        assertTrue(Double.isNaN(NumericExtractor.parseRating("no rating")));
+    }
+
+    @Test
+    void parsesCountsWithGroupingAndSuffixes() {
+        assertEquals(12345, NumericExtractor.parseCount("12,345 ratings"));
+        assertEquals(123456, NumericExtractor.parseCount("1,23,456 global ratings"));
+        assertEquals(1200, NumericExtractor.parseCount("1.2K ratings"));
+        assertEquals(3_000_000, NumericExtractor.parseCount("3M"));
+        assertEquals(250_000, NumericExtractor.parseCount("2.5 lakh reviews"));
+        assertEquals(15, NumericExtractor.parseCount("15 kinds"));
+        assertEquals(-1, NumericExtractor.parseCount("No reviews yet"));
+    }
+
+    // Fuzz corpus: seeded random prices rendered in every supported style, plus noise
+    @Test
+    void roundTripsGeneratedPrices() {
+        Random random = new Random(20240611L);
+        for (int i = 0; i < 20_000; i++) {
+            long rupees = (long) Math.pow(10, random.nextInt(9)) + random.nextInt(1000);
+            int paise = random.nextInt(100);
+            boolean withFraction = random.nextBoolean();
+            double expected = withFraction ? rupees + paise / 100.0 : rupees;
+
+            String text = switch (random.nextInt(5)) {
+                case 0 -> "₹" + group(rupees, ",", true) + (withFraction ? "." + twoDigits(paise) : "");
+                case 1 -> "$" + group(rupees, ",", false) + (withFraction ? "." + twoDigits(paise) : "");
+                case 2 -> group(rupees, ".", false) + (withFraction ? "," + twoDigits(paise) : "") + " €";
+                case 3 -> group(rupees, " ", false) + (withFraction ? "," + twoDigits(paise) : "") + " €";
+                default -> "Rs. " + group(rupees, ",", true) + (withFraction ? "." + twoDigits(paise) : "")
+                        + " - Rs. " + group(rupees * 2, ",", true);
+            };
+
+            assertEquals(expected, NumericExtractor.parsePrice(text), 1e-9, text);
+        }
+    }
+
+    @Test
+    void neverThrowsOnArbitraryInput() {
+        Random random = new Random(7L);
+        char[] alphabet = "0123456789.,'  ₹$€-KkMmLlCcr".toCharArray();
+        for (int i = 0; i < 20_000; i++) {
+            char[] chars = new char[random.nextInt(24)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String text = new String(chars);
+            double price = NumericExtractor.parsePrice(text);
+            assertTrue(Double.isNaN(price) || price >= 0, text);
+            NumericExtractor.parseRating(text);
+            NumericExtractor.parseCount(text);
+        }
+    }
+
+    private static String twoDigits(int value) {
+        return value < 10 ? "0" + value : Integer.toString(value);
+    }
+
+    // Western (3-3-3) or Indian (2-2-3) digit grouping
+    private static String group(long value, String separator, boolean indian) {
+        String digits = Long.toString(value);
+        StringBuilder out = new StringBuilder();
+        int groupSize = 3;
+        int inGroup = 0;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            if (inGroup == groupSize) {
+                out.append(new StringBuilder(separator).reverse());
+                inGroup = 0;
+                if (indian) {
+                    groupSize = 2;
+                }
+            }
+            out.append(digits.charAt(i));
+            inGroup++;
+        }
+        return out.reverse().toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.backend.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RawJsonTest {
+
+    private static final String JSON = "{\"title\":\"café \\\"Pro\\\"\",\"tags\":[1,{\"a\":null}]}";
+
+    private static Map<String, Object> payload() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("asin", "B0TEST0001");
+        payload.put("data", new RawJson(JSON.getBytes(StandardCharsets.UTF_8)));
+        return payload;
+    }
+
+    @Test
+    void serializesAsEmbeddedJsonWithJackson2() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(payload());
+
+        assertEquals("{\"asin\":\"B0TEST0001\",\"data\":" + JSON + "}", json);
+    }
+
+    @Test
+    void serializesAsEmbeddedJsonWithJackson3() {
+        String json = JsonMapper.builder().build().writeValueAsString(payload());
+
+        assertEquals("{\"asin\":\"B0TEST0001\",\"data\":" + JSON + "}", json);
+    }
+
+    @Test
+    void exposesTheBytesItWasGiven() {
+        byte[] utf8 = JSON.getBytes(StandardCharsets.UTF_8);
+        RawJson raw = new RawJson(utf8);
+
+        assertEquals(JSON, raw.json());
+        assertEquals(JSON, raw.toString());
+        assertEquals(utf8.length, raw.size());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.backend.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RawPayloadTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Map<String, Object> sampleDocument() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("product_title", "Apple iPhone 15 (128 GB) - Black");
+        data.put("product_price", "₹69,900.00");
+        data.put("product_num_ratings", 12345);
+
+        List<Map<String, Object>> reviews = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Map<String, Object> review = new LinkedHashMap<>();
+            review.put("review_id", "R" + i);
+            review.put("review_comment", "Great phone, battery lasts all day and the camera is excellent.");
+            review.put("review_star_rating", "5");
+            review.put("is_verified_purchase", true);
+            reviews.add(review);
+        }
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("title", "Apple iPhone 15 (128 GB) - Black");
+        document.put("price", 69900.0);
+        document.put("raw", data);
+        document.put("reviews", reviews);
+        return document;
+    }
+
+    @Test
+    void roundTripsThroughMapAndJson() throws Exception {
+        Map<String, Object> document = sampleDocument();
+        String json = objectMapper.writeValueAsString(document);
+
+        RawPayload fromMap = RawPayload.fromMap(document);
+        RawPayload fromJson = RawPayload.fromJson(json);
+
+        assertEquals(document, fromMap.toMap());
+        assertEquals(json, fromMap.toJson());
+        assertEquals(json, fromJson.toJson());
+        assertTrue(fromMap.size() < json.length() / 2, "payload should be well under half the JSON size");
+    }
+
+    @Test
+    void readsSingleFieldWithoutDecodingTheRest() {
+        RawPayload payload = RawPayload.fromMap(sampleDocument());
+
+        assertEquals("Apple iPhone 15 (128 GB) - Black", payload.field("title"));
+        assertEquals(69900.0, payload.field("price"));
+        assertEquals(12345, ((Map<?, ?>) payload.field("raw")).get("product_num_ratings"));
+        assertNull(payload.field("missing"));
+    }
+
+    @Test
+    void wrapsStoredBytes() {
+        RawPayload payload = RawPayload.fromMap(sampleDocument());
+        RawPayload restored = RawPayload.wrap(payload.bytes().clone());
+
+        assertArrayEquals(payload.bytes(), restored.bytes());
+        assertEquals(payload.toMap(), restored.toMap());
+        assertThrows(IllegalArgumentException.class, () -> RawPayload.wrap("{}".getBytes()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RawSegmentsTest {
+
+    private static Map<String, Object> details() {
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("product_title", "boAt Airdopes 141");
+        raw.put("product_price", "₹1,099");
+        raw.put("product_original_price", "₹4,490");
+        raw.put("product_availability", "In stock");
+        raw.put("product_photos", List.of("a.jpg", "b.jpg"));
+        raw.put("product_details", Map.of("Colour", "Black"));
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("asin", "B09N3ZNHTY");
+        document.put("title", "boAt Airdopes 141");
+        document.put("price", 1099.0);
+        document.put("rating", 4.1);
+        document.put("raw", raw);
+        return document;
+    }
+
+    @Test
+    void separatesPriceAndAvailabilityFromCatalogueData() {
+        RawSegments.Split split = RawSegments.split(details());
+
+        assertEquals(1099.0, split.volatileFields().get("price"));
+        Map<?, ?> volatileRaw = (Map<?, ?>) split.volatileFields().get("raw");
+        assertEquals(Map.of("product_price", "₹1,099", "product_original_price", "₹4,490",
+                "product_availability", "In stock"), volatileRaw);
+
+        assertFalse(split.stable().containsKey("price"));
+        assertEquals(4.1, split.stable().get("rating"));
+        Map<?, ?> stableRaw = (Map<?, ?>) split.stable().get("raw");
+        assertFalse(stableRaw.containsKey("product_price"));
+        assertTrue(stableRaw.containsKey("product_photos"));
+        assertTrue(stableRaw.containsKey("product_details"));
+    }
+
+    @Test
+    void mergeRestoresTheOriginalDocument() {
+        Map<String, Object> document = details();
+        RawSegments.Split split = RawSegments.split(document);
+
+        assertEquals(document, RawSegments.merge(split.stable(), split.volatileFields()));
+    }
+
+    @Test
+    void newerPriceOverridesWithoutTouchingStableFields() {
+        RawSegments.Split split = RawSegments.split(details());
+        Map<String, Object> newPrice = Map.of("price", 999.0, "raw", Map.of("product_price", "₹999"));
+
+        Map<String, Object> merged = RawSegments.merge(split.stable(), newPrice);
+
+        assertEquals(999.0, merged.get("price"));
+        Map<?, ?> raw = (Map<?, ?>) merged.get("raw");
+        assertEquals("₹999", raw.get("product_price"));
+        assertEquals("boAt Airdopes 141", raw.get("product_title"));
+        // Inputs stay untouched
+        assertFalse(split.stable().containsKey("price"));
+    }
+
+    @Test
+    void documentsWithoutRawObjectSplitAtTopLevelOnly() {
+        Map<String, Object> mock = new LinkedHashMap<>();
+        mock.put("title", "Demo");
+        mock.put("product_price", "₹999");
+        mock.put("raw", "not an object");
+
+        RawSegments.Split split = RawSegments.split(mock);
+
+        assertEquals(Map.of("product_price", "₹999"), split.volatileFields());
+        assertEquals("not an object", split.stable().get("raw"));
+        assertEquals(mock, RawSegments.merge(split.stable(), split.volatileFields()));
+    }
+}